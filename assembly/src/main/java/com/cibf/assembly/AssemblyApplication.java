@@ -0,0 +1,59 @@
+package com.cibf.assembly;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Single-JVM deployment: authentication-service, stall-service and
+ * user-service started as child contexts of one small parent context
+ * (see {@link ModuleHost}). The standalone jars are unchanged; this is an
+ * alternative way to run them on a small box.
+ *
+ * Configuration: assembly.properties next to the launch directory or on the
+ * classpath. The parent deliberately has no auto-configuration, so it does not
+ * hide beans (MeterRegistry, ObjectMapper, ...) that each module configures
+ * for itself.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(AssemblyProperties.class)
+public class AssemblyApplication {
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext assembly = new SpringApplicationBuilder(AssemblyApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.config.name=assembly")
+                .run(args);
+        assembly.getBean(ModuleHost.class).startAll(args);
+    }
+
+    @Bean
+    public SharedDataSources sharedDataSources() {
+        return new SharedDataSources();
+    }
+
+    @Bean
+    public ModuleHost moduleHost(AssemblyProperties properties, SharedDataSources dataSources,
+                                 ConfigurableApplicationContext context) {
+        return new ModuleHost(properties, dataSources, context);
+    }
+
+    /**
+     * One verifier for every module's JwtTokenProvider. The modules must be
+     * configured with the same app.jwt-secret (JWT_SECRET) as the assembly.
+     */
+    @Bean
+    public JwtParser sharedJwtParser(@Value("${app.jwt-secret}") String jwtSecret) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+    }
+}
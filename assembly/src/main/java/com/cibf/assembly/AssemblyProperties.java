@@ -0,0 +1,47 @@
+package com.cibf.assembly;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Modules hosted by the assembly and the settings they are started with.
+ *
+ * Example:
+ * <pre>
+ * assembly.modules.auth.main-class=com.cibf.reservation.backend.AuthenticationServiceApplication
+ * assembly.modules.auth.properties.[server.port]=9081
+ * assembly.modules.stall.enabled=false
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "assembly")
+public class AssemblyProperties {
+
+    /** Directory holding one plain (non-executable) jar per module, named {@code <module>.jar}. */
+    private Path modulesDir = Path.of("modules");
+
+    /** Properties passed to every module; they override the module's application.properties. */
+    private Map<String, String> commonProperties = new LinkedHashMap<>();
+
+    /** Hosted modules by name; they are started one after the other and do not depend on each other. */
+    private Map<String, Module> modules = new LinkedHashMap<>();
+
+    @Data
+    public static class Module {
+
+        private boolean enabled = true;
+
+        /** The module's {@code @SpringBootApplication} class. */
+        private String mainClass;
+
+        /** Jar with the module's classes and resources; defaults to {@code <modules-dir>/<module>.jar}. */
+        private Path jar;
+
+        /** Properties for this module only; they override the module's application.properties. */
+        private Map<String, String> properties = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,122 @@
+package com.cibf.assembly;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts each module as a child context of the assembly.
+ *
+ * The services share package and class names (com.cibf.config.WebConfig exists
+ * in all of them), so every module gets its own class loader holding only its
+ * jar. Libraries (Spring, Hibernate, Tomcat, jjwt) come from the parent class
+ * loader and are loaded once for the whole JVM. A module reads its own
+ * application.properties and runs its own web server, so ports and URLs are the
+ * same as in the standalone deployment; it sees the assembly's beans (the shared
+ * JWT verifier) through the parent context and gets its DataSource from
+ * {@link SharedDataSources}.
+ */
+@Slf4j
+public class ModuleHost implements DisposableBean {
+
+    private final AssemblyProperties properties;
+    private final SharedDataSources dataSources;
+    private final ConfigurableApplicationContext parent;
+
+    private final Deque<RunningModule> running = new ArrayDeque<>();
+
+    public ModuleHost(AssemblyProperties properties, SharedDataSources dataSources,
+                      ConfigurableApplicationContext parent) {
+        this.properties = properties;
+        this.dataSources = dataSources;
+        this.parent = parent;
+    }
+
+    public void startAll(String[] args) throws IOException {
+        for (Map.Entry<String, AssemblyProperties.Module> entry : properties.getModules().entrySet()) {
+            if (entry.getValue().isEnabled()) {
+                start(entry.getKey(), entry.getValue(), args);
+            }
+        }
+    }
+
+    private void start(String name, AssemblyProperties.Module module, String[] args) throws IOException {
+        Path jar = module.getJar() != null ? module.getJar() : properties.getModulesDir().resolve(name + ".jar");
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Jar for module " + name + " not found: " + jar.toAbsolutePath());
+        }
+        long start = System.nanoTime();
+        URLClassLoader classLoader = new URLClassLoader(name, new URL[]{jar.toUri().toURL()},
+                ModuleHost.class.getClassLoader());
+
+        // Hibernate, Jackson and Tomcat resolve application classes through the
+        // context class loader while the module starts
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            Class<?> mainClass = classLoader.loadClass(module.getMainClass());
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(mainClass)
+                    .main(mainClass)
+                    .resourceLoader(new DefaultResourceLoader(classLoader))
+                    .parent(parent)
+                    .initializers(child -> child.getBeanFactory().registerSingleton("dataSource",
+                            dataSources.forModule(name, child.getEnvironment(), classLoader)))
+                    .run(moduleArgs(module, args));
+            running.push(new RunningModule(name, context, classLoader));
+            log.info("Module {} started in {} ms", name, (System.nanoTime() - start) / 1_000_000);
+        } catch (ClassNotFoundException ex) {
+            classLoader.close();
+            throw new IllegalStateException("Main class of module " + name + " not found: " + module.getMainClass(), ex);
+        } catch (RuntimeException ex) {
+            classLoader.close();
+            throw ex;
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    /**
+     * The assembly's own arguments, then common and module properties as
+     * {@code --key=value} so they take precedence over application.properties.
+     */
+    private String[] moduleArgs(AssemblyProperties.Module module, String[] args) {
+        List<String> moduleArgs = new ArrayList<>(List.of(args));
+        properties.getCommonProperties().forEach((key, value) -> moduleArgs.add("--" + key + "=" + value));
+        module.getProperties().forEach((key, value) -> moduleArgs.add("--" + key + "=" + value));
+        return moduleArgs.toArray(String[]::new);
+    }
+
+    /**
+     * Stops the modules in reverse start order. Runs before the shared pools
+     * are closed, since this bean depends on them.
+     */
+    @Override
+    public void destroy() {
+        while (!running.isEmpty()) {
+            RunningModule module = running.pop();
+            try {
+                module.context().close();
+                module.classLoader().close();
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Failed to stop module {}", module.name(), ex);
+            }
+        }
+    }
+
+    private record RunningModule(String name, ConfigurableApplicationContext context, URLClassLoader classLoader) {
+    }
+}
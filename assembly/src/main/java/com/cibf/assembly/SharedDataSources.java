@@ -0,0 +1,57 @@
+package com.cibf.assembly;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection pools owned by the assembly, one per database schema (JDBC URL and
+ * user). A module gets the pool for the {@code spring.datasource.*} settings in
+ * its own configuration; modules pointing at the same schema share it. The
+ * first module to ask sizes the pool from its {@code spring.datasource.hikari.*}.
+ *
+ * Pools outlive the module contexts and are closed with the assembly.
+ */
+@Slf4j
+public class SharedDataSources implements DisposableBean {
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+
+    public synchronized HikariDataSource forModule(String module, Environment environment, ClassLoader classLoader) {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties properties = binder.bind("spring.datasource", DataSourceProperties.class)
+                .orElseGet(DataSourceProperties::new);
+        properties.setBeanClassLoader(classLoader);
+        try {
+            properties.afterPropertiesSet();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Invalid spring.datasource settings for module " + module, ex);
+        }
+
+        String key = properties.determineUrl() + " as " + properties.determineUsername();
+        HikariDataSource pool = pools.get(key);
+        if (pool == null) {
+            pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("assembly-" + module);
+            pools.put(key, pool);
+            log.info("Created pool {} (max {}) for {}", pool.getPoolName(), pool.getMaximumPoolSize(), key);
+        } else {
+            log.info("Module {} shares pool {}", module, pool.getPoolName());
+        }
+        return pool;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        pools.values().forEach(HikariDataSource::close);
+        pools.clear();
+    }
+}
@@ -0,0 +1,78 @@
+package com.cibf.benchmarks.auth;
+
+import com.cibf.benchmarks.Stubs;
+import com.cibf.entity.Role;
+import com.cibf.entity.User;
+import com.cibf.repository.UserRepository;
+import com.cibf.security.CustomUserDetailsService;
+import com.cibf.security.GatewayIdentity;
+import com.cibf.security.JwtAuthenticationFilter;
+import com.cibf.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification in the authentication service: JwtTokenProvider calls and a
+ * full JwtAuthenticationFilter pass (user lookup answered in memory).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET =
+            "JE6WwDKZ8uMOOwt+XnkQTPvb2sj0BD58Kc1WwxTHfVaB7otOwANuKKhbGPvKjA6hDyo0y7qls24Irt6rHLINEA==";
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private FilterChain chain;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 86_400_000L);
+        token = tokenProvider.generateToken("vendor@cibf.lk");
+
+        User user = new User("vendor@cibf.lk", "{noop}secret", "Sarasavi", Role.VENDOR);
+        UserRepository users = Stubs.repository(UserRepository.class,
+                Map.of("findByUsername", args -> Optional.of(user)));
+
+        filter = new JwtAuthenticationFilter(tokenProvider, new CustomUserDetailsService(users), new GatewayIdentity(""));
+        request = new MockHttpServletRequest("GET", "/api/admin/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsername() {
+        return tokenProvider.getUsername(token);
+    }
+
+    @Benchmark
+    public void filterPass(Blackhole blackhole) throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
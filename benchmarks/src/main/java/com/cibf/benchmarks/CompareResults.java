@@ -0,0 +1,80 @@
+package com.cibf.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (e.g. the same suite on two commits) and
+ * prints the score change per benchmark. Positive change means "better":
+ * higher throughput, or lower time per operation.
+ *
+ * Usage: CompareResults baseline.json candidate.json
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> candidate = load(new File(args[1]));
+
+        System.out.printf("%-70s %18s %18s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            double nowScore = now.path("primaryMetric").path("score").asDouble();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-70s %18s %18s %9s%n", entry.getKey(), "-", format(nowScore, unit), "new");
+                continue;
+            }
+            double beforeScore = before.path("primaryMetric").path("score").asDouble();
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double change = (nowScore - beforeScore) / beforeScore * 100.0;
+            if (!higherIsBetter) {
+                change = -change;
+            }
+            System.out.printf("%-70s %18s %18s %+8.1f%%%n",
+                    entry.getKey(), format(beforeScore, unit), format(nowScore, unit), change);
+        }
+    }
+
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            results.put(key(run), run);
+        }
+        return results;
+    }
+
+    private static String key(JsonNode run) {
+        StringBuilder key = new StringBuilder(run.path("benchmark").asText()
+                .replaceFirst("^com\\.cibf\\.benchmarks\\.", ""));
+        JsonNode params = run.path("params");
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> param = fields.next();
+            key.append(key.indexOf("(") < 0 ? " (" : ", ")
+                    .append(param.getKey()).append('=').append(param.getValue().asText());
+        }
+        if (params.size() > 0) {
+            key.append(')');
+        }
+        return key.toString();
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit);
+    }
+}
@@ -0,0 +1,86 @@
+package com.cibf.benchmarks.stall;
+
+import com.cibf.service.LotteryAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The lottery draw's shuffle and matching (LotteryAllocator) for an opening-day
+ * round: every applicant ranks a handful of stalls, most of them from the popular
+ * front of the hall, and all stalls are available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LotteryAllocatorBenchmark {
+
+    @Param({"10000"})
+    private int applicants;
+
+    @Param({"1000"})
+    private int stallCount;
+
+    @Param({"10"})
+    private int choices;
+
+    @Param({"1", "3"})
+    private int maxStallsPerVendor;
+
+    private int[][] preferences;
+    private boolean[] available;
+    private int[] limits;
+    private int[] order;
+
+    @Setup
+    public void setUp() {
+        preferences = createPreferences(applicants, stallCount, choices, 42);
+        available = new boolean[stallCount];
+        Arrays.fill(available, true);
+        limits = new int[applicants];
+        Arrays.fill(limits, maxStallsPerVendor);
+        order = LotteryAllocator.drawOrder(applicants, 7);
+    }
+
+    @Benchmark
+    public int[] drawOrder() {
+        return LotteryAllocator.drawOrder(applicants, 7);
+    }
+
+    @Benchmark
+    public LotteryAllocator.Result allocate() {
+        return LotteryAllocator.allocate(preferences, available, order, limits);
+    }
+
+    /**
+     * Distinct choices per applicant, skewed towards the low stall numbers (the
+     * square of a uniform draw), so that many applicants compete for the same stalls.
+     */
+    static int[][] createPreferences(int applicants, int stalls, int choices, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] preferences = new int[applicants][];
+        boolean[] picked = new boolean[stalls];
+        for (int v = 0; v < applicants; v++) {
+            int[] ranked = new int[Math.min(choices, stalls)];
+            for (int c = 0; c < ranked.length; c++) {
+                int s;
+                do {
+                    double u = random.nextDouble();
+                    s = (int) (u * u * stalls);
+                } while (picked[s]);
+                picked[s] = true;
+                ranked[c] = s;
+            }
+            for (int s : ranked) {
+                picked[s] = false;
+            }
+            preferences[v] = ranked;
+        }
+        return preferences;
+    }
+}
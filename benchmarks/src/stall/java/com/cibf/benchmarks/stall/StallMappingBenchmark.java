@@ -0,0 +1,90 @@
+package com.cibf.benchmarks.stall;
+
+import com.cibf.dto.StallMapDTO;
+import com.cibf.dto.StallResponseDTO;
+import com.cibf.entity.Stall;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Entity-to-DTO mapping and JSON serialization of the stall listings
+ * (GET /api/stalls and GET /api/stalls/map) for a full exhibition hall.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StallMappingBenchmark {
+
+    @Param({"500"})
+    private int stallCount;
+
+    private List<Stall> stalls;
+    private List<StallMapDTO> mapDtos;
+    private List<StallResponseDTO> responseDtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        stalls = createStalls(stallCount);
+        mapDtos = toMapDtos();
+        responseDtos = toResponseDtos();
+        // Same settings Spring Boot applies to its ObjectMapper
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public List<StallMapDTO> toMapDtos() {
+        return stalls.stream().map(StallMapDTO::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<StallResponseDTO> toResponseDtos() {
+        return stalls.stream().map(StallResponseDTO::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeMap() throws Exception {
+        return objectMapper.writeValueAsBytes(mapDtos);
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(responseDtos);
+    }
+
+    static List<Stall> createStalls(int count) {
+        Stall.StallSize[] sizes = Stall.StallSize.values();
+        Stall.StallStatus[] statuses = Stall.StallStatus.values();
+        LocalDateTime now = LocalDateTime.now();
+        List<Stall> stalls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Stall stall = new Stall();
+            stall.setId((long) i + 1);
+            stall.setStallName((char) ('A' + i / 100 % 26) + String.valueOf(i % 100));
+            stall.setSize(sizes[i % sizes.length]);
+            stall.setDimension("10x10");
+            stall.setLocationX((double) (i % 25) * 40);
+            stall.setLocationY((double) (i / 25) * 40);
+            stall.setPrice(BigDecimal.valueOf(25_000 + (i % 3) * 10_000, 2));
+            stall.setStatus(statuses[i % statuses.length]);
+            stall.setCreatedAt(now);
+            stall.setUpdatedAt(now);
+            stalls.add(stall);
+        }
+        return stalls;
+    }
+}
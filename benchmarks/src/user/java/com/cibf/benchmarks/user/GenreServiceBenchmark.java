@@ -0,0 +1,60 @@
+package com.cibf.benchmarks.user;
+
+import com.cibf.benchmarks.Stubs;
+import com.cibf.dto.GenreDTO;
+import com.cibf.entity.LiteraryGenre;
+import com.cibf.entity.UserGenre;
+import com.cibf.repository.LiteraryGenreRepository;
+import com.cibf.repository.UserGenreRepository;
+import com.cibf.service.GenreService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO conversion in GenreService for the genre catalogue and a
+ * vendor's selected genres, with the repositories answered in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenreServiceBenchmark {
+
+    @Param({"15", "500"})
+    private int genreCount;
+
+    private GenreService genreService;
+
+    @Setup
+    public void setUp() {
+        List<LiteraryGenre> genres = new ArrayList<>(genreCount);
+        List<UserGenre> selections = new ArrayList<>(genreCount);
+        for (int i = 0; i < genreCount; i++) {
+            LiteraryGenre genre = new LiteraryGenre((long) i + 1, "Genre " + i, "Description of genre " + i);
+            genres.add(genre);
+            selections.add(new UserGenre((long) i + 1, "vendor@cibf.lk", genre));
+        }
+
+        LiteraryGenreRepository genreRepository = Stubs.repository(LiteraryGenreRepository.class,
+                Map.of("findAll", args -> genres));
+        UserGenreRepository userGenreRepository = Stubs.repository(UserGenreRepository.class,
+                Map.of("findByUsername", args -> selections));
+        genreService = new GenreService(genreRepository, userGenreRepository);
+    }
+
+    @Benchmark
+    public List<GenreDTO> getAllGenres() {
+        return genreService.getAllGenres();
+    }
+
+    @Benchmark
+    public List<GenreDTO> getUserGenres() {
+        return genreService.getUserGenresByUsername("vendor@cibf.lk");
+    }
+}
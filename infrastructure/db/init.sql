@@ -17,5 +17,5 @@ CREATE SCHEMA IF NOT EXISTS user_schema;
 -- GRANT ALL PRIVILEGES ON SCHEMA reservation_schema TO postgres;
 -- GRANT ALL PRIVILEGES ON SCHEMA user_schema TO postgres;
 
--- Tables will be created automatically by Hibernate (spring.jpa.hibernate.ddl-auto=update)
--- No need to create tables manually
+-- Tables and indexes are created by each service's Flyway migrations
+-- (src/main/resources/db/migration); Hibernate only validates them (ddl-auto=validate)
@@ -0,0 +1,115 @@
+package com.cibf.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thin JSON-over-HTTP client that times every call under an endpoint name.
+ * Responses with status 4xx/5xx and transport failures count as errors and
+ * yield {@code null}, so a scenario step can simply stop for that vendor.
+ */
+public final class ApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ConcurrentMap<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    public ApiClient(HttpClient http) {
+        this.http = http;
+    }
+
+    public Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    /** Highest number of requests that were waiting on the services at the same time. */
+    public int peakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public void reset() {
+        stats.clear();
+        peakInFlight.set(0);
+    }
+
+    public <T> T get(String endpoint, String url, String token, TypeReference<T> type) {
+        return send(endpoint, request(url, token).GET().build(), type);
+    }
+
+    public <T> T post(String endpoint, String url, String token, Object body, TypeReference<T> type) {
+        return send(endpoint, request(url, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(body)))
+                .build(), type);
+    }
+
+    public <T> T patch(String endpoint, String url, String token, TypeReference<T> type) {
+        return send(endpoint, request(url, token)
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build(), type);
+    }
+
+    private HttpRequest.Builder request(String url, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private <T> T send(String endpoint, HttpRequest request, TypeReference<T> type) {
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, EndpointStats::new);
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            endpointStats.record(System.nanoTime() - start, e.getClass().getSimpleName());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            endpointStats.record(System.nanoTime() - start, "interrupted");
+            return null;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (response.statusCode() >= 400) {
+            endpointStats.record(elapsed, "status " + response.statusCode());
+            return null;
+        }
+        endpointStats.record(elapsed, null);
+        try {
+            return response.body().isEmpty() ? null : mapper.readValue(response.body(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unexpected response from " + request.uri(), e);
+        }
+    }
+
+    private String json(Object body) {
+        try {
+            return mapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cibf.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and failures for one endpoint. Every sample is kept (a run is a
+ * few thousand requests), so percentiles are exact rather than bucketed.
+ */
+public final class EndpointStats {
+
+    private final String name;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private int errors;
+    private final Map<String, Integer> errorsByCause = new TreeMap<>();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    synchronized void record(long nanos, String errorCause) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = nanos;
+        if (errorCause != null) {
+            errors++;
+            errorsByCause.merge(errorCause, 1, Integer::sum);
+        }
+    }
+
+    public synchronized Snapshot snapshot(long wallNanos) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        double seconds = wallNanos / 1_000_000_000.0;
+        return new Snapshot(
+                count,
+                errors,
+                seconds > 0 ? count / seconds : 0,
+                percentileMs(sorted, 0.50),
+                percentileMs(sorted, 0.90),
+                percentileMs(sorted, 0.99),
+                count == 0 ? 0 : sorted[count - 1] / 1_000_000.0,
+                new TreeMap<>(errorsByCause));
+    }
+
+    /** Nearest-rank percentile. */
+    private static double percentileMs(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    public record Snapshot(int count, int errors, double throughputPerSec,
+                           double p50Ms, double p90Ms, double p99Ms, double maxMs,
+                           Map<String, Integer> errorsByCause) {
+    }
+}
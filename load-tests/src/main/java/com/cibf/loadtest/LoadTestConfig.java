@@ -0,0 +1,92 @@
+package com.cibf.loadtest;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Harness settings, read from {@code loadtest.*} system properties. The Gradle
+ * task forwards {@code -Ploadtest.*} project properties unchanged, e.g.
+ * {@code gradle :load-tests:loadTest -Ploadtest.vendors=500}.
+ */
+public record LoadTestConfig(
+        int vendors,
+        int stalls,
+        int hotStalls,
+        int genresPerVendor,
+        long rampUpMs,
+        Path authJar,
+        Path stallJar,
+        Path userJar,
+        String deployment,
+        Path assemblyDir,
+        boolean gateway,
+        Path gatewayJar,
+        List<String> serviceJvmArgs,
+        String serviceProfile,
+        Boolean virtualThreads,
+        boolean rateLimit,
+        int startupTimeoutSeconds,
+        String dbHost,
+        Integer dbPort,
+        String dbUser,
+        String dbPassword,
+        Path resultsDir,
+        Path workDir,
+        String tag) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        String dbPort = System.getProperty("loadtest.db.port");
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.vendors", 200),
+                Integer.getInteger("loadtest.stalls", 120),
+                Integer.getInteger("loadtest.hot-stalls", 10),
+                Integer.getInteger("loadtest.genres-per-vendor", 3),
+                Long.getLong("loadtest.ramp-up-ms", 0L),
+                requiredPath("loadtest.jar.auth"),
+                requiredPath("loadtest.jar.stall"),
+                requiredPath("loadtest.jar.user"),
+                // "services": one JVM per service; "assembly": all of them in one JVM (:assembly:assemblyImage)
+                System.getProperty("loadtest.deployment", "services"),
+                Path.of(System.getProperty("loadtest.assembly-dir", "../assembly/build/assembly")),
+                // Send the scenario through services/api-gateway instead of calling the services directly
+                Boolean.getBoolean("loadtest.gateway"),
+                Path.of(System.getProperty("loadtest.jar.gateway", "")),
+                Arrays.asList(System.getProperty("loadtest.service-jvm-args",
+                        // Print a stack trace whenever a virtual thread blocks while pinned to its carrier
+                        "-Xmx512m -Djdk.tracePinnedThreads=short").trim().split("\\s+")),
+                // Production logging by default, so DEBUG output and SQL echo do not skew the numbers
+                System.getProperty("loadtest.service-profile", "prod"),
+                // Unset: whatever the services' own spring.threads.virtual.enabled says
+                System.getProperty("loadtest.virtual-threads") == null
+                        ? null : Boolean.valueOf(System.getProperty("loadtest.virtual-threads")),
+                // Off by default: every simulated vendor logs in from 127.0.0.1, i.e. one per-IP bucket
+                Boolean.getBoolean("loadtest.rate-limit"),
+                Integer.getInteger("loadtest.startup-timeout-seconds", 180),
+                System.getProperty("loadtest.db.host"),
+                dbPort == null ? null : Integer.valueOf(dbPort),
+                System.getProperty("loadtest.db.user", "postgres"),
+                System.getProperty("loadtest.db.password", "postgres"),
+                Path.of(System.getProperty("loadtest.results-dir", "build/results/opening-rush")),
+                Path.of(System.getProperty("loadtest.work-dir", "build/load-test")),
+                System.getProperty("loadtest.tag", "local"));
+    }
+
+    public boolean assembly() {
+        return "assembly".equals(deployment);
+    }
+
+    /** An external database is used when {@code loadtest.db.host} is set; otherwise an embedded one is started. */
+    public boolean externalDatabase() {
+        return dbHost != null && !dbHost.isBlank();
+    }
+
+    private static Path requiredPath(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Missing system property " + property
+                    + " (run through 'gradle :load-tests:loadTest', which sets it)");
+        }
+        return Path.of(value);
+    }
+}
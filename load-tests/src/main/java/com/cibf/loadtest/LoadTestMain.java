@@ -0,0 +1,138 @@
+package com.cibf.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Entry point of {@code gradle :load-tests:loadTest}: starts Postgres and the
+ * three services (or the single-JVM assembly), optionally the API gateway in
+ * front of them, seeds data, replays the opening rush and writes the report.
+ * Everything is torn down afterwards, also when a step fails.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Duration startupTimeout = Duration.ofSeconds(config.startupTimeoutSeconds());
+
+        try (LocalPostgres postgres = LocalPostgres.start(config)) {
+            System.out.printf("Postgres ready on %s:%d (%s)%n", postgres.host(), postgres.port(),
+                    config.externalDatabase() ? "external" : "embedded");
+
+            // Shared by the gateway and the services, which then trust its forwarded identity
+            String gatewaySecret = config.gateway() ? UUID.randomUUID().toString() : null;
+            Map<String, ServiceProcess> services = startServices(config, postgres, gatewaySecret);
+            try {
+                ServiceProcess auth = services.get("auth");
+                ServiceProcess stall = services.get("stall");
+                ServiceProcess user = services.get("user");
+                for (ServiceProcess service : new ServiceProcess[]{auth, stall, user}) {
+                    service.awaitHealthy(http, startupTimeout);
+                    System.out.println(service.name() + " up at " + service.baseUrl());
+                }
+                String authUrl = auth.baseUrl();
+                String stallUrl = stall.baseUrl();
+                String userUrl = user.baseUrl();
+                if (config.gateway()) {
+                    ServiceProcess gateway = ServiceProcess.start("api-gateway", config.gatewayJar(), Map.of(
+                            "AUTH_SERVICE_URL", authUrl,
+                            "STALL_SERVICE_URL", stallUrl,
+                            "USER_SERVICE_URL", userUrl,
+                            "GATEWAY_SHARED_SECRET", gatewaySecret), config);
+                    services.put("gateway", gateway);
+                    gateway.awaitHealthy(http, startupTimeout);
+                    System.out.println(gateway.name() + " up at " + gateway.baseUrl());
+                    authUrl = stallUrl = userUrl = gateway.baseUrl();
+                }
+
+                ApiClient client = new ApiClient(http);
+                OpeningRushScenario scenario = new OpeningRushScenario(config, client, authUrl, stallUrl, userUrl);
+                scenario.setUp();
+                Map<String, EndpointStats> setup = new LinkedHashMap<>(client.stats());
+                System.out.printf("Seeded %d stalls and %d vendors%n", config.stalls(), scenario.registeredVendors());
+
+                client.reset();
+                long rushNanos = scenario.run();
+
+                // Per JVM: the assembly's modules share one process, log and heap
+                List<ServiceProcess> jvms = new ArrayList<>(config.assembly()
+                        ? List.of(services.get("assembly")) : List.of(auth, stall, user));
+                if (config.gateway()) {
+                    jvms.add(services.get("gateway"));
+                }
+                Map<String, Long> pinned = new LinkedHashMap<>();
+                Map<String, Object> memory = new LinkedHashMap<>();
+                for (ServiceProcess service : jvms) {
+                    pinned.put(service.name(), service.pinnedThreadEvents());
+                    memory.put(service.name(), service.memoryReport(http, scenario.employeeToken()));
+                }
+                LoadTestReport.write(config, scenario.registeredVendors(), rushNanos, setup, client.stats(),
+                        scenario.contention(), client.peakInFlight(), pinned, memory);
+            } finally {
+                closeAll(services.values());
+            }
+        }
+    }
+
+    /**
+     * Starts the three services, keyed auth / stall / user: as separate JVMs, or
+     * with {@code loadtest.deployment=assembly} as modules of one JVM (which is
+     * then also under the key "assembly").
+     */
+    private static Map<String, ServiceProcess> startServices(LoadTestConfig config, LocalPostgres postgres,
+                                                             String gatewaySecret)
+            throws IOException, InterruptedException {
+        Map<String, String> serviceNames = new LinkedHashMap<>();
+        serviceNames.put("auth", "authentication-service");
+        serviceNames.put("stall", "stall-service");
+        serviceNames.put("user", "user-service");
+
+        if (config.assembly()) {
+            Map<String, String> env = new LinkedHashMap<>();
+            serviceNames.values().forEach(service -> env.putAll(environment(postgres, service, gatewaySecret)));
+            return ServiceProcess.startAssembly(config.assemblyDir(), serviceNames, env, config);
+        }
+
+        Map<String, Path> jars = Map.of("auth", config.authJar(), "stall", config.stallJar(), "user", config.userJar());
+        Map<String, ServiceProcess> started = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, String> service : serviceNames.entrySet()) {
+                started.put(service.getKey(), ServiceProcess.start(service.getValue(), jars.get(service.getKey()),
+                        environment(postgres, service.getValue(), gatewaySecret), config));
+            }
+        } catch (IOException | RuntimeException e) {
+            closeAll(started.values());
+            throw e;
+        }
+        return started;
+    }
+
+    private static Map<String, String> environment(LocalPostgres postgres, String service, String gatewaySecret) {
+        Map<String, String> env = new LinkedHashMap<>(postgres.environmentFor(service));
+        if (gatewaySecret != null) {
+            env.put("GATEWAY_SHARED_SECRET", gatewaySecret);
+        }
+        return env;
+    }
+
+    private static void closeAll(Collection<ServiceProcess> services) throws InterruptedException {
+        for (ServiceProcess service : services) {
+            service.close();
+        }
+    }
+}
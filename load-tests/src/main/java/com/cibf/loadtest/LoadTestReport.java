@@ -0,0 +1,78 @@
+package com.cibf.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes a run as {@code <results-dir>/<tag>.json} (the regression baseline
+ * to diff against) and prints a per-endpoint summary table.
+ */
+public final class LoadTestReport {
+
+    private LoadTestReport() {
+    }
+
+    public static Path write(LoadTestConfig config, int vendors, long rushNanos,
+                             Map<String, EndpointStats> setup, Map<String, EndpointStats> rush,
+                             Map<String, Integer> contention, int peakInFlight,
+                             Map<String, Long> pinnedThreadEvents,
+                             Map<String, Object> memoryAfterRush) throws IOException {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("vendors", vendors);
+        settings.put("stalls", config.stalls());
+        settings.put("hotStalls", config.hotStalls());
+        settings.put("genresPerVendor", config.genresPerVendor());
+        settings.put("rampUpMs", config.rampUpMs());
+        settings.put("deployment", config.deployment());
+        settings.put("gateway", config.gateway());
+        settings.put("serviceJvmArgs", config.serviceJvmArgs());
+        settings.put("serviceProfile", config.serviceProfile());
+        settings.put("virtualThreads", config.virtualThreads() == null ? "service default" : config.virtualThreads());
+        settings.put("database", config.externalDatabase() ? "external" : "embedded");
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", "opening-rush");
+        report.put("tag", config.tag());
+        report.put("finishedAt", Instant.now().toString());
+        report.put("config", settings);
+        report.put("rushDurationMs", rushNanos / 1_000_000.0);
+        report.put("endpoints", snapshots(rush, rushNanos));
+        report.put("peakInFlight", peakInFlight);
+        report.put("contention", contention);
+        report.put("pinnedThreadEvents", pinnedThreadEvents);
+        report.put("memoryAfterRush", memoryAfterRush);
+        report.put("setup", snapshots(setup, 0));
+
+        Files.createDirectories(config.resultsDir());
+        Path file = config.resultsDir().resolve(config.tag() + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+
+        System.out.printf("%nOpening rush: %d vendors in %.1f s%n", vendors, rushNanos / 1_000_000_000.0);
+        System.out.printf("%-22s %7s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Count", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "Max ms");
+        snapshots(rush, rushNanos).forEach((name, s) -> System.out.printf(
+                "%-22s %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, s.count(), s.errors(), s.throughputPerSec(), s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs()));
+        System.out.println("Peak in-flight requests: " + peakInFlight);
+        System.out.println("Contention: " + contention);
+        System.out.println("Pinned-thread events: " + pinnedThreadEvents);
+        memoryAfterRush.forEach((service, memory) -> System.out.printf("Memory %-22s rss=%s MB heap=%s%n",
+                service, ((Map<?, ?>) memory).get("rssMb"), ((Map<?, ?>) memory).get("heap")));
+        System.out.println("Report: " + file);
+        return file;
+    }
+
+    private static Map<String, EndpointStats.Snapshot> snapshots(Map<String, EndpointStats> stats, long wallNanos) {
+        Map<String, EndpointStats.Snapshot> snapshots = new TreeMap<>();
+        stats.forEach((name, endpoint) -> snapshots.put(name, endpoint.snapshot(wallNanos)));
+        return snapshots;
+    }
+}
@@ -0,0 +1,124 @@
+package com.cibf.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The database the services run against during a load test: an embedded
+ * PostgreSQL (real server binaries, started in the work directory) or, when
+ * {@code loadtest.db.host} is set, an existing server.
+ *
+ * Either way the {@code cibf_loadtest} database is created from scratch so every
+ * run starts from the same state; the services' Flyway migrations then
+ * create their schemas and tables exactly as in production.
+ */
+public final class LocalPostgres implements AutoCloseable {
+
+    // Dedicated name, so pointing the harness at a dev server never touches cibf_db
+    static final String DATABASE = "cibf_loadtest";
+
+    private final EmbeddedPostgres embedded;
+    private final String host;
+    private final int port;
+    private final String user;
+    private final String password;
+
+    private LocalPostgres(EmbeddedPostgres embedded, String host, int port, String user, String password) {
+        this.embedded = embedded;
+        this.host = host;
+        this.port = port;
+        this.user = user;
+        this.password = password;
+    }
+
+    public static LocalPostgres start(LoadTestConfig config) throws IOException, SQLException {
+        LocalPostgres postgres;
+        if (config.externalDatabase()) {
+            int port = config.dbPort() != null ? config.dbPort() : 5432;
+            postgres = new LocalPostgres(null, config.dbHost(), port, config.dbUser(), config.dbPassword());
+        } else {
+            Files.createDirectories(config.workDir());
+            EmbeddedPostgres embedded = EmbeddedPostgres.builder()
+                    .setOverrideWorkingDirectory(config.workDir().resolve("postgres").toFile())
+                    .setCleanDataDirectory(true)
+                    // The services' pools are sized for a real server; leave headroom for all three
+                    .setServerConfig("max_connections", "300")
+                    .start();
+            postgres = new LocalPostgres(embedded, "localhost", embedded.getPort(), "postgres", "postgres");
+        }
+        postgres.recreateDatabase();
+        return postgres;
+    }
+
+    public String host() {
+        return host;
+    }
+
+    public int port() {
+        return port;
+    }
+
+    public String user() {
+        return user;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    public String jdbcUrl(String schema) {
+        return "jdbc:postgresql://" + host + ":" + port + "/" + DATABASE + "?currentSchema=" + schema;
+    }
+
+    /** Environment variables that point a service's datasource at this database. */
+    public Map<String, String> environmentFor(String serviceName) {
+        Map<String, String> env = new LinkedHashMap<>();
+        env.put("DB_HOST", host);
+        env.put("DB_PORT", String.valueOf(port));
+        env.put("DB_NAME", DATABASE);
+        env.put("DB_USERNAME", user);
+        env.put("DB_PASSWORD", password);
+        if ("stall-service".equals(serviceName)) {
+            // stall-service takes a full JDBC URL instead of host/port/name
+            env.put("STALL_DB_URL", jdbcUrl("stall_schema"));
+        }
+        return env;
+    }
+
+    private void recreateDatabase() throws SQLException {
+        String adminUrl = "jdbc:postgresql://" + host + ":" + port + "/postgres";
+        try (Connection connection = DriverManager.getConnection(adminUrl, user, password);
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT 1 FROM pg_database WHERE datname = '" + DATABASE + "'")) {
+                if (rs.next()) {
+                    statement.execute("DROP DATABASE " + DATABASE + " WITH (FORCE)");
+                }
+            }
+            statement.execute("CREATE DATABASE " + DATABASE);
+        }
+        String databaseUrl = "jdbc:postgresql://" + host + ":" + port + "/" + DATABASE;
+        try (Connection connection = DriverManager.getConnection(databaseUrl, user, password);
+             Statement statement = connection.createStatement()) {
+            for (String schema : new String[]{"auth_schema", "stall_schema", "user_schema"}) {
+                statement.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embedded != null) {
+            embedded.close();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.cibf.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opening-day rush: every vendor logs in at the same moment, loads the stall
+ * map, tries to reserve one of a few "hot" stalls (the ones everybody wants,
+ * so reservations collide) and saves their genre preferences.
+ *
+ * Setup (an employee, the stall layout, the vendor accounts) happens before
+ * the rush and is reported separately, since registrations happen days ahead
+ * in reality.
+ */
+public final class OpeningRushScenario {
+
+    static final String PASSWORD = "loadtest-pass";
+
+    private static final TypeReference<Map<String, Object>> OBJECT = new TypeReference<>() { };
+    private static final TypeReference<List<Map<String, Object>>> LIST = new TypeReference<>() { };
+
+    private final LoadTestConfig config;
+    private final ApiClient client;
+    private final String authUrl;
+    private final String stallUrl;
+    private final String userUrl;
+
+    private final List<Long> hotStallIds = new ArrayList<>();
+    private final List<Long> genreIds = new ArrayList<>();
+    private final List<String> vendors = Collections.synchronizedList(new ArrayList<>());
+
+    private final ConcurrentMap<Long, String> reservedBy = new ConcurrentHashMap<>();
+    private final AtomicInteger reservations = new AtomicInteger();
+    private final AtomicInteger doubleBookings = new AtomicInteger();
+    private final AtomicInteger noStallLeft = new AtomicInteger();
+    private String employeeToken;
+
+    public OpeningRushScenario(LoadTestConfig config, ApiClient client,
+                               String authUrl, String stallUrl, String userUrl) {
+        this.config = config;
+        this.client = client;
+        this.authUrl = authUrl;
+        this.stallUrl = stallUrl;
+        this.userUrl = userUrl;
+    }
+
+    /** Creates the stall layout and the vendor accounts. */
+    public void setUp() throws InterruptedException {
+        Map<String, Object> employee = new LinkedHashMap<>();
+        employee.put("username", "seeder@loadtest.cibf.lk");
+        employee.put("password", PASSWORD);
+        employee.put("name", "Load Test Seeder");
+        employee.put("email", "seeder@loadtest.cibf.lk");
+        employee.put("employeeId", "LT-0001");
+        Map<String, Object> auth = client.post("setup.employee.register",
+                authUrl + "/api/auth/employee/register", null, employee, OBJECT);
+        if (auth == null) {
+            throw new IllegalStateException("Could not register the seeding employee");
+        }
+        employeeToken = (String) auth.get("accessToken");
+
+        String[] sizes = {"SMALL", "MEDIUM", "LARGE"};
+        int columns = (int) Math.ceil(Math.sqrt(config.stalls()));
+        for (int i = 0; i < config.stalls(); i++) {
+            Map<String, Object> stall = new LinkedHashMap<>();
+            stall.put("stallName", String.format("LT-%04d", i + 1));
+            stall.put("size", sizes[i % sizes.length]);
+            stall.put("dimension", "3m x 3m");
+            stall.put("locationX", (double) (i % columns) * 10);
+            stall.put("locationY", (double) (i / columns) * 10);
+            stall.put("price", 25000 + (i % sizes.length) * 10000);
+            Map<String, Object> created = client.post("setup.stalls.create",
+                    stallUrl + "/api/stalls", employeeToken, stall, OBJECT);
+            if (created != null && hotStallIds.size() < config.hotStalls()) {
+                hotStallIds.add(((Number) created.get("id")).longValue());
+            }
+        }
+        if (hotStallIds.isEmpty()) {
+            throw new IllegalStateException("No stalls could be created, see the stall-service log");
+        }
+
+        List<Map<String, Object>> genres = client.get("setup.genres.list",
+                userUrl + "/api/genres", employeeToken, LIST);
+        if (genres != null) {
+            genres.forEach(genre -> genreIds.add(((Number) genre.get("id")).longValue()));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < config.vendors(); i++) {
+            String username = String.format("vendor%05d@loadtest.cibf.lk", i + 1);
+            pool.execute(() -> {
+                Map<String, Object> vendor = Map.of(
+                        "username", username,
+                        "password", PASSWORD,
+                        "businessName", "Publisher " + username.substring(0, 11));
+                if (client.post("setup.vendor.register", authUrl + "/api/auth/register", null, vendor, OBJECT) != null) {
+                    vendors.add(username);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Releases every vendor at once (optionally spread over the ramp-up) and
+     * waits for all of them to finish.
+     *
+     * @return wall-clock duration of the rush in nanoseconds
+     */
+    public long run() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, vendors.size()));
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(vendors.size());
+        for (int i = 0; i < vendors.size(); i++) {
+            String username = vendors.get(i);
+            long delayMs = vendors.size() > 1 ? config.rampUpMs() * i / (vendors.size() - 1) : 0;
+            pool.execute(() -> {
+                try {
+                    gate.await();
+                    if (delayMs > 0) {
+                        Thread.sleep(delayMs);
+                    }
+                    vendorSession(username);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long start = System.nanoTime();
+        gate.countDown();
+        done.await();
+        long wallNanos = System.nanoTime() - start;
+        pool.shutdown();
+        return wallNanos;
+    }
+
+    private void vendorSession(String username) {
+        Map<String, Object> auth = client.post("auth.login", authUrl + "/api/auth/login", null,
+                Map.of("username", username, "password", PASSWORD), OBJECT);
+        if (auth == null) {
+            return;
+        }
+        String token = (String) auth.get("accessToken");
+
+        List<Map<String, Object>> map = client.get("stalls.map", stallUrl + "/api/stalls/map", token, LIST);
+        if (map == null) {
+            return;
+        }
+
+        Long stallId = pickStall(map);
+        if (stallId == null) {
+            noStallLeft.incrementAndGet();
+        } else if (client.patch("stalls.reserve", stallUrl + "/api/stalls/" + stallId + "/status?status=RESERVED",
+                token, OBJECT) != null) {
+            reservations.incrementAndGet();
+            if (reservedBy.putIfAbsent(stallId, username) != null) {
+                // The map said AVAILABLE, but another vendor got there first and the write still went through
+                doubleBookings.incrementAndGet();
+            }
+        }
+
+        if (!genreIds.isEmpty()) {
+            List<Long> chosen = new ArrayList<>(genreIds);
+            Collections.shuffle(chosen, ThreadLocalRandom.current());
+            chosen = chosen.subList(0, Math.min(config.genresPerVendor(), chosen.size()));
+            client.post("genres.user.update", userUrl + "/api/genres/user", token,
+                    Map.of("genreIds", chosen), LIST);
+        }
+    }
+
+    /** A hot stall that the vendor's map shows as available, else any available stall. */
+    private Long pickStall(List<Map<String, Object>> map) {
+        List<Long> hotAvailable = new ArrayList<>();
+        List<Long> anyAvailable = new ArrayList<>();
+        for (Map<String, Object> stall : map) {
+            if (!"AVAILABLE".equals(stall.get("status"))) {
+                continue;
+            }
+            long id = ((Number) stall.get("id")).longValue();
+            (hotStallIds.contains(id) ? hotAvailable : anyAvailable).add(id);
+        }
+        List<Long> candidates = hotAvailable.isEmpty() ? anyAvailable : hotAvailable;
+        return candidates.isEmpty() ? null : candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+    }
+
+    /** Token of the seeding employee, for the services' employee-only endpoints. */
+    public String employeeToken() {
+        return employeeToken;
+    }
+
+    public int registeredVendors() {
+        return vendors.size();
+    }
+
+    public Map<String, Integer> contention() {
+        Map<String, Integer> contention = new LinkedHashMap<>();
+        contention.put("reservations", reservations.get());
+        contention.put("distinctStallsReserved", reservedBy.size());
+        contention.put("doubleBookings", doubleBookings.get());
+        contention.put("vendorsWithoutStall", noStallLeft.get());
+        return contention;
+    }
+}
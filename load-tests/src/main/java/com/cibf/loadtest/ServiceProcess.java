@@ -0,0 +1,235 @@
+package com.cibf.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One service, started from its executable jar on a free port. Output goes
+ * to {@code <work-dir>/logs/<name>.log}; the process counts as up once
+ * {@code /actuator/health} answers 200.
+ */
+public final class ServiceProcess implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Pattern STARTED_LINE = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final String name;
+    private final int port;
+    private final Process process;
+    private final Path logFile;
+    private final long startedAtNanos;
+
+    private ServiceProcess(String name, int port, Process process, Path logFile, long startedAtNanos) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+        this.logFile = logFile;
+        this.startedAtNanos = startedAtNanos;
+    }
+
+    public static ServiceProcess start(String name, Path jar, Map<String, String> env,
+                                       LoadTestConfig config) throws IOException {
+        List<String> launcher = new ArrayList<>();
+        launcher.add(javaExecutable());
+        launcher.addAll(config.serviceJvmArgs());
+        launcher.add("-jar");
+        launcher.add(jar.toString());
+        return start(name, launcher, jar.getParent(), env, config);
+    }
+
+    /**
+     * Starts any launcher command ({@code java ... -jar app.jar}, a native
+     * executable) and appends the harness' application arguments to it.
+     */
+    public static ServiceProcess start(String name, List<String> launcher, Path workingDir,
+                                       Map<String, String> env, LoadTestConfig config) throws IOException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(launcher);
+        command.add("--server.port=" + port);
+        return launch(name, port, command, workingDir, env, config);
+    }
+
+    /**
+     * Starts the single-JVM assembly from its image directory with every module
+     * on a free port of its own. Returns one view per module (keyed like
+     * {@code modules}: module name to service name) plus {@code "assembly"},
+     * the whole JVM; all of them share the process and its log.
+     */
+    public static Map<String, ServiceProcess> startAssembly(Path assemblyDir, Map<String, String> modules,
+                                                            Map<String, String> env, LoadTestConfig config)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(javaExecutable());
+        command.addAll(config.serviceJvmArgs());
+        command.add("-cp");
+        command.add("lib/*");
+        command.add("com.cibf.assembly.AssemblyApplication");
+        Map<String, Integer> ports = new LinkedHashMap<>();
+        for (String module : modules.keySet()) {
+            int port = freePort();
+            ports.put(module, port);
+            command.add("--assembly.modules." + module + ".properties.[server.port]=" + port);
+        }
+
+        ServiceProcess assembly = launch("assembly", ports.values().iterator().next(), command, assemblyDir, env, config);
+        Map<String, ServiceProcess> views = new LinkedHashMap<>();
+        ports.forEach((module, port) -> views.put(module, new ServiceProcess(
+                modules.get(module), port, assembly.process, assembly.logFile, assembly.startedAtNanos)));
+        views.put("assembly", assembly);
+        return views;
+    }
+
+    private static ServiceProcess launch(String name, int port, List<String> command, Path workingDir,
+                                         Map<String, String> env, LoadTestConfig config) throws IOException {
+        if (!config.serviceProfile().isBlank()) {
+            command.add("--spring.profiles.active=" + config.serviceProfile());
+        }
+        if (config.virtualThreads() != null) {
+            command.add("--spring.threads.virtual.enabled=" + config.virtualThreads());
+        }
+        if (!config.rateLimit()) {
+            command.add("--app.rate-limit.enabled=false");
+        }
+        // Off by default; the report is printed after the rush. user-service exposes only
+        // health and info unless told otherwise (it has no Spring Security)
+        command.add("--management.endpoints.web.exposure.include=health,info,prometheus,memory");
+        command.add("--management.endpoint.memory.access=read-only");
+
+        Path logDir = Files.createDirectories(config.workDir().resolve("logs"));
+        Path logFile = logDir.resolve(name + ".log");
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workingDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile());
+        builder.environment().putAll(env);
+        long startedAt = System.nanoTime();
+        return new ServiceProcess(name, port, builder.start(), logFile, startedAt);
+    }
+
+    static String javaExecutable() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    /**
+     * Polls {@code /actuator/health} until it answers 200.
+     *
+     * @return milliseconds from process launch to the first healthy answer
+     */
+    public long awaitHealthy(HttpClient client, Duration timeout) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl() + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with code " + process.exitValue()
+                        + " during startup, see " + logFile);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return (System.nanoTime() - startedAtNanos) / 1_000_000;
+                }
+            } catch (IOException notYetListening) {
+                // keep polling until the deadline
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException(name + " was not healthy after " + timeout.toSeconds()
+                + "s, see " + logFile);
+    }
+
+    /**
+     * The service's GET /actuator/memory report (as an employee), or an empty map if
+     * it cannot be read.
+     */
+    public Map<String, Object> memoryReport(HttpClient client, String token) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl() + "/actuator/memory"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                return JSON.readValue(response.body(), new TypeReference<>() { });
+            }
+        } catch (IOException e) {
+            // reported as missing
+        }
+        return Map.of();
+    }
+
+    /** Resident set size of the process in KiB, from /proc (Linux only; -1 elsewhere). */
+    public long residentSetKb() throws IOException {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        try (var lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(-1L);
+        }
+    }
+
+    /** Startup time Spring Boot logged ("Started ... in 4.2 seconds"), in milliseconds; -1 if not found. */
+    public long reportedStartupMillis() throws IOException {
+        try (var lines = Files.lines(logFile)) {
+            return lines.map(STARTED_LINE::matcher)
+                    .filter(Matcher::find)
+                    .map(m -> Math.round(Double.parseDouble(m.group(1)) * 1000))
+                    .findFirst()
+                    .orElse(-1L);
+        }
+    }
+
+    /**
+     * Number of pinned-thread stack traces the service printed
+     * ({@code -Djdk.tracePinnedThreads}); each one marks a frame holding a monitor.
+     */
+    public long pinnedThreadEvents() throws IOException {
+        try (var lines = Files.lines(logFile)) {
+            return lines.filter(line -> line.contains("<== monitors")).count();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.cibf.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entry point of {@code gradle :load-tests:startupReport}: starts each service
+ * alone, several times per build mode, and records time to healthy, the
+ * startup time Spring Boot logs and the resident set size right after
+ * startup.
+ *
+ * Modes: {@code jar} (plain boot jar), {@code cds-aot} (extracted jar with the
+ * AppCDS archive and Spring AOT, from each service's cdsArchive task) and
+ * {@code native} (GraalVM executable, only when nativeCompile has been run).
+ */
+public final class StartupReport {
+
+    private StartupReport() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        int runs = Integer.getInteger("loadtest.startup-runs", 3);
+        Path resultsDir = Path.of(System.getProperty("loadtest.startup-results-dir", "build/results/startup"));
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        Duration timeout = Duration.ofSeconds(config.startupTimeoutSeconds());
+
+        Map<String, Path> jars = new LinkedHashMap<>();
+        jars.put("auth", config.authJar());
+        jars.put("stall", config.stallJar());
+        jars.put("user", config.userJar());
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (LocalPostgres postgres = LocalPostgres.start(config)) {
+            for (Map.Entry<String, Path> service : jars.entrySet()) {
+                String name = serviceName(service.getKey());
+                Map<String, String> env = postgres.environmentFor(name);
+
+                // Unmeasured first start: applies the Flyway migrations and warms the OS file cache
+                try (ServiceProcess prime = ServiceProcess.start(name + "-prime", service.getValue(), env, config)) {
+                    prime.awaitHealthy(http, timeout);
+                }
+
+                Map<String, Object> byMode = new LinkedHashMap<>();
+                for (Map.Entry<String, Launch> mode : modes(service.getKey(), service.getValue(), config).entrySet()) {
+                    List<long[]> samples = new ArrayList<>();
+                    for (int run = 1; run <= runs; run++) {
+                        String label = name + "-" + mode.getKey() + "-" + run;
+                        try (ServiceProcess process = ServiceProcess.start(label, mode.getValue().command(),
+                                mode.getValue().workingDir(), env, config)) {
+                            long healthyMs = process.awaitHealthy(http, timeout);
+                            samples.add(new long[]{healthyMs, process.reportedStartupMillis(), process.residentSetKb()});
+                        }
+                    }
+                    byMode.put(mode.getKey(), summary(samples));
+                    System.out.printf("%-24s %-8s %s%n", name, mode.getKey(), byMode.get(mode.getKey()));
+                }
+                results.put(name, byMode);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tag", config.tag());
+        report.put("finishedAt", Instant.now().toString());
+        report.put("runsPerMode", runs);
+        report.put("serviceJvmArgs", config.serviceJvmArgs());
+        report.put("services", results);
+        Files.createDirectories(resultsDir);
+        Path file = resultsDir.resolve(config.tag() + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("Report: " + file);
+    }
+
+    private static Map<String, Launch> modes(String key, Path jar, LoadTestConfig config) {
+        Map<String, Launch> modes = new LinkedHashMap<>();
+
+        List<String> plain = new ArrayList<>();
+        plain.add(ServiceProcess.javaExecutable());
+        plain.addAll(config.serviceJvmArgs());
+        plain.addAll(List.of("-jar", jar.toString()));
+        modes.put("jar", new Launch(plain, jar.getParent()));
+
+        String cdsDir = System.getProperty("loadtest.cds." + key);
+        if (cdsDir != null && Files.exists(Path.of(cdsDir, "application.jsa"))) {
+            List<String> cds = new ArrayList<>();
+            cds.add(ServiceProcess.javaExecutable());
+            cds.addAll(config.serviceJvmArgs());
+            cds.addAll(List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true",
+                    "-jar", jar.getFileName().toString()));
+            modes.put("cds-aot", new Launch(cds, Path.of(cdsDir)));
+        }
+
+        String executable = System.getProperty("loadtest.native." + key);
+        if (executable != null && Files.isExecutable(Path.of(executable))) {
+            modes.put("native", new Launch(List.of(executable), Path.of(executable).getParent()));
+        }
+        return modes;
+    }
+
+    private static Map<String, Object> summary(List<long[]> samples) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("healthyMs", median(samples, 0));
+        summary.put("reportedStartupMs", median(samples, 1));
+        summary.put("rssMb", median(samples, 2) / 1024);
+        summary.put("samples", samples.stream()
+                .map(s -> Map.of("healthyMs", s[0], "reportedStartupMs", s[1], "rssKb", s[2]))
+                .toList());
+        return summary;
+    }
+
+    private static long median(List<long[]> samples, int column) {
+        long[] values = samples.stream().mapToLong(s -> s[column]).sorted().toArray();
+        return values.length == 0 ? -1 : values[values.length / 2];
+    }
+
+    private static String serviceName(String key) {
+        return switch (key) {
+            case "auth" -> "authentication-service";
+            case "stall" -> "stall-service";
+            default -> "user-service";
+        };
+    }
+
+    private record Launch(List<String> command, Path workingDir) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.cibf.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * GET /actuator/memory: where this JVM's resident memory goes.
+ *
+ * Reports the process RSS, heap and each non-heap pool (metaspace, code
+ * cache), NIO buffer pools and thread count. When the JVM runs with
+ * -XX:NativeMemoryTracking=summary it also includes the committed size of
+ * every native memory area (GC structures, thread stacks, symbols, ...),
+ * which together account for the RSS.
+ */
+@Component
+@Endpoint(id = "memory")
+public class MemoryReportEndpoint {
+
+    private static final Pattern NMT_AREA =
+            Pattern.compile("^-\\s+(.+?) \\(reserved=(\\d+)KB, committed=(\\d+)KB\\)");
+    private static final Pattern NMT_TOTAL = Pattern.compile("^Total: reserved=(\\d+)KB, committed=(\\d+)KB");
+
+    @ReadOperation
+    public Map<String, Object> memory() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rssMb", residentSetMb());
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        report.put("heap", usage(heap));
+
+        Map<String, Object> pools = new LinkedHashMap<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pools.put(pool.getName(), usage(pool.getUsage()));
+        }
+        report.put("pools", pools);
+
+        Map<String, Object> buffers = new LinkedHashMap<>();
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            buffers.put(pool.getName(), Map.of("count", pool.getCount(), "usedMb", mb(pool.getMemoryUsed())));
+        }
+        report.put("buffers", buffers);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        report.put("threads", Map.of("live", threads.getThreadCount(), "peak", threads.getPeakThreadCount()));
+
+        report.put("nativeMemory", nativeMemorySummary());
+        return report;
+    }
+
+    private static Map<String, Object> usage(MemoryUsage usage) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("usedMb", mb(usage.getUsed()));
+        values.put("committedMb", mb(usage.getCommitted()));
+        values.put("maxMb", usage.getMax() < 0 ? null : mb(usage.getMax()));
+        return values;
+    }
+
+    private static Object residentSetMb() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return null;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> mb(Long.parseLong(line.replaceAll("\\D", "")) * 1024))
+                    .findFirst()
+                    .orElse(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Committed MB per native memory area, from the VM.native_memory diagnostic command. */
+    private static Object nativeMemorySummary() {
+        String summary;
+        try {
+            summary = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                    "vmNativeMemory",
+                    new Object[]{new String[]{"summary"}},
+                    new String[]{String[].class.getName()});
+        } catch (Exception e) {
+            return "unavailable: " + e.getMessage();
+        }
+        if (summary == null || summary.contains("not enabled")) {
+            return "disabled (start the JVM with -XX:NativeMemoryTracking=summary)";
+        }
+        Map<String, Double> areas = new LinkedHashMap<>();
+        for (String line : List.of(summary.split("\\R"))) {
+            Matcher area = NMT_AREA.matcher(line.trim());
+            if (area.find()) {
+                areas.put(area.group(1), mb(Long.parseLong(area.group(3)) * 1024));
+            }
+            Matcher total = NMT_TOTAL.matcher(line.trim());
+            if (total.find()) {
+                areas.put("Total", mb(Long.parseLong(total.group(2)) * 1024));
+            }
+        }
+        return areas;
+    }
+
+    private static double mb(long bytes) {
+        return Math.round(bytes / 104857.6) / 10.0;
+    }
+}
@@ -0,0 +1,118 @@
+package com.cibf.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies the bearer token once, at the edge, and forwards the identity.
+ *
+ * <ul>
+ *   <li>Identity headers sent by clients are always dropped.</li>
+ *   <li>Valid token and app.gateway.shared-secret set: X-Authenticated-User and
+ *       X-Gateway-Secret are added and the Authorization header is removed, so the
+ *       services (GatewayIdentity) skip their own verification and cached
+ *       responses are shared between users.</li>
+ *   <li>Otherwise the request is forwarded unchanged and the service decides, as
+ *       without the gateway; routes with metadata {@code authenticated=true} are
+ *       rejected here with 401 instead.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class JwtVerificationFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_HEADER = "X-Authenticated-User";
+    public static final String SECRET_HEADER = "X-Gateway-Secret";
+
+    /** Route metadata key: the route needs a valid token at the gateway. */
+    public static final String AUTHENTICATED = "authenticated";
+
+    private final JwtParser parser;
+    private final String sharedSecret;
+    private final Timer verificationTimer;
+
+    public JwtVerificationFilter(@Value("${app.jwt-secret}") String jwtSecret,
+                                 @Value("${app.gateway.shared-secret:}") String sharedSecret,
+                                 MeterRegistry meterRegistry) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build();
+        this.sharedSecret = sharedSecret;
+        this.verificationTimer = Timer.builder("jwt.verification")
+                .description("Time spent parsing and verifying JWT signatures")
+                .tag("operation", "gateway")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String username = verifiedUsername(request);
+
+        if (username == null && requiresAuthentication(exchange)) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+
+        boolean forwardIdentity = username != null && !sharedSecret.isEmpty();
+        ServerHttpRequest forwarded = request.mutate().headers(headers -> {
+            headers.remove(USER_HEADER);
+            headers.remove(SECRET_HEADER);
+            if (forwardIdentity) {
+                headers.set(USER_HEADER, username);
+                headers.set(SECRET_HEADER, sharedSecret);
+                headers.remove(HttpHeaders.AUTHORIZATION);
+            }
+        }).build();
+        return chain.filter(exchange.mutate().request(forwarded).build());
+    }
+
+    /** Before the route filters (e.g. LocalResponseCache), which must see the forwarded request. */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    private String verifiedUsername(ServerHttpRequest request) {
+        String bearer = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (!StringUtils.hasText(bearer) || !bearer.startsWith("Bearer ")) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            return parser.parseClaimsJws(bearer.substring(7)).getBody().getSubject();
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.debug("Rejected JWT for {}: {}", request.getPath(), ex.getMessage());
+            return null;
+        } finally {
+            verificationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static boolean requiresAuthentication(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null && Boolean.parseBoolean(String.valueOf(route.getMetadata().get(AUTHENTICATED)));
+    }
+}
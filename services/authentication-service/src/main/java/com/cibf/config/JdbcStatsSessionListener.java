@@ -0,0 +1,42 @@
+package com.cibf.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener that adds every executed JDBC statement (and its
+ * duration) to the {@link RequestStats} of the current request.
+ * Registered through spring.jpa.properties.hibernate.session.events.auto;
+ * Hibernate creates one instance per session.
+ */
+public class JdbcStatsSessionListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private void record(long start) {
+        RequestStats stats = RequestStats.current();
+        if (stats != null) {
+            stats.recordStatement(System.nanoTime() - start);
+        }
+    }
+}
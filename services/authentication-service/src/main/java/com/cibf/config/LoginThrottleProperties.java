@@ -0,0 +1,40 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Brute-force protection for the login endpoints, enforced by
+ * {@link com.cibf.security.LoginThrottle} before any password is hashed.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.login-throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+
+    /** Failures are forgotten once a username/IP has had none for this long. */
+    private Duration window = Duration.ofMinutes(15);
+
+    /** Failed attempts per username within the window before backoff starts. */
+    private int usernameFreeFailures = 5;
+
+    /** Failed attempts per client IP within the window before backoff starts (higher: NAT, shared offices). */
+    private int ipFreeFailures = 20;
+
+    /** First block; doubled with every further failure. */
+    private Duration baseDelay = Duration.ofSeconds(1);
+
+    /** Longest block. */
+    private Duration maxDelay = Duration.ofMinutes(15);
+
+    /** Upper bound on tracked usernames + IPs. */
+    private int maxEntries = 50_000;
+
+    /** Store blocks in auth_schema.login_throttle so they survive a restart. */
+    private boolean persist = false;
+}
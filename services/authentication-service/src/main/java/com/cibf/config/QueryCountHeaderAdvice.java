@@ -0,0 +1,40 @@
+package com.cibf.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the X-Query-Count header just before a response body is written, i.e.
+ * after the handler (and its queries) has finished but before the response
+ * is committed. Only active when app.query-guard.expose-header=true.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final QueryGuardProperties properties;
+
+    @Override
+    public boolean supports(MethodParameter returnType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isExposeHeader();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestStats stats = RequestStats.current();
+        if (stats != null) {
+            response.getHeaders().set(QueryGuardInterceptor.QUERY_COUNT_HEADER,
+                    String.valueOf(stats.getQueryCount()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cibf.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests to rate-limited routes (see {@link RateLimitProperties}) with
+ * 429 and a Retry-After header once the caller's token bucket is empty. Callers
+ * are the authenticated user, or the client IP for anonymous requests and
+ * routes keyed by IP. Rejections are counted as rate.limit.rejected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitProperties properties;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) throws IOException {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String method = request.getMethod();
+        String route = RequestLoggingFilter.resolveRoute(request);
+        RateLimitProperties.Limit limit = properties.limitFor(method, route);
+        if (limit == null) {
+            return true;
+        }
+
+        String caller = caller(request, limit.getKey());
+        long waitNanos = rateLimiter.tryAcquire(method + ' ' + route, caller, limit);
+        if (waitNanos == 0) {
+            return true;
+        }
+
+        Counter.builder("rate.limit.rejected")
+                .description("Requests rejected with 429 by the rate limiter")
+                .tag("method", method)
+                .tag("uri", route)
+                .tag("key", limit.getKey().name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        log.debug("Rate limit exceeded: {} {} by {}", method, route, caller);
+        reject(request, response, waitNanos);
+        return false;
+    }
+
+    private static String caller(HttpServletRequest request, RateLimitProperties.Key key) {
+        if (key == RateLimitProperties.Key.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        body.put("message", "Rate limit exceeded, retry in " + retryAfterSeconds + "s");
+        body.put("path", request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
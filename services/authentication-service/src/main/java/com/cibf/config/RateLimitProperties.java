@@ -0,0 +1,61 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket limits enforced by {@link RateLimitInterceptor}.
+ *
+ * Limits are keyed by lower-case HTTP method, then by route pattern:
+ * <pre>
+ * app.rate-limit.routes.post.[/api/auth/login].capacity=10
+ * app.rate-limit.routes.post.[/api/auth/login].refill-per-second=0.2
+ * app.rate-limit.routes.post.[/api/auth/login].key=ip
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Upper bound on live buckets; callers beyond it share one overflow bucket per route. */
+    private int maxKeys = 100_000;
+
+    /** Buckets untouched for this long (and therefore full again) are evicted. */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    /** Limits by method and route. */
+    private Map<String, Map<String, Limit>> routes = new HashMap<>();
+
+    /**
+     * Limit for the given method and route, or null when the route is not limited.
+     */
+    public Limit limitFor(String method, String route) {
+        Map<String, Limit> byRoute = routes.get(method.toLowerCase());
+        return byRoute != null ? byRoute.get(route) : null;
+    }
+
+    @Data
+    public static class Limit {
+
+        /** Burst size: requests allowed back to back on a full bucket. */
+        private int capacity = 10;
+
+        /** Tokens added per second. */
+        private double refillPerSecond = 1.0;
+
+        /** What a bucket belongs to: the authenticated user (IP when anonymous) or always the client IP. */
+        private Key key = Key.USER;
+    }
+
+    public enum Key {
+        USER, IP
+    }
+}
@@ -0,0 +1,42 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Read replica for read-only transactions, see {@link ReplicaRoutingConfig}.
+ * The replica's pool is sized with app.datasource.replica.hikari.* (same keys
+ * as spring.datasource.hikari.*).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    /** JDBC URL of the replica; username/password default to spring.datasource.*. */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /** Reads go to the primary while the replica is further behind than this. */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /** How often the replica's lag is measured. */
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+
+    /**
+     * After a caller's own write, its reads stay on the primary for this long
+     * (read-your-writes); keep it at or above max-lag.
+     */
+    private Duration stickiness = Duration.ofSeconds(10);
+
+    /** Upper bound on callers tracked for stickiness. */
+    private int maxTrackedCallers = 100_000;
+}
@@ -0,0 +1,79 @@
+package com.cibf.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one structured (key=value) line per sampled request with the matched
+ * route, status, latency, database time and number of JDBC statements.
+ * Slow and failing requests are always logged; everything else is sampled
+ * according to {@link RequestLogProperties}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final RequestLogProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestStats stats = RequestStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStats.clear();
+            if (properties.isEnabled()) {
+                log(request, response, stats, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void log(HttpServletRequest request, HttpServletResponse response,
+                     RequestStats stats, long elapsedNanos) {
+        String route = resolveRoute(request);
+        long latencyMs = elapsedNanos / 1_000_000;
+        int status = response.getStatus();
+
+        boolean always = latencyMs >= properties.getSlowThresholdMs() || status >= 500;
+        if (!always && !sampled(properties.sampleRateFor(route))) {
+            return;
+        }
+
+        log.info("request method={} route={} status={} latencyMs={} dbMs={} queries={}",
+                request.getMethod(), route, status, latencyMs,
+                stats.getDbNanos() / 1_000_000, stats.getQueryCount());
+    }
+
+    private static boolean sampled(double rate) {
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Route template (e.g. /api/admin/users/{id}) rather than the raw URI, so the log
+     * aggregates per endpoint. Requests no handler matched share UNKNOWN: the route
+     * is also a metric tag, and raw URIs (ids, probes) would grow it without bound.
+     */
+    static String resolveRoute(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_ROUTE;
+    }
+}
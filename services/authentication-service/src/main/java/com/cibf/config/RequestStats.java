@@ -0,0 +1,50 @@
+package com.cibf.config;
+
+/**
+ * Per-request JDBC counters (statement count and time spent in the database).
+ * Opened by {@link RequestLoggingFilter} for every request and fed by
+ * {@link JdbcStatsSessionListener}, which Hibernate attaches to each session.
+ */
+public final class RequestStats {
+
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private int queryCount;
+    private long dbNanos;
+
+    private RequestStats() {
+    }
+
+    /**
+     * Start collecting for the current thread, replacing any previous stats.
+     */
+    public static RequestStats start() {
+        RequestStats stats = new RequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stats of the request being served on this thread, or null outside a request.
+     */
+    public static RequestStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    void recordStatement(long nanos) {
+        queryCount++;
+        dbNanos += nanos;
+    }
+
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    public long getDbNanos() {
+        return dbNanos;
+    }
+}
@@ -1,18 +1,30 @@
 package com.cibf.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 /**
  * Configuration for RestTemplate
  * Used for service-to-service communication
+ *
+ * Calls block the (virtual) request thread, so they are bounded by timeouts
+ * instead of waiting indefinitely on a slow downstream service.
  */
 @Configuration
 public class RestTemplateConfig {
-    
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${app.http-client.connect-timeout:2s}") Duration connectTimeout,
+                                     @Value("${app.http-client.read-timeout:5s}") Duration readTimeout) {
+        return builder
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
     }
-}
\ No newline at end of file
+}
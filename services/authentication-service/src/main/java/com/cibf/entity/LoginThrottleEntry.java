@@ -0,0 +1,32 @@
+package com.cibf.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A login block persisted by LoginThrottle, keyed by "user:&lt;username&gt;" or "ip:&lt;address&gt;".
+ */
+@Entity
+@Table(name = "login_throttle", schema = "auth_schema")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginThrottleEntry {
+
+    @Id
+    @Column(name = "throttle_key", length = 320)
+    private String key;
+
+    @Column(nullable = false)
+    private Integer failures;
+
+    @Column(name = "last_failure_at", nullable = false)
+    private LocalDateTime lastFailureAt;
+
+    @Column(name = "blocked_until", nullable = false)
+    private LocalDateTime blockedUntil;
+}
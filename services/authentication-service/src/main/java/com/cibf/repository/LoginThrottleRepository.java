@@ -0,0 +1,28 @@
+package com.cibf.repository;
+
+import com.cibf.entity.LoginThrottleEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Persisted login blocks (only used when app.login-throttle.persist=true)
+ */
+@Repository
+public interface LoginThrottleRepository extends JpaRepository<LoginThrottleEntry, String> {
+
+    // Blocks still in force, reloaded on startup
+    List<LoginThrottleEntry> findByBlockedUntilAfter(LocalDateTime now);
+
+    // Expired blocks
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LoginThrottleEntry e WHERE e.blockedUntil < :now")
+    int deleteByBlockedUntilBefore(@Param("now") LocalDateTime now);
+}
@@ -1,13 +1,16 @@
 package com.cibf.reservation.backend;
 
+import com.cibf.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication(scanBasePackages = {"com.cibf"})
 @EntityScan(basePackages = {"com.cibf.entity"})
 @EnableJpaRepositories(basePackages = {"com.cibf.repository"})
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class AuthenticationServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthenticationServiceApplication.class, args);
@@ -27,11 +27,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final GatewayIdentity gatewayIdentity;
 
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
-            CustomUserDetailsService userDetailsService) {
+            CustomUserDetailsService userDetailsService,
+            GatewayIdentity gatewayIdentity) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.gatewayIdentity = gatewayIdentity;
     }
 
     @Override
@@ -39,52 +42,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        String requestURI = request.getRequestURI();
-        logger.debug("Processing request: {} {}", request.getMethod(), requestURI);
-
         try {
-            // Extract JWT token from Authorization header
-            String token = getTokenFromRequest(request);
+            // Identity already verified by the API gateway, if the request came through it
+            String username = gatewayIdentity.username(request);
 
-            // Only validate and authenticate if token is present
+            // Otherwise extract and validate the JWT token from the Authorization header
+            String token = username == null ? getTokenFromRequest(request) : null;
             if (StringUtils.hasText(token)) {
-                logger.debug("Token found in request for URI: {}", requestURI);
-
-                // Validate token
                 if (tokenProvider.validateToken(token)) {
-                    logger.debug("Token is valid");
-
-                    // Get username from token
-                    String username = tokenProvider.getUsername(token);
-                    logger.debug("Username from token: {}", username);
-
-                    // Load user details
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    logger.debug("User details loaded for: {}", username);
+                    username = tokenProvider.getUsername(token);
+                } else {
+                    logger.warn("Invalid JWT token for URI: {}", request.getRequestURI());
+                }
+            }
 
-                    // Create authentication object
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
+            // Only authenticate if a username was established
+            if (username != null) {
+                // Load user details
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-                    authentication.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request));
+                // Create authentication object
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities());
 
-                    // Set authentication in Security Context
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    logger.debug("Authentication set in SecurityContext for user: {}", username);
+                authentication.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request));
 
-                } else {
-                    logger.warn("Invalid JWT token for URI: {}", requestURI);
-                }
-            } else {
-                logger.debug("No JWT token found for URI: {} - continuing as unauthenticated", requestURI);
+                // Set authentication in Security Context
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                logger.debug("Authenticated {} for {} {}", username, request.getMethod(), request.getRequestURI());
             }
 
         } catch (Exception ex) {
             // Log error 
-            logger.error("Cannot set user authentication in security context for URI: {}", requestURI, ex);
+            logger.error("Cannot set user authentication in security context for URI: {}", request.getRequestURI(), ex);
             // Clear any partial authentication
             SecurityContextHolder.clearContext();
         }
@@ -105,9 +98,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String bearerToken = request.getHeader("Authorization");
 
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            String token = bearerToken.substring(7);
-            logger.debug("Extracted token from Authorization header (length: {})", token.length());
-            return token;
+            return bearerToken.substring(7);
         }
 
         return null;
@@ -3,14 +3,18 @@ package com.cibf.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Token Provider
@@ -27,6 +31,23 @@ public class JwtTokenProvider {
     @Value("${app.jwt-expiration-milliseconds}")
     private long jwtExpirationMs;
 
+    /**
+     * Verifier shared by every module when the services run together in the
+     * assembly (one JVM); absent in a standalone deployment.
+     */
+    @Autowired(required = false)
+    private JwtParser sharedJwtParser;
+
+    private volatile JwtParser parser;
+
+    private final Timer validateTimer;
+    private final Timer subjectTimer;
+
+    public JwtTokenProvider(MeterRegistry meterRegistry) {
+        this.validateTimer = verificationTimer(meterRegistry, "validate");
+        this.subjectTimer = verificationTimer(meterRegistry, "subject");
+    }
+
     /**
      * Generate JWT token from Authentication object
      */
@@ -68,26 +89,24 @@ public class JwtTokenProvider {
      * Get username from JWT token
      */
     public String getUsername(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser().parseClaimsJws(token).getBody();
 
-        return claims.getSubject();
+            return claims.getSubject();
+        } finally {
+            subjectTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     /**
      * Validate JWT token
      */
     public boolean validateToken(String token) {
+        long start = System.nanoTime();
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parser().parseClaimsJws(token);
 
-            logger.debug("JWT token is valid");
             return true;
 
         } catch (MalformedJwtException ex) {
@@ -100,11 +119,28 @@ public class JwtTokenProvider {
             logger.error("JWT claims string is empty: {}", ex.getMessage());
         } catch (Exception ex) {
             logger.error("JWT token validation error: {}", ex.getMessage());
+        } finally {
+            validateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
         return false;
     }
 
+    /**
+     * Parser for this service's signing key, built once: the shared verifier
+     * when one is available, otherwise from app.jwt-secret.
+     */
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = sharedJwtParser != null
+                    ? sharedJwtParser
+                    : Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
+    }
+
     /**
      * Get signing key from secret
      */
@@ -112,4 +148,15 @@ public class JwtTokenProvider {
         byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
-}
\ No newline at end of file
+
+    /**
+     * Timer for JWT parsing and signature verification, with histogram buckets for percentiles.
+     */
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("jwt.verification")
+                .description("Time spent parsing and verifying JWT signatures")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,218 @@
+package com.cibf.security;
+
+import com.cibf.config.LoginThrottleProperties;
+import com.cibf.entity.LoginThrottleEntry;
+import com.cibf.exception.LoginThrottledException;
+import com.cibf.repository.LoginThrottleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks failed logins per username and per client IP and refuses further
+ * attempts with exponential backoff, before AuthenticationManager runs, so a
+ * credential-stuffing run cannot make the service spend a BCrypt hash per guess.
+ *
+ * State is one small immutable record per key in a bounded map; failures are
+ * forgotten after a quiet window. With app.login-throttle.persist=true blocks
+ * are also written to auth_schema.login_throttle and reloaded on startup.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private static final int MAX_KEY_LENGTH = 320;
+
+    private final LoginThrottleProperties properties;
+    private final LoginThrottleRepository repository;
+    private final Map<String, Failures> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final Counter usernameRejections;
+    private final Counter ipRejections;
+
+    /** Failed attempts since the last quiet window; blockedUntil is 0 while below the free allowance. */
+    private record Failures(int count, long lastFailureAt, long blockedUntil) {
+    }
+
+    public LoginThrottle(LoginThrottleProperties properties, LoginThrottleRepository repository,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.repository = repository;
+        this.usernameRejections = rejections(meterRegistry, "username");
+        this.ipRejections = rejections(meterRegistry, "ip");
+        Gauge.builder("login.throttle.entries", entries, Map::size)
+                .description("Usernames and client IPs with recent failed logins")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws LoginThrottledException if the username or the calling IP is currently blocked
+     */
+    public void checkAllowed(String username) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        check(usernameKey(username), now, usernameRejections);
+        String ipKey = ipKey();
+        if (ipKey != null) {
+            check(ipKey, now, ipRejections);
+        }
+    }
+
+    public void recordFailure(String username) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        fail(usernameKey(username), properties.getUsernameFreeFailures(), now);
+        String ipKey = ipKey();
+        if (ipKey != null) {
+            fail(ipKey, properties.getIpFreeFailures(), now);
+        }
+    }
+
+    /**
+     * Clears the username's failures; the IP's are left to expire, since one
+     * valid account does not vouch for the other attempts from that address.
+     */
+    public void recordSuccess(String username) {
+        if (!properties.isEnabled() || entries.isEmpty()) {
+            return;
+        }
+        String key = usernameKey(username);
+        Failures removed = entries.remove(key);
+        if (removed != null && removed.blockedUntil() > 0 && properties.isPersist()) {
+            try {
+                repository.deleteById(key);
+            } catch (DataAccessException ex) {
+                log.warn("Could not delete persisted login block for {}: {}", key, ex.getMessage());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!properties.isEnabled() || !properties.isPersist()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        repository.deleteByBlockedUntilBefore(now);
+        for (LoginThrottleEntry entry : repository.findByBlockedUntilAfter(now)) {
+            entries.put(entry.getKey(), new Failures(entry.getFailures(),
+                    toMillis(entry.getLastFailureAt()), toMillis(entry.getBlockedUntil())));
+        }
+        log.info("Restored {} login blocks", entries.size());
+    }
+
+    private void check(String key, long now, Counter rejections) {
+        Failures failures = entries.get(key);
+        if (failures != null && failures.blockedUntil() > now) {
+            rejections.increment();
+            throw new LoginThrottledException(
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(failures.blockedUntil() - now + 999)));
+        }
+    }
+
+    private void fail(String key, int freeFailures, long now) {
+        if (entries.size() >= properties.getMaxEntries() && !entries.containsKey(key)) {
+            sweep(now);
+        }
+        Failures failures = entries.compute(key, (k, previous) -> {
+            boolean fresh = previous == null || now - previous.lastFailureAt() > properties.getWindow().toMillis();
+            int count = fresh ? 1 : previous.count() + 1;
+            long blockedUntil = count >= freeFailures ? now + delayMillis(count - freeFailures) : 0;
+            return new Failures(count, now, blockedUntil);
+        });
+        if (failures.blockedUntil() > 0) {
+            log.warn("Login blocked for {} until {} after {} failed attempts",
+                    key, Instant.ofEpochMilli(failures.blockedUntil()), failures.count());
+            persist(key, failures);
+        }
+    }
+
+    private long delayMillis(int excessFailures) {
+        long base = properties.getBaseDelay().toMillis();
+        long max = properties.getMaxDelay().toMillis();
+        if (excessFailures >= Long.numberOfLeadingZeros(base) - 1) {
+            return max;
+        }
+        return Math.min(max, base << excessFailures);
+    }
+
+    /**
+     * Drops expired entries; if the map is still full, drops everything not
+     * currently blocked, so that active blocks are never pushed out by new keys.
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long window = properties.getWindow().toMillis();
+            entries.values().removeIf(f -> f.blockedUntil() <= now && now - f.lastFailureAt() > window);
+            if (entries.size() >= properties.getMaxEntries()) {
+                entries.values().removeIf(f -> f.blockedUntil() <= now);
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private void persist(String key, Failures failures) {
+        if (!properties.isPersist()) {
+            return;
+        }
+        try {
+            repository.save(new LoginThrottleEntry(key, failures.count(),
+                    toLocalDateTime(failures.lastFailureAt()), toLocalDateTime(failures.blockedUntil())));
+        } catch (DataAccessException ex) {
+            log.warn("Could not persist login block for {}: {}", key, ex.getMessage());
+        }
+    }
+
+    private static String usernameKey(String username) {
+        String key = "user:" + (username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static String ipKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return "ip:" + servletAttributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("login.throttled")
+                .description("Login attempts refused before password verification")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
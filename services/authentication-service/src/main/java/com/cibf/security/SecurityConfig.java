@@ -1,5 +1,7 @@
 package com.cibf.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -38,13 +40,21 @@ public class SecurityConfig {
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter(
             JwtTokenProvider tokenProvider,
-            CustomUserDetailsService userDetailsService) {
-        return new JwtAuthenticationFilter(tokenProvider, userDetailsService);
+            CustomUserDetailsService userDetailsService,
+            GatewayIdentity gatewayIdentity) {
+        return new JwtAuthenticationFilter(tokenProvider, userDetailsService, gatewayIdentity);
     }
 
+    /**
+     * BCrypt, timed, with concurrent hashes capped (default: one per CPU) so
+     * login bursts cannot monopolise the virtual-thread carriers.
+     */
     @Bean
-    public static PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                                  @Value("${app.security.max-concurrent-password-hashes:0}") int maxConcurrentHashes) {
+        int permits = maxConcurrentHashes > 0 ? maxConcurrentHashes : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+                new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry), permits);
     }
 
     @Bean
@@ -95,10 +105,13 @@ public class SecurityConfig {
                 // 6. CRITICAL: Only apply this security chain to non-public paths
                 // Public paths (/api/auth/**) are handled by PublicSecurityConfig (Order 1)
                 // This ensures this chain doesn't interfere with public endpoints
-                .securityMatcher("/api/**")
+                .securityMatcher("/api/**", "/actuator/**")
                 .authorizeHttpRequests(authorize -> authorize
                         // Explicitly exclude public paths - these are handled by PublicSecurityConfig
                         .requestMatchers("/api/auth/**", "/api/public/**").permitAll()
+                        // Health for the docker-compose healthcheck; metrics and the memory report are internals
+                        .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("EMPLOYEE")
                         // All other /api/** paths require authentication
                         .anyRequest().authenticated());
 
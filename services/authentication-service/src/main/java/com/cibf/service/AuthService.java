@@ -10,6 +10,7 @@ import com.cibf.entity.Role;
 import com.cibf.repository.UserRepository;
 import com.cibf.repository.EmployeeRepository;
 import com.cibf.security.JwtTokenProvider;
+import com.cibf.security.LoginThrottle;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -40,18 +41,21 @@ public class AuthService implements IAuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
     private final EmployeeRepository employeeRepository;
+    private final LoginThrottle loginThrottle;
 
     @Autowired
     public AuthService(AuthenticationManager authenticationManager,
              UserRepository userRepository,
              PasswordEncoder passwordEncoder,
              JwtTokenProvider tokenProvider,
-             EmployeeRepository employeeRepository) {
+             EmployeeRepository employeeRepository,
+             LoginThrottle loginThrottle) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.tokenProvider = tokenProvider;
         this.employeeRepository = employeeRepository;
+        this.loginThrottle = loginThrottle;
     }
 
     @Override
@@ -153,14 +157,18 @@ public class AuthService implements IAuthService {
     /**
      * Private helper method to perform authentication.
      * Single Responsibility - handles authentication logic only.
+     * Blocked usernames/IPs are refused before the password is hashed.
      */
     private Authentication performAuthentication(String username, String password) {
+        loginThrottle.checkAllowed(username);
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(username, password));
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            loginThrottle.recordSuccess(username);
             return authentication;
         } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(username);
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials.");
         }
     }
@@ -16,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
@@ -45,8 +46,9 @@ public class UserManagementServiceImpl implements UserManagementService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<UserResponse> getAllUsers(Pageable pageable) {
-        log.info("Fetching all users with pagination: page={}, size={}", 
+        log.debug("Fetching all users with pagination: page={}, size={}", 
                  pageable.getPageNumber(), pageable.getPageSize());
         
         Page<User> users = userRepository.findAll(pageable);
@@ -54,16 +56,18 @@ public class UserManagementServiceImpl implements UserManagementService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<UserResponse> searchUsers(String searchTerm, Pageable pageable) {
-        log.info("Searching users with term: {}", searchTerm);
+        log.debug("Searching users with term: {}", searchTerm);
         
         Page<User> users = userRepository.searchUsers(searchTerm, pageable);
         return users.map(this::convertToUserResponse);
     }
 
     @Override
+    // Not transactional: no connection is held during the call to the Reservation Service
     public UserDetailResponse getUserDetailById(Long userId) {
-        log.info("Fetching detailed information for user ID: {}", userId);
+        log.debug("Fetching detailed information for user ID: {}", userId);
         
         // Get user from database
         User user = userRepository.findById(userId)
@@ -75,7 +79,7 @@ public class UserManagementServiceImpl implements UserManagementService {
         // Fetch user's reservation history from Reservation Service
         try {
             String url = reservationServiceUrl + "/api/admin/reservations/user/" + userId;
-            log.info("Calling Reservation Service: {}", url);
+            log.debug("Calling Reservation Service: {}", url);
             
             ResponseEntity<List<ReservationResponse>> reservationsResponse = restTemplate.exchange(
                 url,
@@ -86,7 +90,7 @@ public class UserManagementServiceImpl implements UserManagementService {
             
             List<ReservationResponse> reservations = reservationsResponse.getBody();
             response.setReservations(reservations);
-            log.info("Retrieved {} reservations for user {}", 
+            log.debug("Retrieved {} reservations for user {}", 
                      reservations != null ? reservations.size() : 0, userId);
             
         } catch (Exception e) {
@@ -99,13 +103,15 @@ public class UserManagementServiceImpl implements UserManagementService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long getTotalUsersCount() {
         return userRepository.count();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Object> getUserStatistics() {
-        log.info("Calculating user statistics");
+        log.debug("Calculating user statistics");
         
         Map<String, Object> stats = new HashMap<>();
         
@@ -123,7 +129,7 @@ public class UserManagementServiceImpl implements UserManagementService {
         long todayRegistrations = userRepository.countByCreatedAtAfter(startOfDay);
         stats.put("todayRegistrations", todayRegistrations);
         
-        log.info("User statistics: total={}, recent={}, today={}", 
+        log.debug("User statistics: total={}, recent={}, today={}", 
                  totalUsers, recentRegistrations, todayRegistrations);
         
         return stats;
@@ -0,0 +1,37 @@
+-- ============================================================
+-- V1: Base tables for auth_schema
+-- Mirrors the tables previously created by Hibernate (ddl-auto=update),
+-- so existing databases are baselined at this version (see
+-- spring.flyway.baseline-on-migrate) and only new databases run it.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS users (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username        VARCHAR(255) NOT NULL,
+    password        VARCHAR(255) NOT NULL,
+    business_name   VARCHAR(255),
+    email           VARCHAR(255),
+    contact_number  VARCHAR(255),
+    address         TEXT,
+    role            VARCHAR(255) NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS employees (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         BIGINT       NOT NULL,
+    name            VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    employee_id     VARCHAR(50)  NOT NULL,
+    role            VARCHAR(50)  NOT NULL,
+    contact_number  VARCHAR(20),
+    department      VARCHAR(100),
+    active          BOOLEAN      NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_employees_user_id UNIQUE (user_id),
+    CONSTRAINT uk_employees_employee_id UNIQUE (employee_id),
+    CONSTRAINT fk_employees_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
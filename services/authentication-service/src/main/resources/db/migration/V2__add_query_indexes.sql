@@ -0,0 +1,12 @@
+-- ============================================================
+-- V2: Indexes for the hot queries in auth_schema
+-- ============================================================
+
+-- UserRepository.countByCreatedAtAfter (dashboard "recent" / "today" statistics)
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users (created_at);
+
+-- UserRepository.findByEmail / existsByEmail
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
+
+-- users.username and employees.user_id / employee_id are already covered
+-- by their unique constraints.
@@ -0,0 +1,16 @@
+-- ============================================================
+-- V3: Login throttle blocks (see LoginThrottle)
+-- Only written when app.login-throttle.persist=true, so that a
+-- brute-force block survives a restart of the auth service.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS login_throttle (
+    throttle_key    VARCHAR(320) NOT NULL PRIMARY KEY,
+    failures        INTEGER      NOT NULL,
+    last_failure_at TIMESTAMP(6) NOT NULL,
+    blocked_until   TIMESTAMP(6) NOT NULL
+);
+
+-- LoginThrottleRepository.findByBlockedUntilAfter (reload on startup)
+-- and deleteByBlockedUntilBefore (cleanup)
+CREATE INDEX IF NOT EXISTS idx_login_throttle_blocked_until ON login_throttle (blocked_until);
@@ -0,0 +1,60 @@
+package com.cibf.authentication_service;
+
+import com.cibf.config.QueryGuardProperties;
+import com.cibf.reservation.backend.AuthenticationServiceApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the login route against its query budget configured in
+ * application.properties (app.query-guard.budgets), so an extra lookup on the
+ * login path fails the build instead of surfacing in production.
+ */
+@SpringBootTest(classes = AuthenticationServiceApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginQueryBudgetTests {
+
+    private static final String CREDENTIALS = "\"username\": \"budget-test@vendor.lk\", \"password\": \"secret-123\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryGuardProperties queryGuard;
+
+    @Test
+    void loginStaysWithinBudget() throws Exception {
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{" + CREDENTIALS + ", \"businessName\": \"Budget Books\"}"))
+                .andExpect(status().isCreated());
+
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{" + CREDENTIALS + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andReturn();
+
+        Integer budget = queryGuard.budgetFor("POST", "/api/auth/login");
+        assertThat(budget).as("budget configured for POST /api/auth/login").isNotNull();
+
+        String header = result.getResponse().getHeader("X-Query-Count");
+        assertThat(header).as("X-Query-Count header").isNotNull();
+        assertThat(Integer.parseInt(header))
+                .as("JDBC statements for POST /api/auth/login")
+                .isLessThanOrEqualTo(budget);
+    }
+}
@@ -0,0 +1,44 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-memory stall allocation mode, see {@link com.cibf.service.StallAllocationEngine}.
+ * Off by default: holds are then closed, and reserve/release and status changes
+ * go straight to the database.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.allocation")
+public class AllocationProperties {
+
+    private boolean enabled = false;
+
+    /** Commands that may wait for the engine; rounded up to a power of two. Full means 503. */
+    private int ringSize = 8192;
+
+    /** How long a hold keeps a stall for one vendor before anyone may take it again. */
+    private Duration holdDuration = Duration.ofMinutes(2);
+
+    /** Most journal entries written in one transaction. */
+    private int journalBatchSize = 1000;
+
+    /**
+     * How long a caller waits for its command to be journaled. After that the
+     * outcome is unknown to it (the command may still be written).
+     */
+    private Duration commandTimeout = Duration.ofSeconds(5);
+
+    /** Pause before retrying a journal batch the database rejected. */
+    private Duration journalRetryDelay = Duration.ofSeconds(1);
+
+    /**
+     * How often the engine checks that it still holds its database lock
+     * ({@link com.cibf.repository.AllocationEngineLock}); it stops once it does not.
+     */
+    private Duration lockCheckInterval = Duration.ofSeconds(2);
+}
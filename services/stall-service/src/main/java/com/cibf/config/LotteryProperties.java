@@ -0,0 +1,17 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stall lottery, see {@link com.cibf.service.LotteryService}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.lottery")
+public class LotteryProperties {
+
+    /** Most stalls a vendor may rank in one round. */
+    private int maxPreferences = 20;
+}
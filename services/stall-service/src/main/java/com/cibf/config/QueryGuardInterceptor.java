@@ -0,0 +1,73 @@
+package com.cibf.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Records how many JDBC statements each request executed (db.queries.per.request,
+ * tagged by method and route) and flags requests that exceed their configured
+ * budget, which is how N+1 queries show up once an endpoint is live.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryGuardInterceptor implements HandlerInterceptor {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private final QueryGuardProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler, ModelAndView modelAndView) {
+        // Responses with a body get the header from QueryCountHeaderAdvice before it is written;
+        // this covers handlers that return no body.
+        if (properties.isExposeHeader() && !response.isCommitted()) {
+            RequestStats stats = RequestStats.current();
+            if (stats != null) {
+                response.setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.getQueryCount()));
+            }
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        RequestStats stats = RequestStats.current();
+        if (stats == null) {
+            return;
+        }
+        String method = request.getMethod();
+        String route = RequestLoggingFilter.resolveRoute(request);
+        int queries = stats.getQueryCount();
+
+        DistributionSummary.builder("db.queries.per.request")
+                .description("JDBC statements executed per request")
+                .tag("method", method)
+                .tag("uri", route)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(queries);
+
+        Integer budget = properties.budgetFor(method, route);
+        if (budget != null && queries > budget) {
+            Counter.builder("db.queries.budget.exceeded")
+                    .description("Requests that executed more JDBC statements than their budget")
+                    .tag("method", method)
+                    .tag("uri", route)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Query budget exceeded: {} {} executed {} statements (budget {})",
+                    method, route, queries, budget);
+        }
+    }
+}
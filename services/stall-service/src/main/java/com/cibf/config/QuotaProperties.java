@@ -0,0 +1,26 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-vendor stall cap, see {@link com.cibf.service.VendorQuotaService}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.quota")
+public class QuotaProperties {
+
+    /** Most stalls one vendor may have reserved at a time. */
+    private int maxStallsPerVendor = 3;
+
+    /**
+     * How often the counters are recounted from vendor_quota, to pick up
+     * releases made on other instances. Not while the allocation engine runs
+     * here: it is then the only writer and its counts are exact.
+     */
+    private Duration reconcileInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,40 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the sampled request log written by {@link RequestLoggingFilter}.
+ *
+ * Example (per-route rates are keyed by the matched route pattern):
+ * <pre>
+ * app.request-log.sample-rate=0.05
+ * app.request-log.routes.[/api/stalls/map]=0.01
+ * app.request-log.routes.[/api/stalls/{id}/available]=0
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.request-log")
+public class RequestLogProperties {
+
+    /** Master switch for the request log. */
+    private boolean enabled = true;
+
+    /** Fraction of requests logged (0.0 - 1.0) when the route has no override. */
+    private double sampleRate = 1.0;
+
+    /** Requests at least this slow (or failing with 5xx) are always logged. */
+    private long slowThresholdMs = 500;
+
+    /** Per-route sample rate overrides; 0 turns the log off for that route. */
+    private Map<String, Double> routes = new HashMap<>();
+
+    public double sampleRateFor(String route) {
+        return routes.getOrDefault(route, sampleRate);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache regions, created by {@link SecondLevelCacheConfig}.
+ *
+ * Regions are keyed by name: the entity regions named in @Cache, plus Hibernate's
+ * query cache regions when hibernate.cache.use_query_cache is on:
+ * <pre>
+ * app.second-level-cache.regions.stall.max-size=5000
+ * app.second-level-cache.regions.stall.ttl=10m
+ * </pre>
+ * Every region Hibernate uses must be listed (hibernate.javax.cache.missing_cache_strategy=fail).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.second-level-cache")
+public class SecondLevelCacheProperties {
+
+    /** Region settings, by region name. */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+
+        /** Maximum entries held; least recently/frequently used ones are evicted beyond it. */
+        private long maxSize = 1000;
+
+        /** Entries expire this long after being written; unset = kept until evicted or invalidated. */
+        private Duration ttl;
+    }
+}
@@ -0,0 +1,47 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cross-instance stall cache invalidation over PostgreSQL LISTEN/NOTIFY,
+ * see {@link com.cibf.service.StallChangeNotifier}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stall-changes")
+public class StallChangeProperties {
+
+    private boolean enabled = true;
+
+    /** NOTIFY channel shared by all stall-service instances (a plain lower-case identifier). */
+    private String channel = "stall_changes";
+
+    /** Longest wait for notifications before the listener checks heartbeats and shutdown. */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /**
+     * Every instance announces its last message number this often, so a lost message is
+     * noticed even when no further changes follow. Hearing nothing, not even its own
+     * heartbeat, for three intervals makes an instance reconnect.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+
+    /** Pause before reconnecting a lost listening connection. */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+
+    /**
+     * Notifications waiting for the sender thread. When it is full (the send connection
+     * is stuck), further ones are dropped and the peers are made to resync.
+     */
+    private int sendQueueCapacity = 10000;
+
+    /** Connect timeout of the notification connections. */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /** Read timeout of the notification connections; must exceed poll-interval. */
+    private Duration socketTimeout = Duration.ofSeconds(10);
+}
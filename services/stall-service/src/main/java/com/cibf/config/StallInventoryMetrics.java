@@ -0,0 +1,88 @@
+package com.cibf.config;
+
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes stall inventory gauges (stalls.inventory, tagged by size and status).
+ * All nine gauges are served from one GROUP BY query, re-run at most once per
+ * refresh interval, so a Prometheus scrape costs a single round trip.
+ * The refresh is guarded by a ReentrantLock rather than synchronized, so a
+ * virtual thread waiting on the query does not pin its carrier thread.
+ */
+@Component
+@Lazy(false) // must bind its gauges at startup, also under spring.main.lazy-initialization
+@RequiredArgsConstructor
+@Slf4j
+public class StallInventoryMetrics implements MeterBinder {
+
+    private static final long REFRESH_INTERVAL_NANOS = 5_000_000_000L;
+
+    private final StallRepository stallRepository;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Map<StallSize, Map<StallStatus, Long>> snapshot = Map.of();
+    private volatile long snapshotTakenAt;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (StallSize size : StallSize.values()) {
+            for (StallStatus status : StallStatus.values()) {
+                Gauge.builder("stalls.inventory", this, m -> m.count(size, status))
+                        .description("Number of stalls by size and status")
+                        .tag("size", size.name())
+                        .tag("status", status.name())
+                        .register(registry);
+            }
+        }
+    }
+
+    private double count(StallSize size, StallStatus status) {
+        refreshIfStale();
+        return snapshot.getOrDefault(size, Map.of()).getOrDefault(status, 0L);
+    }
+
+    private void refreshIfStale() {
+        if (isFresh(System.nanoTime())) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            long now = System.nanoTime();
+            if (isFresh(now)) {
+                return;
+            }
+            try {
+                Map<StallSize, Map<StallStatus, Long>> counts = new EnumMap<>(StallSize.class);
+                List<Object[]> rows = stallRepository.getStallStatistics();
+                for (Object[] row : rows) {
+                    counts.computeIfAbsent((StallSize) row[0], s -> new EnumMap<>(StallStatus.class))
+                            .put((StallStatus) row[1], (Long) row[2]);
+                }
+                snapshot = counts;
+            } catch (Exception ex) {
+                log.warn("Could not refresh stall inventory metrics: {}", ex.getMessage());
+            }
+            snapshotTakenAt = now;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean isFresh(long now) {
+        return snapshotTakenAt != 0 && now - snapshotTakenAt < REFRESH_INTERVAL_NANOS;
+    }
+}
@@ -0,0 +1,23 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adjacent-stall search, see {@link com.cibf.service.StallAdjacencyIndex}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stall-layout")
+public class StallLayoutProperties {
+
+    /** Stalls whose map positions (locationX/Y) are at most this far apart are neighbours. */
+    private double adjacencyDistance = 21.0;
+
+    /** Largest group that may be asked for. */
+    private int maxGroupSize = 6;
+
+    /** Most groups returned by one search. */
+    private int maxResults = 50;
+}
@@ -0,0 +1,17 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stall search, see {@link com.cibf.service.StallSearchIndex}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stall-search")
+public class StallSearchProperties {
+
+    /** Largest page that may be asked for. */
+    private int maxPageSize = 100;
+}
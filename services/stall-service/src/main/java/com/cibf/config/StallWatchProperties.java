@@ -0,0 +1,22 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Stall watches (long polls), see {@link com.cibf.service.StallWatchService}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stall-watch")
+public class StallWatchProperties {
+
+    /** How long a watch waits before answering that the stall is still not available. */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /** Most watches parked at once on this instance; more get 503. */
+    private int maxWaiters = 10000;
+}
@@ -0,0 +1,93 @@
+package com.cibf.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process token buckets, one per (route, caller).
+ *
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (GCRA):
+ * taking a token is one CAS, with no lock and no refill timer. A bucket whose
+ * arrival time lies in the past is full, so idle buckets can be dropped without
+ * changing any caller's allowance; that keeps memory proportional to the callers
+ * seen within app.rate-limit.idle-timeout, capped at app.rate-limit.max-keys.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private static final String OVERFLOW_KEY = "*";
+
+    private final RateLimitProperties properties;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    public TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("rate.limit.buckets", buckets, Map::size)
+                .description("Live rate-limit buckets")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one token from the caller's bucket for this route.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String route, String caller, RateLimitProperties.Limit limit) {
+        long now = System.nanoTime();
+        long interval = (long) Math.ceil(1_000_000_000d / limit.getRefillPerSecond());
+        long burst = interval * Math.max(1, limit.getCapacity());
+
+        AtomicLong bucket = bucket(route, caller, now);
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + interval;
+            if (next - now > burst) {
+                return next - burst - now;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String route, String caller, long now) {
+        String key = route + '|' + caller;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        if (now - lastSweep.get() > idleNanos || buckets.size() >= properties.getMaxKeys()) {
+            sweep(now, idleNanos);
+        }
+        if (buckets.size() >= properties.getMaxKeys()) {
+            // Too many distinct callers (e.g. spoofed identities): share one bucket for the rest
+            key = route + '|' + OVERFLOW_KEY;
+        }
+        AtomicLong created = new AtomicLong(now);
+        bucket = buckets.putIfAbsent(key, created);
+        return bucket != null ? bucket : created;
+    }
+
+    /**
+     * Drops buckets that have been full for longer than the idle timeout. Only one
+     * thread sweeps at a time; the others carry on without waiting for it.
+     */
+    private void sweep(long now, long idleNanos) {
+        long previous = lastSweep.get();
+        if (now - previous < idleNanos / 10 || !lastSweep.compareAndSet(previous, now)) {
+            return;
+        }
+        buckets.forEach((key, bucket) -> {
+            if (now - bucket.get() > idleNanos) {
+                buckets.remove(key, bucket);
+            }
+        });
+    }
+}
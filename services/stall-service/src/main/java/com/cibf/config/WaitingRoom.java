@@ -0,0 +1,180 @@
+package com.cibf.config;
+
+import com.cibf.dto.QueueStatusDTO;
+import com.cibf.dto.QueueStatusDTO.State;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FIFO admission queue for the opening rush.
+ *
+ * A vendor joining gets the next ticket number. Admission is a single counter that
+ * moves forward by admit-per-second tickets per second, so a vendor's position is
+ * its ticket number minus that counter and the queue itself takes no memory beyond
+ * one small entry per vendor. An admitted vendor may use the gated endpoints for
+ * admission-window (counted from when it first sees itself admitted), then has to
+ * queue again.
+ */
+@Component
+public class WaitingRoom {
+
+    private static final long MAX_POLL_SECONDS = 30;
+
+    private final WaitingRoomProperties properties;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final Counter joined;
+
+    // Admission clock, guarded by this
+    private long issued;   // last ticket handed out
+    private long admitted; // tickets up to this one are admitted
+    private long clock;    // nanoTime up to which admissions have been counted
+
+    private static final class Ticket {
+        final long number;
+        volatile long admittedAt; // nanoTime first seen admitted, 0 before
+
+        Ticket(long number) {
+            this.number = number;
+        }
+    }
+
+    public WaitingRoom(WaitingRoomProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clock = System.nanoTime();
+        this.joined = Counter.builder("waiting.room.joined")
+                .description("Tickets issued by the waiting room")
+                .register(meterRegistry);
+        Gauge.builder("waiting.room.queue.length", this, WaitingRoom::waiting)
+                .description("Vendors waiting to be admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the vendor, unless it already has a ticket that is waiting or admitted.
+     *
+     * @return its status, or null if the queue is full
+     */
+    public QueueStatusDTO join(String vendor) {
+        long now = System.nanoTime();
+        if (!properties.isEnabled()) {
+            return open();
+        }
+        // Atomic per vendor: concurrent joins of one vendor share the ticket issued first
+        Ticket ticket = tickets.compute(vendor, (key, current) -> {
+            if (current != null && state(current, admitted(now), now) != State.EXPIRED) {
+                return current;
+            }
+            Ticket fresh = issue(now);
+            if (fresh != null) {
+                joined.increment();
+            }
+            return fresh; // null when the queue is full, which also drops an expired ticket
+        });
+        if (ticket == null) {
+            return null;
+        }
+        sweep(now);
+        return status(ticket, now);
+    }
+
+    /**
+     * The vendor's status, or null if it has not joined.
+     */
+    public QueueStatusDTO status(String vendor) {
+        if (!properties.isEnabled()) {
+            return open();
+        }
+        Ticket ticket = tickets.get(vendor);
+        return ticket != null ? status(ticket, System.nanoTime()) : null;
+    }
+
+    private synchronized Ticket issue(long now) {
+        if (issued - admitted(now) >= properties.getMaxQueueLength()) {
+            return null;
+        }
+        return new Ticket(++issued);
+    }
+
+    /**
+     * Moves the admission counter forward to now and returns it.
+     */
+    private synchronized long admitted(long now) {
+        long interval = Math.max(1, (long) (1_000_000_000d / properties.getAdmitPerSecond()));
+        long due = (now - clock) / interval;
+        if (due > 0) {
+            admitted = Math.min(issued, admitted + due);
+            clock += due * interval;
+        }
+        if (admitted == issued) {
+            // Nobody waiting: idle time is not saved up for a later burst
+            clock = now;
+        }
+        return admitted;
+    }
+
+    private synchronized long waiting() {
+        return issued - admitted(System.nanoTime());
+    }
+
+    private State state(Ticket ticket, long admittedUpTo, long now) {
+        if (ticket.number > admittedUpTo) {
+            return State.WAITING;
+        }
+        if (ticket.admittedAt == 0) {
+            ticket.admittedAt = now;
+        }
+        return now - ticket.admittedAt < properties.getAdmissionWindow().toNanos() ? State.ADMITTED : State.EXPIRED;
+    }
+
+    private QueueStatusDTO status(Ticket ticket, long now) {
+        long admittedUpTo = admitted(now);
+        State state = state(ticket, admittedUpTo, now);
+        return switch (state) {
+            case WAITING -> {
+                long position = ticket.number - admittedUpTo;
+                long wait = (long) Math.ceil(position / properties.getAdmitPerSecond());
+                yield new QueueStatusDTO(ticket.number, state, position, wait, 0,
+                        Math.clamp(wait / 2, 1, MAX_POLL_SECONDS));
+            }
+            case ADMITTED -> {
+                long left = properties.getAdmissionWindow().toNanos() - (now - ticket.admittedAt);
+                yield new QueueStatusDTO(ticket.number, state, 0, 0, TimeUnit.NANOSECONDS.toSeconds(left),
+                        MAX_POLL_SECONDS);
+            }
+            case EXPIRED -> new QueueStatusDTO(ticket.number, state, 0, 0, 0, 0);
+        };
+    }
+
+    private QueueStatusDTO open() {
+        return new QueueStatusDTO(0, State.ADMITTED, 0, 0, properties.getAdmissionWindow().toSeconds(),
+                MAX_POLL_SECONDS);
+    }
+
+    /**
+     * Drops tickets whose admission has run out, once per admission window. Only one
+     * thread sweeps at a time; the others carry on without waiting for it.
+     */
+    private void sweep(long now) {
+        long window = properties.getAdmissionWindow().toNanos();
+        long last = lastSweep.get();
+        if (now - last < window || !lastSweep.compareAndSet(last, now) || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long admittedUpTo = admitted(now);
+            tickets.values().removeIf(ticket -> state(ticket, admittedUpTo, now) == State.EXPIRED);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.cibf.config;
+
+import com.cibf.dto.QueueStatusDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lets requests to the waiting room's routes (see {@link WaitingRoomProperties})
+ * through only for vendors the {@link WaitingRoom} has admitted; the others get
+ * 429 with their queue status and a Retry-After header. Turned-away requests are
+ * counted as waiting.room.rejected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingRoomInterceptor implements HandlerInterceptor {
+
+    private final WaitingRoomProperties properties;
+    private final WaitingRoom waitingRoom;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) throws IOException {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String route = RequestLoggingFilter.resolveRoute(request);
+        if (!properties.getRoutes().contains(route)) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return true; // left to Spring Security
+        }
+
+        QueueStatusDTO status = waitingRoom.status(authentication.getName());
+        if (status != null && status.getState() == QueueStatusDTO.State.ADMITTED) {
+            return true;
+        }
+
+        String reason = status == null ? "not-queued" : status.getState().name().toLowerCase();
+        meterRegistry.counter("waiting.room.rejected", "uri", route, "reason", reason).increment();
+        log.debug("Waiting room: {} {} by {} ({})", request.getMethod(), route, authentication.getName(), reason);
+        reject(request, response, status);
+        return false;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        QueueStatusDTO status) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        if (status == null || status.getState() == QueueStatusDTO.State.EXPIRED) {
+            body.put("message", "Join the waiting room first: POST /api/stalls/queue");
+        } else {
+            body.put("message", "Waiting room: position " + status.getPosition()
+                    + ", about " + status.getEstimatedWaitSeconds() + "s");
+        }
+        body.put("path", request.getRequestURI());
+        body.put("queue", status);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(status != null ? Math.max(1, status.getPollAfterSeconds()) : 1));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
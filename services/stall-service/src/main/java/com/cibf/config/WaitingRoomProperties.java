@@ -0,0 +1,41 @@
+package com.cibf.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Virtual waiting room in front of the stall allocation endpoints, see
+ * {@link WaitingRoom} and {@link WaitingRoomInterceptor}.
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "app.waiting-room")
+public class WaitingRoomProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Queue tickets admitted per second: the load the gated endpoints are to see.
+     * At most one per nanosecond, the resolution of the admission clock.
+     */
+    @Positive
+    @DecimalMax("1E9")
+    private double admitPerSecond = 50;
+
+    /** How long an admitted vendor may use the gated endpoints before queueing again. */
+    private Duration admissionWindow = Duration.ofMinutes(3);
+
+    /** Longest queue; vendors joining beyond it get 503. */
+    private int maxQueueLength = 200_000;
+
+    /** Route patterns that need an admitted ticket. */
+    private Set<String> routes = Set.of("/api/stalls/{id}/hold", "/api/stalls/{id}/reserve");
+}
@@ -0,0 +1,27 @@
+package com.cibf.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration: registers the waiting room, the rate limiter and the
+ * per-request query guard.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final WaitingRoomInterceptor waitingRoomInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final QueryGuardInterceptor queryGuardInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Rejected requests never reach the handler, so they are not counted by the query guard
+        registry.addInterceptor(waitingRoomInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(queryGuardInterceptor).addPathPatterns("/api/**");
+    }
+}
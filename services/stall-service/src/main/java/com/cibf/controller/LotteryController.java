@@ -0,0 +1,89 @@
+package com.cibf.controller;
+
+import com.cibf.dto.LotteryAllocationDTO;
+import com.cibf.dto.LotteryDrawResultDTO;
+import com.cibf.dto.LotteryPreferencesDTO;
+import com.cibf.dto.LotteryRoundRequestDTO;
+import com.cibf.dto.LotteryRoundResponseDTO;
+import com.cibf.service.LotteryService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/lottery/rounds")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*") // Configure properly in production
+public class LotteryController {
+
+    private final LotteryService lotteryService;
+
+    /**
+     * Get a lottery round
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<LotteryRoundResponseDTO> getRound(@PathVariable Long id) {
+        log.debug("REST request to get lottery round: {}", id);
+        return ResponseEntity.ok(lotteryService.getRound(id));
+    }
+
+    /**
+     * Submit (replace) the current vendor's ranked stalls, first choice first
+     */
+    @PutMapping("/{id}/preferences")
+    public ResponseEntity<LotteryPreferencesDTO> submitPreferences(
+            @PathVariable Long id,
+            @Valid @RequestBody LotteryPreferencesDTO preferences,
+            Authentication authentication) {
+        log.debug("REST request to rank stalls in lottery round: {}", id);
+        List<Long> stallIds = lotteryService.submitPreferences(id, authentication.getName(), preferences.getStallIds());
+        return ResponseEntity.ok(new LotteryPreferencesDTO(stallIds));
+    }
+
+    /**
+     * Get the current vendor's ranked stalls
+     */
+    @GetMapping("/{id}/preferences")
+    public ResponseEntity<LotteryPreferencesDTO> getPreferences(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(new LotteryPreferencesDTO(lotteryService.getPreferences(id, authentication.getName())));
+    }
+
+    /**
+     * Get the stalls the current vendor won in the draw
+     */
+    @GetMapping("/{id}/allocations")
+    public ResponseEntity<List<LotteryAllocationDTO>> getAllocations(@PathVariable Long id,
+                                                                     Authentication authentication) {
+        return ResponseEntity.ok(lotteryService.getAllocations(id, authentication.getName()));
+    }
+
+    // ============ EMPLOYEE ONLY ENDPOINTS ============
+
+    /**
+     * Open a lottery round (Employee only)
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<LotteryRoundResponseDTO> createRound(@Valid @RequestBody LotteryRoundRequestDTO requestDTO) {
+        log.info("REST request to create lottery round: {}", requestDTO.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(lotteryService.createRound(requestDTO));
+    }
+
+    /**
+     * Close the round and allocate its stalls (Employee only)
+     */
+    @PostMapping("/{id}/draw")
+    @PreAuthorize("hasRole('EMPLOYEE')")
+    public ResponseEntity<LotteryDrawResultDTO> draw(@PathVariable Long id) {
+        log.info("REST request to draw lottery round: {}", id);
+        return ResponseEntity.ok(lotteryService.draw(id));
+    }
+}
@@ -1,19 +1,28 @@
 package com.cibf.controller;
 
+import com.cibf.dto.AllocationResultDTO;
+import com.cibf.dto.StallGroupDTO;
+import com.cibf.dto.StallMapColumnsDTO;
 import com.cibf.dto.StallMapDTO;
 import com.cibf.dto.StallRequestDTO;
 import com.cibf.dto.StallResponseDTO;
+import com.cibf.dto.StallSearchRequestDTO;
+import com.cibf.dto.StallSearchResultDTO;
 import com.cibf.entity.Stall.StallSize;
 import com.cibf.entity.Stall.StallStatus;
 import com.cibf.service.StallService;
+import com.cibf.service.StallWatchService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 import java.util.Map;
@@ -26,13 +35,14 @@ import java.util.Map;
 public class StallController {
 
     private final StallService stallService;
+    private final StallWatchService stallWatchService;
 
     /**
      * Get all stalls (accessible by all authenticated users)
      */
     @GetMapping
     public ResponseEntity<List<StallResponseDTO>> getAllStalls() {
-        log.info("REST request to get all stalls");
+        log.debug("REST request to get all stalls");
         List<StallResponseDTO> stalls = stallService.getAllStalls();
         return ResponseEntity.ok(stalls);
     }
@@ -42,7 +52,7 @@ public class StallController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<StallResponseDTO> getStallById(@PathVariable Long id) {
-        log.info("REST request to get stall by ID: {}", id);
+        log.debug("REST request to get stall by ID: {}", id);
         StallResponseDTO stall = stallService.getStallById(id);
         return ResponseEntity.ok(stall);
     }
@@ -52,7 +62,7 @@ public class StallController {
      */
     @GetMapping("/available")
     public ResponseEntity<List<StallResponseDTO>> getAvailableStalls() {
-        log.info("REST request to get available stalls");
+        log.debug("REST request to get available stalls");
         List<StallResponseDTO> stalls = stallService.getAvailableStalls();
         return ResponseEntity.ok(stalls);
     }
@@ -62,9 +72,20 @@ public class StallController {
      */
     @GetMapping("/map")
     public ResponseEntity<List<StallMapDTO>> getStallsForMap() {
-        log.info("REST request to get stalls for map");
+        log.debug("REST request to get stalls for map");
         List<StallMapDTO> stalls = stallService.getStallsForMap();
-        return ResponseEntity.ok(stalls);
+        // Same URL, two representations: caches (the gateway's included) must key on Accept
+        return ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(stalls);
+    }
+
+    /**
+     * Get stalls for map display as parallel arrays (Accept: application/vnd.cibf.stall-map.columns+json)
+     */
+    @GetMapping(value = "/map", produces = StallMapColumnsDTO.MEDIA_TYPE)
+    public ResponseEntity<StallMapColumnsDTO> getStallMapColumns() {
+        log.debug("REST request to get stalls for map (columns)");
+        StallMapColumnsDTO columns = new StallMapColumnsDTO(stallService.getStallsForMap());
+        return ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(columns);
     }
 
     /**
@@ -72,7 +93,7 @@ public class StallController {
      */
     @GetMapping("/size/{size}")
     public ResponseEntity<List<StallResponseDTO>> getStallsBySize(@PathVariable StallSize size) {
-        log.info("REST request to get stalls by size: {}", size);
+        log.debug("REST request to get stalls by size: {}", size);
         List<StallResponseDTO> stalls = stallService.getStallsBySize(size);
         return ResponseEntity.ok(stalls);
     }
@@ -82,32 +103,102 @@ public class StallController {
      */
     @GetMapping("/size/{size}/available")
     public ResponseEntity<List<StallResponseDTO>> getAvailableStallsBySize(@PathVariable StallSize size) {
-        log.info("REST request to get available stalls by size: {}", size);
+        log.debug("REST request to get available stalls by size: {}", size);
         List<StallResponseDTO> stalls = stallService.getAvailableStallsBySize(size);
         return ResponseEntity.ok(stalls);
     }
 
+    /**
+     * Find groups of adjacent available stalls, most compact first (e.g. ?count=3&size=MEDIUM)
+     */
+    @GetMapping("/contiguous")
+    public ResponseEntity<List<StallGroupDTO>> getContiguousStalls(
+            @RequestParam int count,
+            @RequestParam(required = false) StallSize size,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("REST request to get {} adjacent available stalls of size {}", count, size);
+        if (count < 1 || count > stallService.getMaxGroupSize() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stallService.getContiguousStalls(size, count, limit));
+    }
+
+    /**
+     * Search stalls, e.g. ?size=MEDIUM&status=AVAILABLE&hall=A&maxPrice=20000&sort=PRICE
+     */
+    @GetMapping("/search")
+    public ResponseEntity<StallSearchResultDTO> searchStalls(StallSearchRequestDTO request) {
+        log.debug("REST request to search stalls: {}", request);
+        if (!stallService.isValidSearch(request)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stallService.searchStalls(request));
+    }
+
     /**
      * Check if stall is available
      */
     @GetMapping("/{id}/available")
     public ResponseEntity<Map<String, Boolean>> checkStallAvailability(@PathVariable Long id) {
-        log.info("REST request to check stall availability: {}", id);
+        log.debug("REST request to check stall availability: {}", id);
         boolean isAvailable = stallService.isStallAvailable(id);
         return ResponseEntity.ok(Map.of("available", isAvailable));
     }
 
+    /**
+     * Wait for a stall to become available (long poll): {"available": true} as soon as
+     * it is, {"available": false} after app.stall-watch.timeout
+     */
+    @GetMapping("/{id}/watch")
+    public DeferredResult<ResponseEntity<Map<String, Boolean>>> watchStall(@PathVariable Long id) {
+        log.debug("REST request to watch stall: {}", id);
+        return stallWatchService.watch(id);
+    }
+
     /**
      * Get stall statistics (for dashboard)
      */
     @GetMapping("/statistics")
     @PreAuthorize("hasRole('EMPLOYEE')")
     public ResponseEntity<Map<String, Object>> getStallStatistics() {
-        log.info("REST request to get stall statistics");
+        log.debug("REST request to get stall statistics");
         Map<String, Object> statistics = stallService.getStallStatistics();
         return ResponseEntity.ok(statistics);
     }
 
+    // ============ ALLOCATION ENDPOINTS ============
+    // With app.waiting-room.enabled, hold/reserve first need an admitted queue ticket (else 429).
+    // With app.allocation.enabled all three go through the allocation engine; without it reserve
+    // and release update the stall row in one transaction, and only hold answers 503.
+    // Reserving past app.quota.max-stalls-per-vendor answers 409.
+
+    /**
+     * Hold a stall for the current vendor (app.allocation.hold-duration)
+     */
+    @PostMapping("/{id}/hold")
+    public ResponseEntity<AllocationResultDTO> holdStall(@PathVariable Long id, Authentication authentication) {
+        log.debug("REST request to hold stall: {}", id);
+        return ResponseEntity.ok(stallService.holdStall(id, authentication.getName()));
+    }
+
+    /**
+     * Reserve a stall for the current vendor
+     */
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<AllocationResultDTO> reserveStall(@PathVariable Long id, Authentication authentication) {
+        log.debug("REST request to reserve stall: {}", id);
+        return ResponseEntity.ok(stallService.reserveStall(id, authentication.getName()));
+    }
+
+    /**
+     * Release the current vendor's hold or reservation
+     */
+    @PostMapping("/{id}/release")
+    public ResponseEntity<AllocationResultDTO> releaseStall(@PathVariable Long id, Authentication authentication) {
+        log.debug("REST request to release stall: {}", id);
+        return ResponseEntity.ok(stallService.releaseStall(id, authentication.getName()));
+    }
+
     // ============ EMPLOYEE ONLY ENDPOINTS ============
 
     /**
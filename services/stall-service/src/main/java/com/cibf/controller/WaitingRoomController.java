@@ -0,0 +1,56 @@
+package com.cibf.controller;
+
+import com.cibf.config.WaitingRoom;
+import com.cibf.dto.QueueStatusDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Waiting room in front of hold/reserve (app.waiting-room.enabled): join the queue,
+ * then poll until admitted. Answered from memory; no database access.
+ */
+@RestController
+@RequestMapping("/api/stalls/queue")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*") // Configure properly in production
+public class WaitingRoomController {
+
+    private final WaitingRoom waitingRoom;
+
+    /**
+     * Join the queue (or get the current ticket if already in it)
+     */
+    @PostMapping
+    public ResponseEntity<QueueStatusDTO> joinQueue(Authentication authentication) {
+        QueueStatusDTO status = waitingRoom.join(authentication.getName());
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        log.debug("Vendor {} has ticket {} ({})", authentication.getName(), status.getTicket(), status.getState());
+        return withPollHint(status);
+    }
+
+    /**
+     * Current position in the queue; poll again after Retry-After seconds
+     */
+    @GetMapping
+    public ResponseEntity<QueueStatusDTO> getQueueStatus(Authentication authentication) {
+        QueueStatusDTO status = waitingRoom.status(authentication.getName());
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return withPollHint(status);
+    }
+
+    private static ResponseEntity<QueueStatusDTO> withPollHint(QueueStatusDTO status) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(status.getPollAfterSeconds()))
+                .body(status);
+    }
+}
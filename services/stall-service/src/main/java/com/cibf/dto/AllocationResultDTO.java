@@ -0,0 +1,28 @@
+package com.cibf.dto;
+
+import com.cibf.entity.Stall;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A stall's allocation state after a hold/reserve/release, as journaled.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationResultDTO {
+
+    private Long stallId;
+    private Stall.StallStatus status;
+    private String holder;          // vendor holding or having reserved the stall, if any
+    private Instant holdExpiresAt;  // only while held
+    private long sequence;          // journal position of this change
+
+    // The stall row as committed with this change (allocation engine, status changes only)
+    @JsonIgnore
+    private StallResponseDTO stall;
+}
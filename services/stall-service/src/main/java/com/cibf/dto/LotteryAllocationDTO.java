@@ -0,0 +1,18 @@
+package com.cibf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A stall a vendor won in a lottery draw.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotteryAllocationDTO {
+
+    private Long stallId;
+    private int preferenceRank; // 1 = the vendor's first choice
+    private int pass;           // 1 = first stall per vendor, 2 = second, ...
+}
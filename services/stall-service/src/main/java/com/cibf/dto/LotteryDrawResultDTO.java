@@ -0,0 +1,26 @@
+package com.cibf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Summary of a lottery draw, with the time each phase took.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotteryDrawResultDTO {
+
+    private Long roundId;
+    private long seed;
+    private int vendors;              // vendors with preferences
+    private int stalls;               // stalls still available at the draw
+    private int allocatedStalls;
+    private int vendorsWithStall;
+    private int firstChoices;         // allocations that were the vendor's first choice
+    private int passes;
+    private Map<String, Long> phaseMillis; // load, shuffle, match, write, total
+}
@@ -0,0 +1,20 @@
+package com.cibf.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A vendor's ranked choices in a lottery round, first choice first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotteryPreferencesDTO {
+
+    @NotEmpty(message = "At least one stall is required")
+    private List<Long> stallIds;
+}
@@ -0,0 +1,30 @@
+package com.cibf.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotteryRoundRequestDTO {
+
+    @NotBlank(message = "Round name is required")
+    @Size(max = 100, message = "Round name must not exceed 100 characters")
+    private String name;
+
+    @NotNull(message = "Closing time is required")
+    @Future(message = "Closing time must be in the future")
+    private LocalDateTime closesAt;
+
+    @NotNull(message = "Stalls per vendor is required")
+    @Min(value = 1, message = "Stalls per vendor must be at least 1")
+    private Integer maxStallsPerVendor;
+
+    @NotEmpty(message = "At least one stall is required")
+    private Set<Long> stallIds;
+}
@@ -0,0 +1,36 @@
+package com.cibf.dto;
+
+import com.cibf.entity.LotteryRound;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotteryRoundResponseDTO {
+
+    private Long id;
+    private String name;
+    private LotteryRound.RoundStatus status;
+    private LocalDateTime closesAt;
+    private Integer maxStallsPerVendor;
+    private Set<Long> stallIds;
+    private long vendors; // vendors who have submitted preferences
+    private LocalDateTime drawnAt;
+
+    public LotteryRoundResponseDTO(LotteryRound round, long vendors) {
+        this.id = round.getId();
+        this.name = round.getName();
+        this.status = round.getStatus();
+        this.closesAt = round.getClosesAt();
+        this.maxStallsPerVendor = round.getMaxStallsPerVendor();
+        this.stallIds = new TreeSet<>(round.getStallIds());
+        this.vendors = vendors;
+        this.drawnAt = round.getDrawnAt();
+    }
+}
@@ -0,0 +1,25 @@
+package com.cibf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A vendor's place in the waiting room in front of hold/reserve.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueStatusDTO {
+
+    private long ticket;
+    private State state;
+    private long position;                  // 1 = next to be admitted; 0 once admitted
+    private long estimatedWaitSeconds;
+    private long admissionExpiresInSeconds; // while ADMITTED
+    private long pollAfterSeconds;          // when to ask again
+
+    public enum State {
+        WAITING, ADMITTED, EXPIRED
+    }
+}
@@ -0,0 +1,21 @@
+package com.cibf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A group of adjacent AVAILABLE stalls, see GET /api/stalls/contiguous.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StallGroupDTO {
+
+    private List<StallMapDTO> stalls;
+    private BigDecimal totalPrice;
+    private double spread; // mean distance of the stalls from the group's centre, in map units
+}
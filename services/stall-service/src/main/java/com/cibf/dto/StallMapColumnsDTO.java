@@ -0,0 +1,49 @@
+package com.cibf.dto;
+
+import com.cibf.entity.Stall;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Column-oriented form of the stall map: one array per StallMapDTO field, where
+ * index i of every array describes the same stall. Field names are written once
+ * instead of once per stall, which (before gzip) roughly halves the payload.
+ *
+ * Served by GET /api/stalls/map with Accept: {@value #MEDIA_TYPE}.
+ */
+@Data
+@NoArgsConstructor
+public class StallMapColumnsDTO {
+
+    public static final String MEDIA_TYPE = "application/vnd.cibf.stall-map.columns+json";
+
+    private int count;
+    private long[] id;
+    private String[] stallName;
+    private Stall.StallSize[] size;
+    private double[] locationX;
+    private double[] locationY;
+    private Stall.StallStatus[] status;
+
+    public StallMapColumnsDTO(List<StallMapDTO> stalls) {
+        int n = stalls.size();
+        this.count = n;
+        this.id = new long[n];
+        this.stallName = new String[n];
+        this.size = new Stall.StallSize[n];
+        this.locationX = new double[n];
+        this.locationY = new double[n];
+        this.status = new Stall.StallStatus[n];
+        for (int i = 0; i < n; i++) {
+            StallMapDTO stall = stalls.get(i);
+            this.id[i] = stall.getId();
+            this.stallName[i] = stall.getStallName();
+            this.size[i] = stall.getSize();
+            this.locationX[i] = stall.getLocationX();
+            this.locationY[i] = stall.getLocationY();
+            this.status[i] = stall.getStatus();
+        }
+    }
+}
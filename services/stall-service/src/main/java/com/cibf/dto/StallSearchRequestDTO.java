@@ -0,0 +1,34 @@
+package com.cibf.dto;
+
+import com.cibf.entity.Stall;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Query parameters of GET /api/stalls/search. Every criterion is optional; the
+ * values of one list match if any of them does, and all criteria given must match.
+ */
+@Data
+@NoArgsConstructor
+public class StallSearchRequestDTO {
+
+    public enum SortField {
+        ID, NAME, PRICE, DISTANCE
+    }
+
+    private List<Stall.StallSize> size;
+    private List<Stall.StallStatus> status;
+    private List<String> hall;       // leading letters of the stall name, e.g. "A" for A1..A50
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Double nearX;            // with nearY and radius: only stalls within radius of this map position
+    private Double nearY;
+    private Double radius;
+    private SortField sort = SortField.NAME;
+    private boolean descending;
+    private int page = 0;
+    private int pageSize = 20;
+}
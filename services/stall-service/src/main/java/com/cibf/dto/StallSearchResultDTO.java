@@ -0,0 +1,22 @@
+package com.cibf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of GET /api/stalls/search.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StallSearchResultDTO {
+
+    private List<StallResponseDTO> stalls;
+    private int page;
+    private int pageSize;
+    private int totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,61 @@
+package com.cibf.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+@Table(name = "lottery_rounds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotteryRound {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name; // e.g., "LARGE stalls at the main entrance"
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RoundStatus status;
+
+    @Column(name = "closes_at", nullable = false)
+    private LocalDateTime closesAt; // preferences are accepted until then
+
+    @Column(name = "max_stalls_per_vendor", nullable = false)
+    private Integer maxStallsPerVendor;
+
+    @ElementCollection
+    @CollectionTable(name = "lottery_round_stalls", joinColumns = @JoinColumn(name = "round_id"))
+    @Column(name = "stall_id")
+    private Set<Long> stallIds = new HashSet<>();
+
+    @Column(name = "seed")
+    private Long seed; // lottery seed, set by the draw; the draw can be replayed from it
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "drawn_at")
+    private LocalDateTime drawnAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = RoundStatus.OPEN;
+        }
+    }
+
+    public enum RoundStatus {
+        OPEN, DRAWN
+    }
+}
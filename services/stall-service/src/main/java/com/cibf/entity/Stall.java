@@ -4,11 +4,19 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stalls")
+@Table(name = "stalls", indexes = {
+        @Index(name = "idx_stalls_status_name", columnList = "status, stall_name"),
+        @Index(name = "idx_stalls_size_status", columnList = "size, status"),
+        @Index(name = "idx_stalls_location", columnList = "locationx, locationy")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "stall") // see SecondLevelCacheConfig
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,12 +48,19 @@ public class Stall {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private StallStatus status;
+
+    @Column(length = 255)
+    private String owner; // vendor the stall is reserved for (RESERVED only); see VendorQuotaService
     
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version; // incremented on every update; sent in stall change notifications
     
     @PrePersist
     protected void onCreate() {
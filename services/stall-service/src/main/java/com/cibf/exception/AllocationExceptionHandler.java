@@ -0,0 +1,36 @@
+package com.cibf.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Status codes for the allocation endpoints. Handled here rather than through the
+ * /error page, which an unauthenticated error dispatch cannot reach (403).
+ */
+@RestControllerAdvice
+public class AllocationExceptionHandler {
+
+    @ExceptionHandler(AllocationRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleRejected(AllocationRejectedException ex) {
+        return error(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    @ExceptionHandler(AllocationUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnavailable(AllocationUnavailableException ex) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("message", message);
+        errorResponse.put("status", status.value());
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
@@ -0,0 +1,12 @@
+package com.cibf.exception;
+
+/**
+ * A hold/reserve/release the stall's current state does not allow (held or
+ * reserved by someone else, not available). Answered with 409, see
+ * {@link AllocationExceptionHandler}.
+ */
+public class AllocationRejectedException extends RuntimeException {
+    public AllocationRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.cibf.exception;
+
+/**
+ * The allocation engine is off, overloaded, or did not confirm a command in
+ * time. Answered with 503, see {@link AllocationExceptionHandler}.
+ */
+public class AllocationUnavailableException extends RuntimeException {
+    public AllocationUnavailableException(String message) {
+        super(message);
+    }
+}
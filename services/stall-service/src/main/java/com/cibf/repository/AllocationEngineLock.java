@@ -0,0 +1,121 @@
+package com.cibf.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * A PostgreSQL advisory lock marking the allocation engine as running on some
+ * instance. The engine holds it in session mode, on a connection of its own (not
+ * from the pool), for as long as it runs; a lottery draw takes the same lock for
+ * its transaction. So a draw fails while any instance runs the engine, and an
+ * engine cannot start during a draw or while another instance runs one. If the
+ * connection is lost, so is the lock.
+ */
+@Repository
+@Slf4j
+public class AllocationEngineLock {
+
+    // "STALLENG": any key no other code of this database uses
+    private static final long KEY = 0x5354_414C_4C45_4E47L;
+    private static final int TIMEOUT_SECONDS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private Connection session; // guarded by this
+
+    public AllocationEngineLock(JdbcTemplate jdbcTemplate,
+                                @Value("${spring.datasource.url}") String url,
+                                @Value("${spring.datasource.username:}") String username,
+                                @Value("${spring.datasource.password:}") String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Takes the lock for this instance's engine.
+     *
+     * @return false if another instance's engine or a draw holds it, or the database is unreachable
+     */
+    public synchronized boolean acquire() {
+        if (session != null) {
+            return true;
+        }
+        Connection connection = null;
+        try {
+            Properties info = new Properties();
+            info.setProperty("user", username);
+            info.setProperty("password", password);
+            info.setProperty("connectTimeout", String.valueOf(TIMEOUT_SECONDS));
+            connection = DriverManager.getConnection(url, info);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                statement.setLong(1, KEY);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next() && resultSet.getBoolean(1)) {
+                        session = connection;
+                        return true;
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            log.warn("Could not take the allocation engine lock: {}", ex.getMessage());
+        }
+        closeQuietly(connection);
+        return false;
+    }
+
+    /**
+     * Whether this instance still holds the lock, i.e. its connection is still open.
+     */
+    public synchronized boolean isHeld() {
+        try {
+            return session != null && session.isValid(TIMEOUT_SECONDS);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Gives the lock up by closing its connection.
+     */
+    public synchronized void release() {
+        closeQuietly(session);
+        session = null;
+    }
+
+    /**
+     * Keeps every engine from starting until the caller's transaction ends.
+     *
+     * @return false if an engine runs on some instance
+     */
+    @Transactional
+    public boolean lockForDraw() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                Boolean.class, KEY));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // The lock goes with the session either way
+        }
+    }
+}
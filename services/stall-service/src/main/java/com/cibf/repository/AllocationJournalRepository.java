@@ -0,0 +1,143 @@
+package com.cibf.repository;
+
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallOwnershipRepository.Ownership;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The allocation engine's journal (stall_allocation_journal, V4) and its view of
+ * the stalls table, in plain JDBC: entries are written in batches of hundreds,
+ * which Hibernate would turn into one entity per row. The reads rebuild the
+ * engine, so they are not read-only: they must see the primary, not a replica.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AllocationJournalRepository {
+
+    private static final String INSERT_ENTRY = "INSERT INTO stall_allocation_journal "
+            + "(seq, stall_id, command, status, holder, hold_expires_at, recorded_at) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            // A retried batch whose first commit succeeded after all
+            + "ON CONFLICT (seq) DO NOTHING";
+
+    // One statement for the whole batch; returns the rows as written, for the callers and the change notifications
+    private static final String UPDATE_STATUSES = "UPDATE stalls s "
+            + "SET status = c.status, owner = c.owner, version = s.version + 1, updated_at = LOCALTIMESTAMP "
+            + "FROM unnest(?::bigint[], ?::varchar[], ?::varchar[]) AS c(id, status, owner) "
+            + "WHERE s.id = c.id RETURNING s.id, s.stall_name, s.size, s.dimension, s.locationx, s.locationy, "
+            + "s.price, s.status, s.owner, s.created_at, s.updated_at, s.version";
+
+    private static final String LATEST_ENTRIES = "SELECT DISTINCT ON (stall_id) "
+            + "seq, stall_id, command, status, holder, hold_expires_at, recorded_at "
+            + "FROM stall_allocation_journal ORDER BY stall_id, seq DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StallOwnershipRepository stallOwnershipRepository;
+    private final StallCacheLock stallCacheLock;
+
+    /**
+     * One journal row. statusChanged: stalls.status must be updated too. previousOwner:
+     * the vendor the stall was reserved for before (not stored).
+     */
+    public record Entry(long sequence, long stallId, String command, StallStatus status, String holder,
+                        Instant holdExpiresAt, Instant recordedAt, boolean statusChanged, String previousOwner) {
+    }
+
+    /**
+     * Writes the entries, the resulting stall statuses and the vendors' reservation
+     * counts in one transaction. A RESERVED stall is owned by the entry's holder; any
+     * other status clears the owner.
+     *
+     * @return every stall whose status was updated, as written
+     */
+    @Transactional
+    public Map<Long, Stall> append(List<Entry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entries, entries.size(), (statement, entry) -> {
+            statement.setLong(1, entry.sequence());
+            statement.setLong(2, entry.stallId());
+            statement.setString(3, entry.command());
+            statement.setString(4, entry.status().name());
+            statement.setString(5, entry.holder());
+            statement.setTimestamp(6, entry.holdExpiresAt() != null ? Timestamp.from(entry.holdExpiresAt()) : null);
+            statement.setTimestamp(7, Timestamp.from(entry.recordedAt()));
+        });
+
+        // Last status per stall: a stall may change more than once in a batch
+        Map<Long, Entry> statuses = new LinkedHashMap<>();
+        Map<String, Integer> reservedByVendor = new HashMap<>();
+        for (Entry entry : entries) {
+            if (entry.statusChanged()) {
+                statuses.put(entry.stallId(), entry);
+                if (entry.previousOwner() != null) {
+                    reservedByVendor.merge(entry.previousOwner(), -1, Integer::sum);
+                }
+                if (entry.status() == StallStatus.RESERVED && entry.holder() != null) {
+                    reservedByVendor.merge(entry.holder(), 1, Integer::sum);
+                }
+            }
+        }
+        Map<Long, Stall> written = new HashMap<>();
+        if (statuses.isEmpty()) {
+            return written;
+        }
+        Long[] ids = statuses.keySet().toArray(Long[]::new);
+        String[] values = statuses.values().stream().map(entry -> entry.status().name()).toArray(String[]::new);
+        String[] owners = statuses.values().stream()
+                .map(entry -> entry.status() == StallStatus.RESERVED ? entry.holder() : null)
+                .toArray(String[]::new);
+        stallCacheLock.lock(statuses.keySet());
+        jdbcTemplate.query(UPDATE_STATUSES, statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids));
+            statement.setArray(2, statement.getConnection().createArrayOf("varchar", values));
+            statement.setArray(3, statement.getConnection().createArrayOf("varchar", owners));
+        }, resultSet -> {
+            Stall stall = StallSnapshotRepository.STALL.mapRow(resultSet, 0);
+            written.put(stall.getId(), stall);
+        });
+        stallOwnershipRepository.adjustReserved(reservedByVendor);
+        return written;
+    }
+
+    /**
+     * Current status and owner of every stall.
+     */
+    @Transactional
+    public Map<Long, Ownership> findOwnerships() {
+        Map<Long, Ownership> ownerships = new HashMap<>();
+        jdbcTemplate.query("SELECT id, status, owner FROM stalls", resultSet -> {
+            ownerships.put(resultSet.getLong(1),
+                    new Ownership(StallStatus.valueOf(resultSet.getString(2)), resultSet.getString(3)));
+        });
+        return ownerships;
+    }
+
+    /**
+     * The most recent journal entry of every stall that has one.
+     */
+    @Transactional
+    public List<Entry> findLatestEntries() {
+        return jdbcTemplate.query(LATEST_ENTRIES, (resultSet, row) -> {
+            Timestamp holdExpiresAt = resultSet.getTimestamp("hold_expires_at");
+            return new Entry(resultSet.getLong("seq"), resultSet.getLong("stall_id"),
+                    resultSet.getString("command"), StallStatus.valueOf(resultSet.getString("status")),
+                    resultSet.getString("holder"), holdExpiresAt != null ? holdExpiresAt.toInstant() : null,
+                    resultSet.getTimestamp("recorded_at").toInstant(), false, null);
+        });
+    }
+
+    @Transactional
+    public long findLastSequence() {
+        Long last = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM stall_allocation_journal", Long.class);
+        return last != null ? last : 0;
+    }
+}
@@ -0,0 +1,135 @@
+package com.cibf.repository;
+
+import com.cibf.entity.Stall.StallStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lottery preferences and the draw's bulk writes, in plain JDBC: a round has up to
+ * vendors x max-preferences preference rows, read and written as batches.
+ * Callers provide the transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LotteryPreferenceRepository {
+
+    // One statement for every stall the draw assigns; returns the new versions for the change notifications
+    private static final String RESERVE_STALLS = "UPDATE stalls s "
+            + "SET status = '" + StallStatus.RESERVED.name() + "', owner = c.owner, version = s.version + 1, "
+            + "updated_at = LOCALTIMESTAMP "
+            + "FROM unnest(?::bigint[], ?::varchar[]) AS c(id, owner) "
+            + "WHERE s.id = c.id RETURNING s.id, s.version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StallCacheLock stallCacheLock;
+
+    /**
+     * One allocation made by the draw.
+     */
+    public record Allocation(long stallId, String vendor, int preferenceRank, int pass) {
+    }
+
+    /**
+     * Replaces the vendor's ranked choices for the round (first = rank 1).
+     */
+    public void replacePreferences(Long roundId, String vendor, List<Long> stallIds) {
+        jdbcTemplate.update("DELETE FROM lottery_preferences WHERE round_id = ? AND vendor = ?", roundId, vendor);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(stallIds.size());
+        for (int i = 0; i < stallIds.size(); i++) {
+            rows.add(new Object[]{roundId, vendor, i + 1, stallIds.get(i), now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO lottery_preferences "
+                + "(round_id, vendor, preference_rank, stall_id, submitted_at) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    public List<Long> findPreferences(Long roundId, String vendor) {
+        return jdbcTemplate.queryForList("SELECT stall_id FROM lottery_preferences "
+                + "WHERE round_id = ? AND vendor = ? ORDER BY preference_rank", Long.class, roundId, vendor);
+    }
+
+    public long countVendors(Long roundId) {
+        Long vendors = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT vendor) FROM lottery_preferences WHERE round_id = ?", Long.class, roundId);
+        return vendors != null ? vendors : 0;
+    }
+
+    /**
+     * Every vendor's choices in rank order.
+     */
+    public Map<String, List<Long>> findAllPreferences(Long roundId) {
+        Map<String, List<Long>> preferences = new HashMap<>();
+        jdbcTemplate.query("SELECT vendor, stall_id FROM lottery_preferences "
+                + "WHERE round_id = ? ORDER BY vendor, preference_rank", resultSet -> {
+            preferences.computeIfAbsent(resultSet.getString(1), vendor -> new ArrayList<>())
+                    .add(resultSet.getLong(2));
+        }, roundId);
+        return preferences;
+    }
+
+    /**
+     * Locks the given stalls until the transaction ends and returns those still AVAILABLE.
+     */
+    public Set<Long> lockAvailableStalls(Set<Long> stallIds) {
+        Set<Long> available = new HashSet<>();
+        jdbcTemplate.query("SELECT id, status FROM stalls WHERE id = ANY (?) FOR UPDATE", statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("bigint", stallIds.toArray()));
+        }, resultSet -> {
+            if (StallStatus.AVAILABLE.name().equals(resultSet.getString(2))) {
+                available.add(resultSet.getLong(1));
+            }
+        });
+        return available;
+    }
+
+    /**
+     * Marks the allocated stalls RESERVED, owned by the vendors they went to.
+     *
+     * @return the new version of every stall
+     */
+    public Map<Long, Long> reserveStalls(List<Allocation> allocations) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (allocations.isEmpty()) {
+            return versions;
+        }
+        Long[] ids = allocations.stream().map(Allocation::stallId).toArray(Long[]::new);
+        String[] owners = allocations.stream().map(Allocation::vendor).toArray(String[]::new);
+        stallCacheLock.lock(List.of(ids));
+        jdbcTemplate.query(RESERVE_STALLS, statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids));
+            statement.setArray(2, statement.getConnection().createArrayOf("varchar", owners));
+        }, resultSet -> {
+            versions.put(resultSet.getLong(1), resultSet.getLong(2));
+        });
+        return versions;
+    }
+
+    public void insertAllocations(Long roundId, List<Allocation> allocations) {
+        jdbcTemplate.batchUpdate("INSERT INTO lottery_allocations "
+                        + "(round_id, stall_id, vendor, preference_rank, pass) VALUES (?, ?, ?, ?, ?)",
+                allocations, 1000, (statement, allocation) -> {
+                    statement.setLong(1, roundId);
+                    statement.setLong(2, allocation.stallId());
+                    statement.setString(3, allocation.vendor());
+                    statement.setInt(4, allocation.preferenceRank());
+                    statement.setInt(5, allocation.pass());
+                });
+    }
+
+    public List<Allocation> findAllocations(Long roundId, String vendor) {
+        return jdbcTemplate.query("SELECT stall_id, vendor, preference_rank, pass FROM lottery_allocations "
+                        + "WHERE round_id = ? AND vendor = ? ORDER BY pass",
+                (resultSet, row) -> new Allocation(resultSet.getLong(1), resultSet.getString(2),
+                        resultSet.getInt(3), resultSet.getInt(4)), roundId, vendor);
+    }
+}
@@ -0,0 +1,20 @@
+package com.cibf.repository;
+
+import com.cibf.entity.LotteryRound;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LotteryRoundRepository extends JpaRepository<LotteryRound, Long> {
+
+    // The draw: one at a time per round
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM LotteryRound r WHERE r.id = :id")
+    Optional<LotteryRound> findByIdForUpdate(@Param("id") Long id);
+}
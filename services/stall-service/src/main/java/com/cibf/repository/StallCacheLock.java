@@ -0,0 +1,106 @@
+package com.cibf.repository;
+
+import com.cibf.entity.Stall;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The second-level cache side of the stall writes Hibernate does not see (the plain
+ * JDBC UPDATEs of the reserve/release, journal and draw paths, and the changes of
+ * other instances). It does what Hibernate does for its own updates: soft-locks the
+ * stalls' cache entries and pre-invalidates the stall query spaces before the write,
+ * and releases both when the transaction completes. Until then nothing is cached for
+ * those stalls; afterwards, a load that read the old row (older version, or a
+ * transaction begun before the release) is not cached either, so a reserved stall
+ * cannot come back as available from a read that raced the reserve. Evicting only
+ * after commit would leave exactly that window.
+ *
+ * A change another instance committed is applied the same way, with the lock
+ * released at once (see StallChangeNotifier).
+ */
+@Repository
+@RequiredArgsConstructor
+public class StallCacheLock {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Locks the stalls' cache entries and the cached stall queries until the current
+     * transaction completes. Call it in the writing transaction, before the write.
+     */
+    public void lock(Collection<Long> stallIds) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = persister(session.getFactory());
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        String[] spaces = persister.getSynchronizedQuerySpaces();
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+
+        timestamps.preInvalidate(spaces, session);
+        List<Object> keys = new ArrayList<>(stallIds.size());
+        List<SoftLock> locks = new ArrayList<>(stallIds.size());
+        if (access != null) {
+            for (Long stallId : stallIds) {
+                Object key = access.generateCacheKey(stallId, persister, session.getFactory(),
+                        session.getTenantIdentifier());
+                keys.add(key);
+                locks.add(access.lockItem(session, key, null));
+            }
+        }
+        // Run by Hibernate as the transaction completes, committed or not, like its own cache actions
+        session.getActionQueue().registerProcess((success, completed) -> {
+            for (int i = 0; i < keys.size(); i++) {
+                access.unlockItem(completed, keys.get(i), locks.get(i));
+            }
+            timestamps.invalidate(spaces, completed);
+        });
+    }
+
+    /**
+     * For a stall another instance has written and committed: locks and releases its
+     * cache entry and the cached stall queries, so that no load begun before now
+     * caches what it read.
+     */
+    public void invalidate(Long stallId) {
+        SessionFactoryImplementor factory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        try (SessionImplementor session = (SessionImplementor) factory.openSession()) {
+            EntityPersister persister = persister(factory);
+            EntityDataAccess access = persister.getCacheAccessStrategy();
+            if (access != null) {
+                Object key = access.generateCacheKey(stallId, persister, factory, session.getTenantIdentifier());
+                access.unlockItem(session, key, access.lockItem(session, key, null));
+            }
+            factory.getCache().getTimestampsCache().invalidate(persister.getSynchronizedQuerySpaces(), session);
+        }
+    }
+
+    /**
+     * Drops every cached stall and stall query, after changes of other instances were
+     * missed. A load already under way may still cache a stall it read before; the
+     * region's ttl bounds that.
+     */
+    public void invalidateAll() {
+        SessionFactoryImplementor factory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        String[] spaces = persister(factory).getSynchronizedQuerySpaces();
+        try (SessionImplementor session = (SessionImplementor) factory.openSession()) {
+            factory.getCache().evictEntityData(Stall.class);
+            factory.getCache().getTimestampsCache().invalidate(spaces, session);
+        }
+    }
+
+    private static EntityPersister persister(SessionFactoryImplementor factory) {
+        return factory.getMappingMetamodel().getEntityDescriptor(Stall.class);
+    }
+}
@@ -0,0 +1,169 @@
+package com.cibf.repository;
+
+import com.cibf.entity.Stall.StallStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Vendor reservations when the allocation engine is off, and the per-vendor
+ * reservation counts (vendor_quota, V7) every writer of stalls.owner keeps up:
+ * one conditional UPDATE per reserve/release, in plain JDBC so that no entity is
+ * loaded and Hibernate's bulk-update handling does not drop the whole stall cache
+ * region; {@link StallCacheLock} keeps that one stall out of the cache instead. Writers
+ * lock the stall rows first and the vendor_quota rows second. The reads are not
+ * read-only: the counts must come from the primary, not a replica.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StallOwnershipRepository {
+
+    private static final String RESERVE = "UPDATE stalls "
+            + "SET status = 'RESERVED', owner = ?, version = version + 1, updated_at = LOCALTIMESTAMP "
+            + "WHERE id = ? AND status = 'AVAILABLE' "
+            + "RETURNING version";
+
+    private static final String RELEASE = "UPDATE stalls "
+            + "SET status = 'AVAILABLE', owner = NULL, version = version + 1, updated_at = LOCALTIMESTAMP "
+            + "WHERE id = ? AND owner = ? AND status = 'RESERVED' "
+            + "RETURNING version";
+
+    // No row comes back at the cap. The row stays locked until commit, so this is where the
+    // reserves of one vendor on every instance queue up; the counters of another instance may be behind
+    private static final String TAKE_QUOTA = "INSERT INTO vendor_quota AS q (vendor, reserved) VALUES (?, 1) "
+            + "ON CONFLICT (vendor) DO UPDATE SET reserved = q.reserved + 1 WHERE q.reserved < ? "
+            + "RETURNING reserved";
+
+    private static final String ADD_RESERVED = "INSERT INTO vendor_quota AS q (vendor, reserved) "
+            + "SELECT * FROM unnest(?::varchar[], ?::int[]) "
+            + "ON CONFLICT (vendor) DO UPDATE SET reserved = q.reserved + EXCLUDED.reserved";
+
+    private static final String SUBTRACT_RESERVED = "UPDATE vendor_quota q "
+            + "SET reserved = GREATEST(0, q.reserved - c.stalls) "
+            + "FROM unnest(?::varchar[], ?::int[]) AS c(vendor, stalls) WHERE q.vendor = c.vendor";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StallCacheLock stallCacheLock;
+
+    /**
+     * Current status and owner of one stall.
+     */
+    public record Ownership(StallStatus status, String owner) {
+    }
+
+    /**
+     * Reserves the stall for the vendor if it is available and the vendor has fewer
+     * than limit stalls reserved; the stall and the vendor's count change together.
+     *
+     * @return the stall's new version, or empty if nothing was updated
+     */
+    @Transactional
+    public Optional<Long> reserve(Long stallId, String vendor, int limit) {
+        stallCacheLock.lock(List.of(stallId));
+        Optional<Long> version = jdbcTemplate.queryForList(RESERVE, Long.class, vendor, stallId).stream().findFirst();
+        if (version.isEmpty()) {
+            return version;
+        }
+        if (jdbcTemplate.queryForList(TAKE_QUOTA, Integer.class, vendor, limit).isEmpty()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return Optional.empty();
+        }
+        return version;
+    }
+
+    /**
+     * Makes the stall available again if the vendor reserved it, and gives the vendor's unit back.
+     *
+     * @return the stall's new version, or empty if nothing was updated
+     */
+    @Transactional
+    public Optional<Long> release(Long stallId, String vendor) {
+        stallCacheLock.lock(List.of(stallId));
+        Optional<Long> version = jdbcTemplate.queryForList(RELEASE, Long.class, stallId, vendor).stream().findFirst();
+        version.ifPresent(v -> adjustReserved(Map.of(vendor, -1)));
+        return version;
+    }
+
+    /**
+     * Adds to (or, negative, subtracts from) the vendors' reservation counts, in the
+     * caller's transaction; call it after the stall rows are written.
+     */
+    @Transactional
+    public void adjustReserved(Map<String, Integer> stallsByVendor) {
+        // Sorted, so that concurrent writers lock the rows in one order
+        Map<String, Integer> added = new TreeMap<>();
+        Map<String, Integer> subtracted = new TreeMap<>();
+        stallsByVendor.forEach((vendor, stalls) -> {
+            if (stalls > 0) {
+                added.put(vendor, stalls);
+            } else if (stalls < 0) {
+                subtracted.put(vendor, -stalls);
+            }
+        });
+        adjust(ADD_RESERVED, added);
+        adjust(SUBTRACT_RESERVED, subtracted);
+    }
+
+    @Transactional
+    public Optional<Ownership> findOwnership(Long stallId) {
+        return jdbcTemplate.query("SELECT status, owner FROM stalls WHERE id = ?",
+                (resultSet, row) -> new Ownership(StallStatus.valueOf(resultSet.getString(1)),
+                        resultSet.getString(2)), stallId).stream().findFirst();
+    }
+
+    /**
+     * Reserved stalls per vendor.
+     */
+    @Transactional
+    public Map<String, Integer> findReservedByVendor() {
+        Map<String, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT vendor, reserved FROM vendor_quota WHERE reserved > 0", resultSet -> {
+            counts.put(resultSet.getString(1), resultSet.getInt(2));
+        });
+        return counts;
+    }
+
+    /**
+     * Reserved stalls of the given vendors, whose counts stay locked until the
+     * caller's transaction ends (a draw reserving for them).
+     */
+    @Transactional
+    public Map<String, Integer> lockReserved(Collection<String> vendors) {
+        Map<String, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT vendor, reserved FROM vendor_quota WHERE vendor = ANY(?) ORDER BY vendor "
+                + "FOR UPDATE", statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("varchar", vendors.toArray()));
+        }, resultSet -> {
+            counts.put(resultSet.getString(1), resultSet.getInt(2));
+        });
+        return counts;
+    }
+
+    @Transactional
+    public int findReserved(String vendor) {
+        List<Integer> reserved = jdbcTemplate.queryForList(
+                "SELECT reserved FROM vendor_quota WHERE vendor = ?", Integer.class, vendor);
+        return reserved.isEmpty() ? 0 : reserved.getFirst();
+    }
+
+    private void adjust(String sql, Map<String, Integer> stallsByVendor) {
+        if (stallsByVendor.isEmpty()) {
+            return;
+        }
+        String[] vendors = stallsByVendor.keySet().toArray(String[]::new);
+        Integer[] stalls = stallsByVendor.values().toArray(Integer[]::new);
+        jdbcTemplate.update(sql, statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("varchar", vendors));
+            statement.setArray(2, statement.getConnection().createArrayOf("int", stalls));
+        });
+    }
+}
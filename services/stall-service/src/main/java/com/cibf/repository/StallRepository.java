@@ -1,18 +1,28 @@
 package com.cibf.repository;
 
+import com.cibf.dto.StallMapDTO;
+import com.cibf.dto.StallResponseDTO;
 import com.cibf.entity.Stall;
 import com.cibf.entity.Stall.StallSize;
 import com.cibf.entity.Stall.StallStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StallRepository extends JpaRepository<Stall, Long> {
+
+    // Arguments of StallResponseDTO's all-args constructor, in declaration order
+    String RESPONSE_COLUMNS = "s.id, s.stallName, s.size, s.dimension, s.locationX, s.locationY, " +
+                              "s.price, s.status, s.createdAt, s.updatedAt";
     
     // Find stall by name
     Optional<Stall> findByStallName(String stallName);
@@ -34,6 +44,9 @@ public interface StallRepository extends JpaRepository<Stall, Long> {
     
     // Count stalls by status
     long countByStatus(StallStatus status);
+
+    // Count existing stalls among the given IDs (lottery round validation)
+    long countByIdIn(Collection<Long> ids);
     
     // Count available stalls by size
     @Query("SELECT COUNT(s) FROM Stall s WHERE s.size = :size AND s.status = :status")
@@ -52,6 +65,43 @@ public interface StallRepository extends JpaRepository<Stall, Long> {
         @Param("maxY") Double maxY
     );
     
+    // --- Read-only listings ---
+    // Constructor expressions: Hibernate builds the DTOs straight from the result set,
+    // without managed entities, persistence-context entries or dirty-checking snapshots.
+    // Results are kept in the query cache (plain column values, no entity references) and
+    // dropped as soon as any stall is written through Hibernate or StallCacheLock; see SecondLevelCacheConfig.
+
+    // Map view: only the six columns the map draws
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.cibf.dto.StallMapDTO(s.id, s.stallName, s.size, s.locationX, s.locationY, s.status) " +
+           "FROM Stall s ORDER BY s.stallName ASC")
+    List<StallMapDTO> findMapViewOrderByStallNameAsc();
+
+    // All stalls ordered by name
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.cibf.dto.StallResponseDTO(" + RESPONSE_COLUMNS + ") " +
+           "FROM Stall s ORDER BY s.stallName ASC")
+    List<StallResponseDTO> findResponseViewOrderByStallNameAsc();
+
+    // Stalls with a given status ordered by name
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.cibf.dto.StallResponseDTO(" + RESPONSE_COLUMNS + ") " +
+           "FROM Stall s WHERE s.status = :status ORDER BY s.stallName ASC")
+    List<StallResponseDTO> findResponseViewByStatusOrderByStallNameAsc(@Param("status") StallStatus status);
+
+    // Stalls of a given size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.cibf.dto.StallResponseDTO(" + RESPONSE_COLUMNS + ") " +
+           "FROM Stall s WHERE s.size = :size")
+    List<StallResponseDTO> findResponseViewBySize(@Param("size") StallSize size);
+
+    // Stalls of a given size and status
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.cibf.dto.StallResponseDTO(" + RESPONSE_COLUMNS + ") " +
+           "FROM Stall s WHERE s.size = :size AND s.status = :status")
+    List<StallResponseDTO> findResponseViewBySizeAndStatus(@Param("size") StallSize size,
+                                                           @Param("status") StallStatus status);
+
     // Get statistics for dashboard
     @Query("SELECT s.size, s.status, COUNT(s) FROM Stall s GROUP BY s.size, s.status")
     List<Object[]> getStallStatistics();
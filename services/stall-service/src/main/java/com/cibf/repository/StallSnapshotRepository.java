@@ -0,0 +1,52 @@
+package com.cibf.repository;
+
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.entity.Stall.StallStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Whole stall rows for the in-memory stall indexes, in plain JDBC: detached
+ * copies that bypass the second-level cache. The reads follow change
+ * notifications, so they are not read-only: a replica may not have the change yet.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StallSnapshotRepository {
+
+    private static final String COLUMNS = "SELECT id, stall_name, size, dimension, locationx, locationy, price, "
+            + "status, owner, created_at, updated_at, version FROM stalls";
+
+    // Also maps the rows the allocation journal returns from its updates
+    static final RowMapper<Stall> STALL = (resultSet, row) -> {
+        Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+        return new Stall(resultSet.getLong("id"), resultSet.getString("stall_name"),
+                StallSize.valueOf(resultSet.getString("size")), resultSet.getString("dimension"),
+                resultSet.getDouble("locationx"), resultSet.getDouble("locationy"), resultSet.getBigDecimal("price"),
+                StallStatus.valueOf(resultSet.getString("status")), resultSet.getString("owner"),
+                resultSet.getTimestamp("created_at").toLocalDateTime(),
+                updatedAt != null ? updatedAt.toLocalDateTime() : null, resultSet.getLong("version"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public List<Stall> findAll() {
+        return jdbcTemplate.query(COLUMNS, STALL);
+    }
+
+    @Transactional
+    public List<Stall> findAllById(Collection<Long> ids) {
+        return jdbcTemplate.query(COLUMNS + " WHERE id = ANY(?)", statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids.toArray()));
+        }, STALL);
+    }
+}
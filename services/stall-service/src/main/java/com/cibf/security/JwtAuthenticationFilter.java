@@ -19,11 +19,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final GatewayIdentity gatewayIdentity;
 
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
-                                   CustomUserDetailsService userDetailsService) {
+                                   CustomUserDetailsService userDetailsService,
+                                   GatewayIdentity gatewayIdentity) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.gatewayIdentity = gatewayIdentity;
     }
 
     @Override
@@ -31,10 +34,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        String token = extractToken(request);
         try {
-            if (StringUtils.hasText(token) && tokenProvider.validateToken(token)) {
-                String username = tokenProvider.getUsername(token);
+            String username = authenticatedUsername(request);
+            if (username != null) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
                 UsernamePasswordAuthenticationToken authentication =
@@ -51,6 +53,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /** The user the gateway vouches for, else the subject of a valid bearer token. */
+    private String authenticatedUsername(HttpServletRequest request) {
+        String username = gatewayIdentity.username(request);
+        if (username != null) {
+            return username;
+        }
+        String token = extractToken(request);
+        if (StringUtils.hasText(token) && tokenProvider.validateToken(token)) {
+            return tokenProvider.getUsername(token);
+        }
+        return null;
+    }
+
     private String extractToken(HttpServletRequest request) {
         String bearer = request.getHeader("Authorization");
         if (StringUtils.hasText(bearer) && bearer.startsWith("Bearer ")) {
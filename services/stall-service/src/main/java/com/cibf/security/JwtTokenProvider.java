@@ -1,16 +1,21 @@
 package com.cibf.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
@@ -21,6 +26,23 @@ public class JwtTokenProvider {
     @Value("${app.jwt-expiration-milliseconds}")
     private long jwtExpirationMs;
 
+    /**
+     * Verifier shared by every module when the services run together in the
+     * assembly (one JVM); absent in a standalone deployment.
+     */
+    @Autowired(required = false)
+    private JwtParser sharedJwtParser;
+
+    private volatile JwtParser parser;
+
+    private final Timer validateTimer;
+    private final Timer subjectTimer;
+
+    public JwtTokenProvider(MeterRegistry meterRegistry) {
+        this.validateTimer = verificationTimer(meterRegistry, "validate");
+        this.subjectTimer = verificationTimer(meterRegistry, "subject");
+    }
+
     public String generateToken(Authentication authentication) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + jwtExpirationMs);
@@ -34,24 +56,50 @@ public class JwtTokenProvider {
     }
 
     public String getUsername(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser().parseClaimsJws(token).getBody();
+            return claims.getSubject();
+        } finally {
+            subjectTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     public boolean validateToken(String token) {
-        Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-        return true;
+        long start = System.nanoTime();
+        try {
+            parser().parseClaimsJws(token);
+            return true;
+        } finally {
+            validateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Parser for this service's signing key, built once: the shared verifier
+     * when one is available, otherwise from app.jwt-secret.
+     */
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = sharedJwtParser != null
+                    ? sharedJwtParser
+                    : Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
     }
 
     private Key getSigningKey() {
         byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
-}
\ No newline at end of file
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("jwt.verification")
+                .description("Time spent parsing and verifying JWT signatures")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.cibf.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded ring buffer with many producers (request threads) and one consumer
+ * (the allocation engine thread). Producers claim a slot with a CAS on the
+ * tail and publish it through the slot's sequence; neither side takes a lock.
+ */
+final class CommandRing<T> {
+
+    private final Object[] slots;
+    /** Per slot: position + 1 once written, position + capacity once consumed. */
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // consumer thread only
+
+    CommandRing(int requestedCapacity) {
+        int capacity = Math.max(2, Integer.highestOneBit(requestedCapacity - 1) << 1);
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an item unless the ring is full.
+     */
+    boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long free = published.get(index) - position;
+            if (free < 0) {
+                return false;
+            }
+            if (free == 0 && tail.compareAndSet(position, position + 1)) {
+                slots[index] = item;
+                published.set(index, position + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest item, or returns null if there is none. Consumer thread only.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int index = (int) head & mask;
+        if (published.get(index) != head + 1) {
+            return null;
+        }
+        T item = (T) slots[index];
+        slots[index] = null;
+        published.set(index, head + slots.length);
+        head++;
+        return item;
+    }
+
+    /**
+     * Whether there is nothing to take right now. Consumer thread only.
+     */
+    boolean isEmpty() {
+        return published.get((int) head & mask) != head + 1;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
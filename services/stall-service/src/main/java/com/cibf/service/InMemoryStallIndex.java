@@ -0,0 +1,275 @@
+package com.cibf.service;
+
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps an in-memory index of all stalls in step with the database.
+ *
+ * The index is an immutable {@link Layout} built from every stall, except for the
+ * statuses, which change in place on each {@link StallChangeEvent}. A stall that is
+ * added, removed or changed otherwise rebuilds the layout. Changes made on other
+ * instances only carry the new status, so those stalls are also reloaded from the
+ * database in the background; a missed change reloads everything. Searches read the
+ * current layout without locking.
+ */
+@Slf4j
+abstract class InMemoryStallIndex<L extends InMemoryStallIndex.Layout> {
+
+    private static final long RESYNC = -1;
+    private static final int RETRY_DELAY_SECONDS = 5;
+
+    /** One build of the index; statuses and versions change in place, everything else is rebuilt. */
+    static class Layout {
+        final Stall[] stalls; // sorted by id; as last loaded or saved, their status and version are not kept current
+        final Map<Long, Integer> positions;
+        final AtomicReferenceArray<StallStatus> statuses;
+        final long[] versions; // under the index lock
+
+        Layout(Stall[] stalls) {
+            int n = stalls.length;
+            this.stalls = stalls;
+            this.positions = new HashMap<>(n * 2);
+            this.statuses = new AtomicReferenceArray<>(n);
+            this.versions = new long[n];
+            for (int i = 0; i < n; i++) {
+                positions.put(stalls[i].getId(), i);
+                statuses.set(i, stalls[i].getStatus());
+                versions[i] = stalls[i].getVersion();
+            }
+        }
+
+        int size() {
+            return stalls.length;
+        }
+
+        /** Called under the index lock after statuses[position] changed. */
+        void statusChanged(int position, StallStatus before, StallStatus after) {
+        }
+    }
+
+    private final String name;
+    private final StallSnapshotRepository stallSnapshotRepository;
+    private final BlockingQueue<Long> reloads = new LinkedBlockingQueue<>();
+
+    private volatile L layout;
+    private volatile boolean running;
+    private Thread loader;
+
+    protected InMemoryStallIndex(String name, StallSnapshotRepository stallSnapshotRepository) {
+        this.name = name;
+        this.stallSnapshotRepository = stallSnapshotRepository;
+    }
+
+    /**
+     * Builds the index from stalls sorted by id.
+     */
+    protected abstract L build(Stall[] stalls);
+
+    /**
+     * Whether a newer version of a stall differs only in what changes in place (status,
+     * version, and columns the index does not use); otherwise the layout is rebuilt.
+     * By default the name, size, map position and price are used; override for an
+     * index that uses other columns.
+     */
+    protected boolean changesInPlace(Stall before, Stall after) {
+        return Objects.equals(before.getStallName(), after.getStallName())
+                && before.getSize() == after.getSize()
+                && Objects.equals(before.getLocationX(), after.getLocationX())
+                && Objects.equals(before.getLocationY(), after.getLocationY())
+                && Objects.equals(before.getPrice(), after.getPrice());
+    }
+
+    /**
+     * The current layout; null until the first load.
+     */
+    protected L layout() {
+        return layout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long started = System.nanoTime();
+        replaceAll(stallSnapshotRepository.findAll());
+        running = true;
+        loader = Thread.ofPlatform().name(name + "-loader").daemon().start(this::runLoader);
+        log.info("Stall {} of {} stalls built in {} ms", name, layout.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (loader != null) {
+            loader.interrupt();
+        }
+    }
+
+    @EventListener
+    public void onStallChange(StallChangeEvent event) {
+        if (layout == null) {
+            return; // the first load is still to come
+        }
+        try {
+            switch (event.kind()) {
+                case SAVED -> upsert(List.of(event.stall()));
+                case STATUS -> setStatus(event.stallId(), event.version(), event.status());
+                case REMOTE -> {
+                    setStatus(event.stallId(), event.version(), event.status());
+                    reloads.add(event.stallId());
+                }
+                case DELETED -> remove(Set.of(event.stallId()));
+                case RESYNC -> reloads.add(RESYNC);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not apply stall change {} to the {}; reloading it: {}", event, name, ex.getMessage());
+            reloads.add(RESYNC);
+        }
+    }
+
+    private synchronized void setStatus(Long stallId, long version, StallStatus status) {
+        L current = layout;
+        Integer position = current.positions.get(stallId);
+        if (position == null) {
+            reloads.add(stallId); // created elsewhere
+            return;
+        }
+        if (version > current.versions[position]) {
+            current.versions[position] = version;
+            StallStatus before = current.statuses.getAndSet(position, status);
+            current.statusChanged(position, before, status);
+        }
+    }
+
+    /**
+     * Takes newer versions of the stalls; rebuilds only if a stall is new or changed
+     * in more than its status.
+     */
+    private synchronized void upsert(List<Stall> stalls) {
+        L current = layout;
+        Map<Long, Stall> rebuild = new HashMap<>();
+        for (Stall stall : stalls) {
+            Integer position = current.positions.get(stall.getId());
+            if (position != null && stall.getVersion() < current.versions[position]) {
+                continue;
+            }
+            if (position != null && changesInPlace(current.stalls[position], stall)) {
+                current.stalls[position] = stall;
+                current.versions[position] = stall.getVersion();
+                StallStatus before = current.statuses.getAndSet(position, stall.getStatus());
+                current.statusChanged(position, before, stall.getStatus());
+            } else {
+                rebuild.put(stall.getId(), stall);
+            }
+        }
+        if (rebuild.isEmpty()) {
+            return;
+        }
+        List<Stall> all = new ArrayList<>(current.size() + rebuild.size());
+        for (int i = 0; i < current.size(); i++) {
+            if (!rebuild.containsKey(current.stalls[i].getId())) {
+                all.add(withState(current, i));
+            }
+        }
+        all.addAll(rebuild.values());
+        layout = sortAndBuild(all);
+    }
+
+    private synchronized void remove(Set<Long> stallIds) {
+        L current = layout;
+        if (stallIds.stream().noneMatch(current.positions::containsKey)) {
+            return;
+        }
+        List<Stall> all = new ArrayList<>(current.size());
+        for (int i = 0; i < current.size(); i++) {
+            if (!stallIds.contains(current.stalls[i].getId())) {
+                all.add(withState(current, i));
+            }
+        }
+        layout = sortAndBuild(all);
+    }
+
+    /**
+     * Rebuilds from a full load, keeping any stall state newer than the load's.
+     */
+    private synchronized void replaceAll(List<Stall> loaded) {
+        L current = layout;
+        List<Stall> all = new ArrayList<>(loaded.size());
+        for (Stall stall : loaded) {
+            Integer position = current != null ? current.positions.get(stall.getId()) : null;
+            if (position != null && current.versions[position] > stall.getVersion()) {
+                stall = withState(current, position);
+            }
+            all.add(stall);
+        }
+        layout = sortAndBuild(all);
+    }
+
+    private L sortAndBuild(List<Stall> stalls) {
+        return build(stalls.stream().sorted(Comparator.comparing(Stall::getId)).toArray(Stall[]::new));
+    }
+
+    private void runLoader() {
+        List<Long> drained = new ArrayList<>();
+        while (running) {
+            try {
+                drained.add(reloads.take());
+                reloads.drainTo(drained);
+                if (drained.contains(RESYNC)) {
+                    replaceAll(stallSnapshotRepository.findAll());
+                    log.debug("Stall {} reloaded ({} stalls)", name, layout.size());
+                } else {
+                    Set<Long> ids = new HashSet<>(drained);
+                    List<Stall> stalls = stallSnapshotRepository.findAllById(ids);
+                    upsert(stalls);
+                    stalls.forEach(stall -> ids.remove(stall.getId()));
+                    remove(ids);
+                }
+                drained.clear();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Could not reload {} stall(s) into the {}; retrying in {} s: {}",
+                        drained.size(), name, RETRY_DELAY_SECONDS, ex.getMessage());
+                reloads.addAll(drained);
+                drained.clear();
+                try {
+                    TimeUnit.SECONDS.sleep(RETRY_DELAY_SECONDS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** The stall at position as the layout currently has it (its status and version are kept apart). */
+    private static Stall withState(Layout layout, int position) {
+        Stall stall = layout.stalls[position];
+        StallStatus status = layout.statuses.get(position);
+        long version = layout.versions[position];
+        if (stall.getStatus() == status && stall.getVersion() == version) {
+            return stall;
+        }
+        return new Stall(stall.getId(), stall.getStallName(), stall.getSize(), stall.getDimension(),
+                stall.getLocationX(), stall.getLocationY(), stall.getPrice(), status, stall.getOwner(),
+                stall.getCreatedAt(), stall.getUpdatedAt(), version);
+    }
+}
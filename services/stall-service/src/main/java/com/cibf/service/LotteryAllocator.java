@@ -0,0 +1,148 @@
+package com.cibf.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * The lottery's matching, on plain index arrays (vendors 0..n-1, stalls 0..m-1).
+ *
+ * A seeded shuffle gives every vendor a lottery position. Each pass hands every
+ * vendor at most one more stall by deferred acceptance: vendors propose to their
+ * next choice, a stall keeps the proposer with the best position and turns the
+ * other away, and the turned-away vendors propose again. With one position order
+ * for all stalls the result is that of random serial dictatorship (best position
+ * picks first), so ranking stalls honestly is always the best strategy. The
+ * result does not depend on the order of the proposals, so each round of them
+ * runs as a parallel stream (fork/join) with a CAS per stall. Later passes, up to
+ * each vendor's limit, alternate the order (snake draft) and skip the stalls
+ * already taken.
+ */
+public final class LotteryAllocator {
+
+    public static final int NONE = -1;
+    private static final int EMPTY = Integer.MAX_VALUE;
+
+    /**
+     * Outcome per stall: the vendor it went to (or NONE), that vendor's rank for it
+     * (1 = first choice) and the pass (1-based).
+     */
+    public record Result(int[] vendorOf, int[] rankOf, int[] passOf, int passes) {
+    }
+
+    private LotteryAllocator() {
+    }
+
+    /**
+     * Lottery order from the seed: element i is the vendor drawn i-th.
+     */
+    public static int[] drawOrder(int vendors, long seed) {
+        int[] order = IntStream.range(0, vendors).toArray();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = vendors - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    /**
+     * @param preferences per vendor, stall indexes best first
+     * @param available   stalls that may be assigned
+     * @param order       lottery order, see {@link #drawOrder}
+     * @param limits      per vendor, most stalls it may get
+     */
+    public static Result allocate(int[][] preferences, boolean[] available, int[] order, int[] limits) {
+        int vendors = preferences.length;
+        int stalls = available.length;
+        int[] next = new int[vendors];
+        int[] won = new int[vendors];
+        boolean[] taken = new boolean[stalls];
+        for (int s = 0; s < stalls; s++) {
+            taken[s] = !available[s];
+        }
+        int[] vendorOf = new int[stalls];
+        int[] rankOf = new int[stalls];
+        int[] passOf = new int[stalls];
+        Arrays.fill(vendorOf, NONE);
+
+        int passes = 0;
+        int limit = IntStream.of(limits).max().orElse(0);
+        for (int pass = 1; pass <= limit; pass++) {
+            // Snake draft: the last to pick in one pass picks first in the next
+            int[] byPriority = pass % 2 == 1 ? order : reversed(order);
+            int[] priority = new int[vendors];
+            for (int p = 0; p < vendors; p++) {
+                priority[byPriority[p]] = p;
+            }
+            int[] free = IntStream.range(0, vendors)
+                    .filter(v -> won[v] < limits[v] && next[v] < preferences[v].length)
+                    .toArray();
+            if (free.length == 0) {
+                break;
+            }
+            passes = pass;
+
+            AtomicIntegerArray holder = new AtomicIntegerArray(stalls);
+            for (int s = 0; s < stalls; s++) {
+                holder.set(s, EMPTY);
+            }
+            while (free.length > 0) {
+                free = IntStream.of(free).parallel()
+                        .map(v -> propose(v, preferences[v], next, priority, byPriority, taken, holder))
+                        .filter(displaced -> displaced != NONE)
+                        .toArray();
+            }
+
+            for (int s = 0; s < stalls; s++) {
+                int held = holder.get(s);
+                if (held != EMPTY) {
+                    int v = byPriority[held];
+                    vendorOf[s] = v;
+                    rankOf[s] = next[v]; // the pointer stopped just past the accepted choice
+                    passOf[s] = pass;
+                    taken[s] = true;
+                    won[v]++;
+                }
+            }
+        }
+        return new Result(vendorOf, rankOf, passOf, passes);
+    }
+
+    /**
+     * Vendor v proposes down its list until a stall accepts it or the list runs out.
+     *
+     * @return the vendor it displaced, or NONE
+     */
+    private static int propose(int v, int[] choices, int[] next, int[] priority, int[] byPriority,
+                               boolean[] taken, AtomicIntegerArray holder) {
+        int mine = priority[v];
+        while (next[v] < choices.length) {
+            int s = choices[next[v]++];
+            if (taken[s]) {
+                continue;
+            }
+            while (true) {
+                int current = holder.get(s);
+                if (current < mine) {
+                    break; // held by a better lottery position
+                }
+                if (holder.compareAndSet(s, current, mine)) {
+                    return current == EMPTY ? NONE : byPriority[current];
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private static int[] reversed(int[] order) {
+        int[] reversed = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            reversed[i] = order[order.length - 1 - i];
+        }
+        return reversed;
+    }
+}
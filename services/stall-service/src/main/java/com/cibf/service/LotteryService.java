@@ -0,0 +1,226 @@
+package com.cibf.service;
+
+import com.cibf.config.LotteryProperties;
+import com.cibf.dto.LotteryAllocationDTO;
+import com.cibf.dto.LotteryDrawResultDTO;
+import com.cibf.dto.LotteryRoundRequestDTO;
+import com.cibf.dto.LotteryRoundResponseDTO;
+import com.cibf.entity.LotteryRound;
+import com.cibf.entity.LotteryRound.RoundStatus;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.exception.AllocationRejectedException;
+import com.cibf.exception.ResourceNotFoundException;
+import com.cibf.repository.AllocationEngineLock;
+import com.cibf.repository.LotteryPreferenceRepository;
+import com.cibf.repository.LotteryPreferenceRepository.Allocation;
+import com.cibf.repository.LotteryRoundRepository;
+import com.cibf.repository.StallOwnershipRepository;
+import com.cibf.repository.StallRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lottery allocation for oversubscribed stalls: vendors rank the stalls of a round
+ * while it is open; the draw assigns them fairly (see {@link LotteryAllocator}) and
+ * reserves them all in one transaction. A vendor gets no more stalls than the round
+ * allows nor than its remaining quota ({@link VendorQuotaService}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LotteryService {
+
+    private final LotteryRoundRepository lotteryRoundRepository;
+    private final LotteryPreferenceRepository lotteryPreferenceRepository;
+    private final StallRepository stallRepository;
+    private final StallAllocationEngine stallAllocationEngine;
+    private final AllocationEngineLock allocationEngineLock;
+    private final StallChangeNotifier stallChangeNotifier;
+    private final VendorQuotaService vendorQuotaService;
+    private final StallOwnershipRepository stallOwnershipRepository;
+    private final LotteryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final SecureRandom seeds = new SecureRandom();
+
+    /**
+     * Open a round for the given stalls
+     */
+    @Transactional
+    public LotteryRoundResponseDTO createRound(LotteryRoundRequestDTO requestDTO) {
+        log.info("Creating lottery round: {}", requestDTO.getName());
+
+        if (stallRepository.countByIdIn(requestDTO.getStallIds()) != requestDTO.getStallIds().size()) {
+            throw new ResourceNotFoundException("Unknown stall in " + requestDTO.getStallIds());
+        }
+
+        LotteryRound round = new LotteryRound();
+        round.setName(requestDTO.getName());
+        round.setClosesAt(requestDTO.getClosesAt());
+        round.setMaxStallsPerVendor(requestDTO.getMaxStallsPerVendor());
+        round.setStallIds(new HashSet<>(requestDTO.getStallIds()));
+
+        LotteryRound savedRound = lotteryRoundRepository.save(round);
+        log.info("Lottery round created with ID: {}", savedRound.getId());
+        return new LotteryRoundResponseDTO(savedRound, 0);
+    }
+
+    @Transactional(readOnly = true)
+    public LotteryRoundResponseDTO getRound(Long roundId) {
+        LotteryRound round = findRound(roundId);
+        return new LotteryRoundResponseDTO(round, lotteryPreferenceRepository.countVendors(roundId));
+    }
+
+    /**
+     * Replace the vendor's ranked choices; only while the round is open
+     */
+    @Transactional
+    public List<Long> submitPreferences(Long roundId, String vendor, List<Long> stallIds) {
+        LotteryRound round = findRound(roundId);
+        if (round.getStatus() != RoundStatus.OPEN || !LocalDateTime.now().isBefore(round.getClosesAt())) {
+            throw new AllocationRejectedException("Lottery round " + roundId + " is closed");
+        }
+        if (stallIds.size() > properties.getMaxPreferences()) {
+            throw new AllocationRejectedException("At most " + properties.getMaxPreferences() + " stalls may be ranked");
+        }
+        if (new HashSet<>(stallIds).size() != stallIds.size()) {
+            throw new AllocationRejectedException("A stall may be ranked only once");
+        }
+        if (!round.getStallIds().containsAll(stallIds)) {
+            throw new AllocationRejectedException("Only stalls of lottery round " + roundId + " may be ranked");
+        }
+
+        lotteryPreferenceRepository.replacePreferences(roundId, vendor, stallIds);
+        log.debug("Vendor {} ranked {} stalls in lottery round {}", vendor, stallIds.size(), roundId);
+        return stallIds;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> getPreferences(Long roundId, String vendor) {
+        findRound(roundId);
+        return lotteryPreferenceRepository.findPreferences(roundId, vendor);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LotteryAllocationDTO> getAllocations(Long roundId, String vendor) {
+        findRound(roundId);
+        return lotteryPreferenceRepository.findAllocations(roundId, vendor).stream()
+                .map(allocation -> new LotteryAllocationDTO(allocation.stallId(), allocation.preferenceRank(),
+                        allocation.pass()))
+                .toList();
+    }
+
+    /**
+     * Close the round and allocate its stalls. Stalls no longer AVAILABLE are left out;
+     * the others are locked for the duration of the draw and every assigned stall is
+     * reserved in this one transaction.
+     */
+    @Transactional
+    public LotteryDrawResultDTO draw(Long roundId) {
+        // An engine, here or on another instance, holds the stall statuses in memory and would not
+        // see these writes; the lock also keeps one from starting until the draw commits
+        if (stallAllocationEngine.isRunning() || !allocationEngineLock.lockForDraw()) {
+            throw new AllocationRejectedException(
+                    "Stop the allocation engine (app.allocation.enabled) on every instance before a draw");
+        }
+        Map<String, Long> phases = new LinkedHashMap<>();
+        long started = System.nanoTime();
+
+        // --- load
+        LotteryRound round = lotteryRoundRepository.findByIdForUpdate(roundId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lottery round not found with ID: " + roundId));
+        if (round.getStatus() != RoundStatus.OPEN) {
+            throw new AllocationRejectedException("Lottery round " + roundId + " has already been drawn");
+        }
+        Set<Long> available = lotteryPreferenceRepository.lockAvailableStalls(round.getStallIds());
+        Map<String, List<Long>> ranked = lotteryPreferenceRepository.findAllPreferences(roundId);
+
+        long[] stallIds = round.getStallIds().stream().mapToLong(Long::longValue).sorted().toArray();
+        Map<Long, Integer> stallIndex = new HashMap<>(stallIds.length * 2);
+        boolean[] open = new boolean[stallIds.length];
+        for (int s = 0; s < stallIds.length; s++) {
+            stallIndex.put(stallIds[s], s);
+            open[s] = available.contains(stallIds[s]);
+        }
+        // Sorted, so that the same seed draws the same order again
+        String[] vendors = ranked.keySet().stream().sorted().toArray(String[]::new);
+        // From the database, not the quota counters: reservations made on other instances count too.
+        // Locked until the draw commits, so their reserves elsewhere wait for it
+        Map<String, Integer> reservedBefore = stallOwnershipRepository.lockReserved(List.of(vendors));
+        int[][] preferences = new int[vendors.length][];
+        int[] limits = new int[vendors.length];
+        for (int v = 0; v < vendors.length; v++) {
+            preferences[v] = ranked.get(vendors[v]).stream().mapToInt(stallIndex::get).toArray();
+            int quota = vendorQuotaService.getLimit() - reservedBefore.getOrDefault(vendors[v], 0);
+            limits[v] = Math.max(0, Math.min(round.getMaxStallsPerVendor(), quota));
+        }
+        long phaseStart = lap(phases, "load", started);
+
+        // --- shuffle
+        long seed = seeds.nextLong();
+        int[] order = LotteryAllocator.drawOrder(vendors.length, seed);
+        phaseStart = lap(phases, "shuffle", phaseStart);
+
+        // --- match
+        LotteryAllocator.Result result = LotteryAllocator.allocate(preferences, open, order, limits);
+        phaseStart = lap(phases, "match", phaseStart);
+
+        // --- write
+        List<Allocation> allocations = new ArrayList<>();
+        Map<String, Integer> won = new HashMap<>();
+        int firstChoices = 0;
+        for (int s = 0; s < stallIds.length; s++) {
+            int v = result.vendorOf()[s];
+            if (v == LotteryAllocator.NONE) {
+                continue;
+            }
+            allocations.add(new Allocation(stallIds[s], vendors[v], result.rankOf()[s], result.passOf()[s]));
+            won.merge(vendors[v], 1, Integer::sum);
+            if (result.rankOf()[s] == 1) {
+                firstChoices++;
+            }
+        }
+        Map<Long, Long> versions = lotteryPreferenceRepository.reserveStalls(allocations);
+        stallOwnershipRepository.adjustReserved(won);
+        lotteryPreferenceRepository.insertAllocations(roundId, allocations);
+        round.setStatus(RoundStatus.DRAWN);
+        round.setSeed(seed);
+        round.setDrawnAt(LocalDateTime.now());
+        versions.forEach((stallId, version) -> stallChangeNotifier.stallWritten(stallId, version, StallStatus.RESERVED));
+        won.forEach(vendorQuotaService::reservedAfterCommit);
+        lap(phases, "write", phaseStart);
+        phases.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        log.info("Lottery round {} drawn: {} of {} stalls to {} of {} vendors in {} pass(es), phases {} ms",
+                roundId, allocations.size(), available.size(), won.size(), vendors.length, result.passes(), phases);
+        return new LotteryDrawResultDTO(roundId, seed, vendors.length, available.size(), allocations.size(),
+                won.size(), firstChoices, result.passes(), phases);
+    }
+
+    private LotteryRound findRound(Long roundId) {
+        return lotteryRoundRepository.findById(roundId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lottery round not found with ID: " + roundId));
+    }
+
+    /** Records the phase since phaseStart (ms, and as lottery.draw.phase) and returns now. */
+    private long lap(Map<String, Long> phases, String phase, long phaseStart) {
+        long now = System.nanoTime();
+        phases.put(phase, TimeUnit.NANOSECONDS.toMillis(now - phaseStart));
+        meterRegistry.timer("lottery.draw.phase", "phase", phase).record(now - phaseStart, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+}
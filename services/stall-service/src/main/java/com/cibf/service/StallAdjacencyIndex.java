@@ -0,0 +1,233 @@
+package com.cibf.service;
+
+import com.cibf.config.StallLayoutProperties;
+import com.cibf.dto.StallGroupDTO;
+import com.cibf.dto.StallMapDTO;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallSnapshotRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds groups of adjacent AVAILABLE stalls in memory.
+ *
+ * The layout is a graph over the stalls: two stalls are neighbours when their map
+ * positions are within app.stall-layout.adjacency-distance, found with a grid of
+ * that cell size, so building it is linear in the number of stalls. It follows
+ * the stall changes as described in {@link InMemoryStallIndex}.
+ *
+ * A search grows one group from every eligible stall, each time adding the eligible
+ * neighbour closest to the group's centre, and ranks the distinct groups by how
+ * tightly they sit together, then by total price.
+ */
+@Component
+public class StallAdjacencyIndex extends InMemoryStallIndex<StallAdjacencyIndex.Graph> {
+
+    /** Positions and neighbour lists, by index into the stalls. */
+    static final class Graph extends InMemoryStallIndex.Layout {
+        final double[] x;
+        final double[] y;
+        final int[][] neighbours;
+
+        Graph(Stall[] stalls, double distance) {
+            super(stalls);
+            int n = stalls.length;
+            this.x = new double[n];
+            this.y = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = stalls[i].getLocationX();
+                y[i] = stalls[i].getLocationY();
+            }
+            this.neighbours = neighbours(x, y, distance);
+        }
+    }
+
+    private final StallLayoutProperties properties;
+
+    public StallAdjacencyIndex(StallLayoutProperties properties, StallSnapshotRepository stallSnapshotRepository) {
+        super("layout", stallSnapshotRepository);
+        this.properties = properties;
+    }
+
+    /**
+     * The best groups of count adjacent AVAILABLE stalls, of the given size (any size if null).
+     */
+    public List<StallGroupDTO> findGroups(StallSize size, int count, int limit) {
+        Graph current = layout();
+        if (current == null) {
+            return List.of();
+        }
+        int n = current.size();
+        boolean[] eligible = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            eligible[i] = current.statuses.get(i) == StallStatus.AVAILABLE
+                    && (size == null || current.stalls[i].getSize() == size);
+        }
+
+        Set<List<Integer>> seen = new HashSet<>();
+        List<int[]> groups = new ArrayList<>();
+        List<Double> spreads = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!eligible[i]) {
+                continue;
+            }
+            int[] group = grow(current, eligible, i, count);
+            if (group == null) {
+                continue;
+            }
+            Arrays.sort(group);
+            if (seen.add(Arrays.stream(group).boxed().toList())) {
+                groups.add(group);
+                spreads.add(spread(current, group));
+            }
+        }
+
+        List<StallGroupDTO> ranked = new ArrayList<>(groups.size());
+        for (int g = 0; g < groups.size(); g++) {
+            ranked.add(toGroup(current, groups.get(g), spreads.get(g)));
+        }
+        ranked.sort(Comparator.comparingDouble(StallGroupDTO::getSpread)
+                .thenComparing(StallGroupDTO::getTotalPrice)
+                .thenComparing(group -> group.getStalls().getFirst().getId()));
+        return ranked.subList(0, Math.min(limit, ranked.size()));
+    }
+
+    // ---------------------------------------------------------------- search
+
+    /**
+     * Grows a group from the seed, adding the eligible neighbour closest to its centre.
+     *
+     * @return the group's positions, or null if it cannot reach count stalls
+     */
+    private static int[] grow(Graph layout, boolean[] eligible, int seed, int count) {
+        int[] group = new int[count];
+        group[0] = seed;
+        double sumX = layout.x[seed];
+        double sumY = layout.y[seed];
+        for (int size = 1; size < count; size++) {
+            double centreX = sumX / size;
+            double centreY = sumY / size;
+            int best = -1;
+            double bestDistance = Double.MAX_VALUE;
+            for (int m = 0; m < size; m++) {
+                for (int candidate : layout.neighbours[group[m]]) {
+                    if (!eligible[candidate] || contains(group, size, candidate)) {
+                        continue;
+                    }
+                    double distance = squared(layout.x[candidate] - centreX, layout.y[candidate] - centreY);
+                    if (distance < bestDistance || (distance == bestDistance && candidate < best)) {
+                        best = candidate;
+                        bestDistance = distance;
+                    }
+                }
+            }
+            if (best < 0) {
+                return null;
+            }
+            group[size] = best;
+            sumX += layout.x[best];
+            sumY += layout.y[best];
+        }
+        return group;
+    }
+
+    private static double spread(Graph layout, int[] group) {
+        double centreX = 0;
+        double centreY = 0;
+        for (int i : group) {
+            centreX += layout.x[i];
+            centreY += layout.y[i];
+        }
+        centreX /= group.length;
+        centreY /= group.length;
+        double total = 0;
+        for (int i : group) {
+            total += Math.sqrt(squared(layout.x[i] - centreX, layout.y[i] - centreY));
+        }
+        return Math.round(total / group.length * 100) / 100.0;
+    }
+
+    private static StallGroupDTO toGroup(Graph layout, int[] group, double spread) {
+        List<StallMapDTO> stalls = new ArrayList<>(group.length);
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (int i : group) {
+            Stall stall = layout.stalls[i];
+            stalls.add(new StallMapDTO(stall.getId(), stall.getStallName(), stall.getSize(), stall.getLocationX(),
+                    stall.getLocationY(), layout.statuses.get(i)));
+            totalPrice = totalPrice.add(stall.getPrice());
+        }
+        return new StallGroupDTO(stalls, totalPrice.setScale(2, RoundingMode.HALF_UP), spread);
+    }
+
+    private static boolean contains(int[] group, int size, int candidate) {
+        for (int m = 0; m < size; m++) {
+            if (group[m] == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double squared(double dx, double dy) {
+        return dx * dx + dy * dy;
+    }
+
+    // ---------------------------------------------------------------- layout
+
+    @Override
+    protected Graph build(Stall[] stalls) {
+        return new Graph(stalls, properties.getAdjacencyDistance());
+    }
+
+    /** Neighbour lists from a grid with cells of the adjacency distance: only the 3x3 cells around a stall are checked. */
+    private static int[][] neighbours(double[] x, double[] y, double distance) {
+        int n = x.length;
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            cells.computeIfAbsent(cell(x[i], y[i], distance), key -> new ArrayList<>()).add(i);
+        }
+        double limit = distance * distance;
+        int[][] neighbours = new int[n][];
+        List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            long cellX = (long) Math.floor(x[i] / distance);
+            long cellY = (long) Math.floor(y[i] / distance);
+            for (long dx = -1; dx <= 1; dx++) {
+                for (long dy = -1; dy <= 1; dy++) {
+                    List<Integer> cell = cells.get(key(cellX + dx, cellY + dy));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int j : cell) {
+                        if (j != i && squared(x[j] - x[i], y[j] - y[i]) <= limit) {
+                            found.add(j);
+                        }
+                    }
+                }
+            }
+            neighbours[i] = found.stream().mapToInt(Integer::intValue).toArray();
+            found.clear();
+        }
+        return neighbours;
+    }
+
+    private static long cell(double x, double y, double distance) {
+        return key((long) Math.floor(x / distance), (long) Math.floor(y / distance));
+    }
+
+    private static long key(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xffffffffL);
+    }
+}
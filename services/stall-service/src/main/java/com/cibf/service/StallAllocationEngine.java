@@ -0,0 +1,574 @@
+package com.cibf.service;
+
+import com.cibf.config.AllocationProperties;
+import com.cibf.dto.AllocationResultDTO;
+import com.cibf.dto.StallResponseDTO;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.exception.AllocationRejectedException;
+import com.cibf.exception.AllocationUnavailableException;
+import com.cibf.exception.ResourceNotFoundException;
+import com.cibf.repository.AllocationEngineLock;
+import com.cibf.repository.AllocationJournalRepository;
+import com.cibf.repository.AllocationJournalRepository.Entry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional allocation mode for the opening rush (app.allocation.enabled): every
+ * hold, reserve, release and status change is a command on a {@link CommandRing}
+ * consumed by one engine thread, which owns the allocation state of all stalls in
+ * memory. Commands are therefore applied one at a time in arrival order, without
+ * database row locks; conflicts are decided by the engine and answered at once.
+ *
+ * When idle the engine thread spins, yields, then parks until a producer that puts
+ * a command on the ring unparks it; the journal thread likewise blocks until the
+ * engine hands it a batch, so neither polls on a timer.
+ *
+ * Applied commands go to a second thread that group-commits them: each batch is one
+ * transaction inserting the journal rows and updating stalls.status and owner. A
+ * caller gets its answer once its command is in a committed batch. On startup the
+ * engine is rebuilt from stalls.status and owner plus the latest journal entry per
+ * stall (who holds it). Reserves count against the vendor's quota
+ * ({@link VendorQuotaService}), taken on the engine thread before the stall changes.
+ *
+ * The engine is the only writer of stall statuses while it runs, so only one
+ * stall-service instance may run it: it starts only if it can take the
+ * {@link AllocationEngineLock}, and stops if it loses it. Lottery draws take the
+ * same lock, so none runs while any instance runs the engine.
+ */
+@Component
+@Slf4j
+public class StallAllocationEngine {
+
+    private static final int JOURNAL_QUEUE_BATCHES = 64;
+    private static final int IDLE_SPINS = 100;
+    private static final int IDLE_YIELDS = 200;
+    /** Handed to the journal thread when the engine stops: write what is left, then stop. */
+    private static final List<Applied> END_OF_JOURNAL = List.of();
+
+    public enum CommandType {
+        HOLD, RESERVE, RELEASE, STATUS, ADD, REMOVE
+    }
+
+    private record Command(CommandType type, long stallId, String vendor, StallStatus status,
+                           CompletableFuture<AllocationResultDTO> result) {
+    }
+
+    /** An applied command waiting for its journal batch to commit. */
+    private record Applied(Entry entry, CompletableFuture<AllocationResultDTO> result) {
+    }
+
+    /** Allocation state of one stall; engine thread only. */
+    private static final class Slot {
+        StallStatus status;
+        String holder;      // holding vendor (while holdExpiresAt is ahead) or reserving vendor
+        long holdExpiresAt; // epoch ms, 0 = not held
+
+        Slot(StallStatus status) {
+            this.status = status;
+        }
+    }
+
+    private final AllocationProperties properties;
+    private final AllocationJournalRepository journalRepository;
+    private final AllocationEngineLock engineLock;
+    private final StallChangeNotifier stallChangeNotifier;
+    private final VendorQuotaService vendorQuotaService;
+    private final CommandRing<Command> ring;
+    private final BlockingQueue<List<Applied>> journalQueue = new ArrayBlockingQueue<>(JOURNAL_QUEUE_BATCHES);
+    private final Map<CommandType, Counter> applied = new EnumMap<>(CommandType.class);
+    private final Map<CommandType, Counter> rejected = new EnumMap<>(CommandType.class);
+    private final Counter overloaded;
+    private final DistributionSummary batchSize;
+    private final Timer journalWrite;
+
+    // Engine thread only (built before it starts)
+    private final Map<Long, Slot> stalls = new HashMap<>();
+    private long sequence;
+
+    private volatile boolean running;
+    private volatile boolean engineParked;
+    private Thread engine;
+    private Thread journal;
+    private Thread guard;
+
+    public StallAllocationEngine(AllocationProperties properties, AllocationJournalRepository journalRepository,
+                                 AllocationEngineLock engineLock, StallChangeNotifier stallChangeNotifier,
+                                 VendorQuotaService vendorQuotaService, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.journalRepository = journalRepository;
+        this.engineLock = engineLock;
+        this.stallChangeNotifier = stallChangeNotifier;
+        this.vendorQuotaService = vendorQuotaService;
+        this.ring = new CommandRing<>(properties.getRingSize());
+        for (CommandType type : CommandType.values()) {
+            applied.put(type, commands(meterRegistry, type, "applied"));
+            rejected.put(type, commands(meterRegistry, type, "rejected"));
+        }
+        this.overloaded = Counter.builder("allocation.commands.overloaded")
+                .description("Allocation commands refused because the ring buffer was full")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("allocation.journal.batch.size")
+                .description("Journal entries committed per transaction")
+                .register(meterRegistry);
+        this.journalWrite = Timer.builder("allocation.journal.write")
+                .description("Time to commit one journal batch")
+                .register(meterRegistry);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public AllocationResultDTO hold(Long stallId, String vendor) {
+        return submit(CommandType.HOLD, stallId, vendor, null);
+    }
+
+    public AllocationResultDTO reserve(Long stallId, String vendor) {
+        return submit(CommandType.RESERVE, stallId, vendor, null);
+    }
+
+    public AllocationResultDTO release(Long stallId, String vendor) {
+        return submit(CommandType.RELEASE, stallId, vendor, null);
+    }
+
+    /**
+     * Sets a stall's status regardless of holds and reservations (employee action).
+     */
+    public AllocationResultDTO setStatus(Long stallId, StallStatus status) {
+        return submit(CommandType.STATUS, stallId, null, status);
+    }
+
+    /**
+     * Makes a stall created through JPA known to the engine once the transaction commits.
+     */
+    public void stallAdded(Stall stall) {
+        afterCommit(() -> enqueue(CommandType.ADD, stall.getId(), null, stall.getStatus()));
+    }
+
+    /**
+     * Forgets a deleted stall once the transaction commits.
+     */
+    public void stallRemoved(Long stallId) {
+        afterCommit(() -> enqueue(CommandType.REMOVE, stallId, null, null));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        if (!engineLock.acquire()) {
+            log.error("Stall allocation engine not started: another instance runs it or a lottery draw is "
+                    + "in progress; reserve and release go straight to the database");
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            engineLock.release();
+            throw ex;
+        }
+        running = true;
+        engine = Thread.ofPlatform().name("stall-allocation-engine").daemon().start(this::runEngine);
+        journal = Thread.ofPlatform().name("stall-allocation-journal").daemon().start(this::runJournal);
+        guard = Thread.ofPlatform().name("stall-allocation-guard").daemon().start(this::runGuard);
+        log.info("Stall allocation engine started with {} stalls from journal #{} in {} ms (ring of {})",
+                stalls.size(), sequence, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                ring.capacity());
+    }
+
+    /**
+     * Stops taking commands, applies those already in the ring and commits them.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(engine);
+        if (Thread.currentThread() != guard) {
+            guard.interrupt();
+        }
+        engine.join(properties.getCommandTimeout().toMillis());
+        journal.join(properties.getCommandTimeout().toMillis());
+        engineLock.release();
+    }
+
+    /**
+     * Stops the engine once its database lock is gone (its connection was lost): a
+     * draw or another instance's engine may then change stalls behind its back.
+     */
+    private void runGuard() {
+        while (running) {
+            try {
+                Thread.sleep(properties.getLockCheckInterval());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (running && !engineLock.isHeld()) {
+                log.error("Stall allocation engine lost its database lock; stopping it, reserve and release "
+                        + "go straight to the database until it is restarted");
+                try {
+                    stop();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void rebuild() {
+        journalRepository.findOwnerships().forEach((id, ownership) -> {
+            Slot slot = new Slot(ownership.status());
+            slot.holder = ownership.owner();
+            stalls.put(id, slot);
+        });
+        long now = System.currentTimeMillis();
+        for (Entry entry : journalRepository.findLatestEntries()) {
+            Slot slot = stalls.get(entry.stallId());
+            if (slot == null || slot.status != StallStatus.AVAILABLE || entry.status() != StallStatus.AVAILABLE) {
+                continue; // deleted, changed while the engine was off, or not held
+            }
+            if (entry.holdExpiresAt() != null && entry.holdExpiresAt().toEpochMilli() > now) {
+                slot.holder = entry.holder();
+                slot.holdExpiresAt = entry.holdExpiresAt().toEpochMilli();
+            }
+        }
+        sequence = journalRepository.findLastSequence();
+    }
+
+    private AllocationResultDTO submit(CommandType type, Long stallId, String vendor, StallStatus status) {
+        CompletableFuture<AllocationResultDTO> result = enqueue(type, stallId, vendor, status);
+        try {
+            return result.get(properties.getCommandTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new AllocationUnavailableException("Allocation of stall " + stallId
+                    + " was not confirmed in time; check the stall before retrying");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AllocationUnavailableException("Interrupted while waiting for stall " + stallId);
+        }
+    }
+
+    private CompletableFuture<AllocationResultDTO> enqueue(CommandType type, Long stallId, String vendor,
+                                                           StallStatus status) {
+        if (!running) {
+            throw new AllocationUnavailableException("Stall allocation is not open");
+        }
+        Command command = new Command(type, stallId, vendor, status, new CompletableFuture<>());
+        if (!ring.offer(command)) {
+            overloaded.increment();
+            throw new AllocationUnavailableException("Too many allocation requests; try again shortly");
+        }
+        if (engineParked) {
+            LockSupport.unpark(engine);
+        }
+        return command.result();
+    }
+
+    // ---------------------------------------------------------------- engine thread
+
+    private void runEngine() {
+        List<Applied> batch = new ArrayList<>();
+        int idle = 0;
+        while (true) {
+            Command command = ring.poll();
+            if (command == null) {
+                if (!batch.isEmpty()) {
+                    handOff(batch);
+                    batch = new ArrayList<>();
+                }
+                if (!running) {
+                    handOff(END_OF_JOURNAL);
+                    return;
+                }
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            try {
+                Applied change = apply(command);
+                if (change != null) {
+                    batch.add(change);
+                    if (batch.size() >= properties.getJournalBatchSize()) {
+                        handOff(batch);
+                        batch = new ArrayList<>();
+                    }
+                }
+            } catch (RuntimeException ex) {
+                rejected.get(command.type()).increment();
+                command.result().completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * Applies one command to the in-memory state.
+     *
+     * @return the change to journal, or null if nothing is to be written
+     */
+    private Applied apply(Command command) {
+        long id = command.stallId();
+        if (command.type() == CommandType.ADD) {
+            stalls.putIfAbsent(id, new Slot(command.status()));
+            command.result().complete(null);
+            return null;
+        }
+        if (command.type() == CommandType.REMOVE) {
+            stalls.remove(id);
+            command.result().complete(null);
+            return null;
+        }
+        Slot slot = stalls.get(id);
+        if (slot == null) {
+            throw new ResourceNotFoundException("Stall not found with ID: " + id);
+        }
+        long now = System.currentTimeMillis();
+        String vendor = command.vendor();
+        String holder = holder(slot, now);
+        StallStatus before = slot.status;
+        String owner = slot.status == StallStatus.RESERVED ? slot.holder : null;
+        switch (command.type()) {
+            case HOLD -> {
+                if (slot.status != StallStatus.AVAILABLE) {
+                    throw new AllocationRejectedException("Stall " + id + " is not available");
+                }
+                if (holder != null && !holder.equals(vendor)) {
+                    throw new AllocationRejectedException("Stall " + id + " is held by another vendor");
+                }
+                slot.holder = vendor;
+                slot.holdExpiresAt = now + properties.getHoldDuration().toMillis();
+            }
+            case RESERVE -> {
+                if (slot.status == StallStatus.RESERVED && vendor.equals(holder)) {
+                    throw new AllocationRejectedException("Stall " + id + " is already reserved by you");
+                }
+                if (slot.status != StallStatus.AVAILABLE) {
+                    throw new AllocationRejectedException("Stall " + id + " is not available");
+                }
+                if (holder != null && !holder.equals(vendor)) {
+                    throw new AllocationRejectedException("Stall " + id + " is held by another vendor");
+                }
+                vendorQuotaService.acquire(vendor);
+                // Made as soon as it is applied: the journal cannot turn it down, only retry it
+                vendorQuotaService.confirm(vendor);
+                slot.status = StallStatus.RESERVED;
+                slot.holder = vendor;
+                slot.holdExpiresAt = 0;
+            }
+            case RELEASE -> {
+                if (holder == null || !holder.equals(vendor)) {
+                    throw new AllocationRejectedException("Stall " + id + " is not held or reserved by you");
+                }
+                if (slot.status == StallStatus.RESERVED) {
+                    slot.status = StallStatus.AVAILABLE;
+                    vendorQuotaService.release(vendor);
+                }
+                slot.holder = null;
+                slot.holdExpiresAt = 0;
+            }
+            case STATUS -> {
+                if (slot.status == StallStatus.RESERVED && command.status() == StallStatus.RESERVED) {
+                    break; // keeps its owner
+                }
+                if (slot.status == StallStatus.RESERVED && slot.holder != null) {
+                    vendorQuotaService.release(slot.holder);
+                }
+                slot.status = command.status();
+                slot.holder = null;
+                slot.holdExpiresAt = 0;
+            }
+            default -> throw new IllegalStateException("Unexpected command " + command.type());
+        }
+        applied.get(command.type()).increment();
+        Instant holdExpiresAt = slot.holdExpiresAt != 0 ? Instant.ofEpochMilli(slot.holdExpiresAt) : null;
+        Entry entry = new Entry(++sequence, id, command.type().name(), slot.status, slot.holder,
+                holdExpiresAt, Instant.ofEpochMilli(now), slot.status != before, owner);
+        return new Applied(entry, command.result());
+    }
+
+    /** Who holds or reserved the stall right now; expired holds count as none. */
+    private static String holder(Slot slot, long now) {
+        return switch (slot.status) {
+            case RESERVED -> slot.holder;
+            case AVAILABLE -> slot.holdExpiresAt > now ? slot.holder : null;
+            default -> null;
+        };
+    }
+
+    private void handOff(List<Applied> batch) {
+        try {
+            // Blocks while the journal is a full queue behind; the ring then fills up and callers get 503
+            journalQueue.put(batch);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            batch.forEach(change -> change.result().completeExceptionally(
+                    new AllocationUnavailableException("Stall allocation is shutting down")));
+        }
+    }
+
+    /**
+     * Spin, then yield, then park until a producer or {@link #stop()} unparks the engine:
+     * a burst is picked up without a context switch, and a quiet engine costs nothing.
+     */
+    private int idle(int idle) {
+        if (idle < IDLE_SPINS) {
+            Thread.onSpinWait();
+        } else if (idle < IDLE_YIELDS) {
+            Thread.yield();
+        } else {
+            // Announce the park before the last look at the ring; a producer publishes before
+            // it reads the flag, so one of the two always sees the other
+            engineParked = true;
+            if (running && ring.isEmpty()) {
+                LockSupport.park(this);
+            }
+            engineParked = false;
+        }
+        return idle + 1;
+    }
+
+    // ---------------------------------------------------------------- journal thread
+
+    private void runJournal() {
+        List<Applied> batch = new ArrayList<>();
+        List<List<Applied>> drained = new ArrayList<>();
+        boolean ended = false;
+        while (!ended) {
+            List<Applied> first;
+            try {
+                first = journalQueue.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            ended = first == END_OF_JOURNAL;
+            // Group commit: everything the engine applied while the previous batch was being written
+            batch.addAll(first);
+            while (!ended && batch.size() < properties.getJournalBatchSize()
+                    && journalQueue.drainTo(drained, 1) > 0) {
+                List<Applied> next = drained.removeFirst();
+                ended = next == END_OF_JOURNAL;
+                batch.addAll(next);
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+            batch = new ArrayList<>();
+        }
+    }
+
+    private void write(List<Applied> batch) {
+        List<Entry> entries = batch.stream().map(Applied::entry).toList();
+        while (true) {
+            try {
+                long started = System.nanoTime();
+                Map<Long, Stall> written = journalRepository.append(entries);
+                journalWrite.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                batchSize.record(entries.size());
+                published(batch, written);
+                return;
+            } catch (RuntimeException ex) {
+                // The engine has already applied these; they must reach the journal, so keep trying
+                log.warn("Could not write {} allocation journal entries (#{}..#{}); retrying in {}: {}",
+                        entries.size(), entries.getFirst().sequence(), entries.getLast().sequence(),
+                        properties.getJournalRetryDelay(), ex.getMessage());
+                try {
+                    Thread.sleep(properties.getJournalRetryDelay());
+                } catch (InterruptedException interrupted) {
+                    batch.forEach(change -> change.result().completeExceptionally(
+                            new AllocationUnavailableException("Stall allocation is shutting down")));
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The batch is committed: drop the changed stalls from the caches, tell the other
+     * instances, and answer the callers. The last status change of each stall in the
+     * batch is answered with the row as written; earlier ones were overwritten in it.
+     */
+    private void published(List<Applied> batch, Map<Long, Stall> written) {
+        Map<Long, Entry> latest = new HashMap<>();
+        for (Applied change : batch) {
+            Entry entry = change.entry();
+            if (entry.statusChanged()) {
+                latest.put(entry.stallId(), entry);
+            }
+        }
+        for (Applied change : batch) {
+            Entry entry = change.entry();
+            Stall stall = latest.get(entry.stallId()) == entry ? written.get(entry.stallId()) : null;
+            change.result().complete(new AllocationResultDTO(entry.stallId(), entry.status(), entry.holder(),
+                    entry.holdExpiresAt(), entry.sequence(), stall != null ? new StallResponseDTO(stall) : null));
+        }
+        latest.forEach((stallId, entry) -> {
+            Stall stall = written.get(stallId);
+            if (stall != null) {
+                stallChangeNotifier.stallWritten(stallId, stall.getVersion(), entry.status());
+            }
+        });
+    }
+
+    // ----------------------------------------------------------------
+
+    private void afterCommit(Runnable action) {
+        if (!running) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (AllocationUnavailableException ex) {
+                    log.warn("Allocation engine missed a stall change: {}", ex.getMessage());
+                }
+            }
+        });
+    }
+
+    private static Counter commands(MeterRegistry meterRegistry, CommandType type, String outcome) {
+        return Counter.builder("allocation.commands")
+                .description("Allocation commands by type and outcome")
+                .tag("type", type.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
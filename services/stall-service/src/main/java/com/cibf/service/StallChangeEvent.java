@@ -0,0 +1,28 @@
+package com.cibf.service;
+
+import com.cibf.entity.Stall;
+
+/**
+ * A committed stall change, published in-process by {@link StallChangeNotifier} for
+ * the in-memory stall indexes. Listeners run on the publishing thread (after the
+ * commit, or the change listener thread for other instances' changes) and must
+ * not throw.
+ *
+ * @param stall   the saved entity (SAVED only)
+ * @param status  the new status (SAVED, STATUS, REMOTE)
+ * @param version the stall's version after the change; -1 for DELETED and RESYNC
+ */
+public record StallChangeEvent(Kind kind, Long stallId, long version, Stall.StallStatus status, Stall stall) {
+
+    public enum Kind {
+        /** Created or updated through JPA on this instance. */
+        SAVED,
+        /** Status (and owner) updated with plain JDBC on this instance; nothing else changed. */
+        STATUS,
+        /** Changed on another instance: the status is known, other columns may have changed too. */
+        REMOTE,
+        DELETED,
+        /** Changes from other instances were missed: everything may have changed. */
+        RESYNC
+    }
+}
@@ -0,0 +1,369 @@
+package com.cibf.service;
+
+import com.cibf.config.StallChangeProperties;
+import com.cibf.entity.Stall;
+import com.cibf.repository.StallCacheLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the in-process stall caches (Hibernate second-level cache: stall entities and
+ * listing results) of horizontally scaled stall-service instances in step, over
+ * PostgreSQL LISTEN/NOTIFY on two dedicated connections (one to send, one to listen).
+ *
+ * After a stall write commits, the writing instance sends
+ * {@code instance:seq:id:version:status} on the channel and every other instance
+ * evicts that stall and the cached listings, through {@link StallCacheLock} so that
+ * a load under way there cannot put the old row back. seq numbers the messages of one
+ * instance; heartbeats ({@code instance:seq}) repeat the last one. A receiver that
+ * sees seq jump has missed a change and drops every cached stall, and so does
+ * each (re)connect of the listening connection, since NOTIFY is not queued for
+ * absent listeners. Only a crash between commit and NOTIFY goes unnoticed, until
+ * the cache entry's ttl runs out.
+ *
+ * Committing threads only queue their notification (app.stall-changes.send-queue-capacity);
+ * a sender thread numbers and sends them, and sends the heartbeats when idle, so a
+ * slow or dead send connection never holds up a commit. If the queue overflows,
+ * the dropped changes still take a message number, and the gap makes the peers resync.
+ *
+ * Every change, local or from another instance, is also published in-process as a
+ * {@link StallChangeEvent}, whether or not the notifications are enabled.
+ */
+@Component
+@Slf4j
+public class StallChangeNotifier {
+
+    private static final String DELETED = "DELETED";
+
+    private final StallChangeProperties properties;
+    private final StallCacheLock stallCacheLock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final Counter published;
+    private final Counter received;
+    private final Counter dropped;
+
+    // Sending side; numbers and the connection are only touched by the sender thread
+    private final BlockingQueue<String> outbox;
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private long sequence;
+    private Connection sendConnection;
+    private Thread sender;
+
+    // Listening side, only touched by the listener thread
+    private final Map<String, Peer> peers = new HashMap<>();
+    private long lastReceivedAt;
+    private volatile boolean running;
+    private Thread listener;
+
+    /** Last message number seen from another instance. */
+    private record Peer(long sequence, long seenAt) {
+    }
+
+    public StallChangeNotifier(StallChangeProperties properties, StallCacheLock stallCacheLock,
+                               ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                               @Value("${spring.datasource.url}") String url,
+                               @Value("${spring.datasource.username:}") String username,
+                               @Value("${spring.datasource.password:}") String password) {
+        this.properties = properties;
+        this.stallCacheLock = stallCacheLock;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.published = Counter.builder("stall.changes.published")
+                .description("Stall change notifications sent to the other instances")
+                .register(meterRegistry);
+        this.received = Counter.builder("stall.changes.received")
+                .description("Stall change notifications from other instances applied to the local cache")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("stall.changes.dropped")
+                .description("Stall change notifications dropped because the send queue was full")
+                .register(meterRegistry);
+        this.outbox = new ArrayBlockingQueue<>(properties.getSendQueueCapacity());
+    }
+
+    /**
+     * Announces a created or updated stall once the current transaction commits.
+     */
+    public void stallChanged(Stall stall) {
+        // Read after commit: Hibernate increments the version when it flushes
+        afterCommit(() -> eventPublisher.publishEvent(new StallChangeEvent(StallChangeEvent.Kind.SAVED,
+                stall.getId(), stall.getVersion(), stall.getStatus(), stall)));
+        publishAfterCommit(() -> stall.getId() + ":" + stall.getVersion() + ":" + stall.getStatus());
+    }
+
+    /**
+     * For a stall row updated with plain JDBC, which Hibernate does not see (its writer
+     * keeps it out of this instance's cache with {@link StallCacheLock}): announces it
+     * in-process and to the other instances once the current transaction commits.
+     */
+    public void stallWritten(Long stallId, long version, Stall.StallStatus status) {
+        afterCommit(() -> eventPublisher.publishEvent(new StallChangeEvent(StallChangeEvent.Kind.STATUS, stallId,
+                version, status, null)));
+        publishAfterCommit(() -> stallId + ":" + version + ":" + status);
+    }
+
+    /**
+     * Announces a deleted stall once the current transaction commits (version -1: none left).
+     */
+    public void stallDeleted(Long stallId) {
+        afterCommit(() -> eventPublisher.publishEvent(new StallChangeEvent(StallChangeEvent.Kind.DELETED,
+                stallId, -1, null, null)));
+        publishAfterCommit(() -> stallId + ":-1:" + DELETED);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        if (!properties.getChannel().matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("app.stall-changes.channel must be a lower-case identifier: "
+                    + properties.getChannel());
+        }
+        running = true;
+        listener = Thread.ofPlatform().name("stall-change-listener").daemon().start(this::listen);
+        sender = Thread.ofPlatform().name("stall-change-sender").daemon().start(this::runSender);
+        log.info("Stall change notifications on channel {} (instance {})", properties.getChannel(), instanceId);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (sender != null) {
+            sender.interrupt();
+            sender.join(properties.getSocketTimeout().toMillis());
+        }
+        if (listener != null) {
+            listener.join(properties.getPollInterval().toMillis() * 2);
+        }
+    }
+
+    private void publishAfterCommit(Supplier<String> change) {
+        if (properties.isEnabled()) {
+            afterCommit(() -> enqueue(change.get()));
+        }
+    }
+
+    private void enqueue(String change) {
+        if (!outbox.offer(change)) {
+            overflowed.set(true);
+            dropped.increment();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void runSender() {
+        try {
+            while (running) {
+                String change = outbox.poll(properties.getHeartbeatInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (overflowed.getAndSet(false)) {
+                    sequence++; // stands for the dropped changes
+                }
+                if (change == null) {
+                    sendNotification(instanceId + ":" + sequence);
+                    continue;
+                }
+                // Numbered even if the send fails: the gap tells the peers they missed something
+                sequence++;
+                if (sendNotification(instanceId + ":" + sequence + ":" + change)) {
+                    published.increment();
+                }
+            }
+        } catch (InterruptedException ex) {
+            // stopping
+        } finally {
+            closeQuietly(sendConnection);
+            sendConnection = null;
+        }
+    }
+
+    private boolean sendNotification(String payload) {
+        try {
+            if (sendConnection == null || sendConnection.isClosed()) {
+                sendConnection = connect();
+            }
+            try (PreparedStatement statement = sendConnection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, properties.getChannel());
+                statement.setString(2, payload);
+                statement.execute();
+            }
+            return true;
+        } catch (SQLException ex) {
+            log.warn("Could not send stall change notification {}: {}", payload, ex.getMessage());
+            closeQuietly(sendConnection);
+            sendConnection = null;
+            return false;
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                resync("connect");
+                peers.clear();
+                lastReceivedAt = System.nanoTime();
+                long nextHeartbeat = lastReceivedAt;
+                while (running) {
+                    PGNotification[] notifications =
+                            pgConnection.getNotifications((int) properties.getPollInterval().toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                    long now = System.nanoTime();
+                    if (now - nextHeartbeat >= 0) {
+                        checkSilence(now);
+                        nextHeartbeat = now + properties.getHeartbeatInterval().toNanos();
+                    }
+                }
+            } catch (SQLException ex) {
+                if (running) {
+                    log.warn("Stall change listener disconnected ({}); reconnecting in {}",
+                            ex.getMessage(), properties.getReconnectDelay());
+                    pause();
+                }
+            } catch (RuntimeException ex) {
+                log.error("Stall change listener failed; reconnecting in {}", properties.getReconnectDelay(), ex);
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Our own heartbeats come back on the listening connection too; if even those stop,
+     * the connection is dead without the socket having noticed.
+     */
+    private void checkSilence(long now) throws SQLException {
+        long heartbeat = properties.getHeartbeatInterval().toNanos();
+        if (now - lastReceivedAt > 3 * heartbeat) {
+            throw new SQLException("no notifications for "
+                    + TimeUnit.NANOSECONDS.toSeconds(now - lastReceivedAt) + " s");
+        }
+        peers.values().removeIf(peer -> now - peer.seenAt() > 3 * heartbeat);
+    }
+
+    private void receive(String payload) {
+        long now = System.nanoTime();
+        lastReceivedAt = now;
+        String[] fields = payload.split(":");
+        long sequence;
+        try {
+            sequence = Long.parseLong(fields[1]);
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed stall change notification: {}", payload);
+            return;
+        }
+        String instance = fields[0];
+        if (instance.equals(instanceId)) {
+            return;
+        }
+        boolean change = fields.length == 5;
+        Peer previous = peers.get(instance);
+        peers.put(instance, new Peer(previous == null ? sequence : Math.max(previous.sequence(), sequence), now));
+        // Changes are numbered consecutively; a heartbeat repeats the number of the last change
+        long expected = previous == null ? sequence : previous.sequence() + (change ? 1 : 0);
+        if (sequence > expected) {
+            log.warn("Missed stall changes from instance {} (expected #{}, got #{})", instance, expected, sequence);
+            resync("gap");
+        } else if (change && sequence == expected) {
+            apply(Long.parseLong(fields[2]), fields[3], fields[4]);
+        }
+    }
+
+    private void apply(Long stallId, String version, String status) {
+        stallCacheLock.invalidate(stallId);
+        eventPublisher.publishEvent(DELETED.equals(status)
+                ? new StallChangeEvent(StallChangeEvent.Kind.DELETED, stallId, -1, null, null)
+                : new StallChangeEvent(StallChangeEvent.Kind.REMOTE, stallId, Long.parseLong(version),
+                        Stall.StallStatus.valueOf(status), null));
+        received.increment();
+        log.debug("Stall {} changed on another instance (version {}, {})", stallId, version, status);
+    }
+
+    private void resync(String reason) {
+        stallCacheLock.invalidateAll();
+        eventPublisher.publishEvent(new StallChangeEvent(StallChangeEvent.Kind.RESYNC, null, -1, null, null));
+        meterRegistry.counter("stall.changes.resyncs", "reason", reason).increment();
+        log.info("Dropped all cached stalls ({})", reason);
+    }
+
+    private Connection connect() throws SQLException {
+        Properties info = new Properties();
+        info.setProperty("user", username);
+        info.setProperty("password", password);
+        // PgJDBC takes both in seconds
+        info.setProperty("connectTimeout", String.valueOf(Math.max(1, properties.getConnectTimeout().toSeconds())));
+        info.setProperty("socketTimeout", String.valueOf(Math.max(1, properties.getSocketTimeout().toSeconds())));
+        return DriverManager.getConnection(url, info);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getReconnectDelay());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            // already broken
+        }
+    }
+}
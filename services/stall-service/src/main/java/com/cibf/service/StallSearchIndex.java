@@ -0,0 +1,330 @@
+package com.cibf.service;
+
+import com.cibf.config.StallSearchProperties;
+import com.cibf.dto.StallResponseDTO;
+import com.cibf.dto.StallSearchRequestDTO;
+import com.cibf.dto.StallSearchRequestDTO.SortField;
+import com.cibf.dto.StallSearchResultDTO;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallSnapshotRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Answers stall searches on any combination of criteria from memory, column by column.
+ *
+ * Stalls are numbered by id; each criterion value has a bitset over those numbers
+ * (one per size, status and hall), prices are kept in a sorted array whose ranges
+ * are found by binary search, and stall names and prices also have a precomputed
+ * order for sorting. A search ORs the bitsets of the values asked for within one
+ * criterion, ANDs the criteria word by word, checks the distance only for the stalls
+ * left, and walks the requested order to cut out one page. Only the status bitsets
+ * change in place; the index follows the stall changes as described in
+ * {@link InMemoryStallIndex}.
+ */
+@Component
+public class StallSearchIndex extends InMemoryStallIndex<StallSearchIndex.Columns> {
+
+    /** The stall table as columns and bitsets, by position (stalls sorted by id). */
+    static final class Columns extends InMemoryStallIndex.Layout {
+        final int words;
+        final long[] all;
+        final long[][] bySize;
+        final AtomicLongArray[] byStatus; // written under the index lock only
+        final Map<String, long[]> byHall;
+        final double[] x;
+        final double[] y;
+        final long[] priceCents;
+        final int[] byPrice;              // positions in price order
+        final long[] sortedPriceCents;    // priceCents in that order, for binary search
+        final int[] byName;               // positions in stall name order
+
+        Columns(Stall[] stalls) {
+            super(stalls);
+            int n = stalls.length;
+            this.words = (n + 63) >>> 6;
+            this.all = new long[words];
+            this.bySize = new long[StallSize.values().length][words];
+            this.byStatus = new AtomicLongArray[StallStatus.values().length];
+            for (int s = 0; s < byStatus.length; s++) {
+                byStatus[s] = new AtomicLongArray(words);
+            }
+            this.byHall = new HashMap<>();
+            this.x = new double[n];
+            this.y = new double[n];
+            this.priceCents = new long[n];
+            for (int i = 0; i < n; i++) {
+                Stall stall = stalls[i];
+                set(all, i);
+                set(bySize[stall.getSize().ordinal()], i);
+                set(byStatus[stall.getStatus().ordinal()], i);
+                set(byHall.computeIfAbsent(hallOf(stall.getStallName()), hall -> new long[words]), i);
+                x[i] = stall.getLocationX();
+                y[i] = stall.getLocationY();
+                priceCents[i] = cents(stall.getPrice(), RoundingMode.HALF_UP);
+            }
+            this.byPrice = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.<Integer>comparingLong(i -> priceCents[i]).thenComparingInt(i -> i))
+                    .mapToInt(Integer::intValue).toArray();
+            this.sortedPriceCents = new long[n];
+            for (int k = 0; k < n; k++) {
+                sortedPriceCents[k] = priceCents[byPrice[k]];
+            }
+            this.byName = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.<Integer, String>comparing(i -> stalls[i].getStallName()).thenComparingInt(i -> i))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+
+        @Override
+        void statusChanged(int position, StallStatus before, StallStatus after) {
+            clear(byStatus[before.ordinal()], position);
+            set(byStatus[after.ordinal()], position);
+        }
+    }
+
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    private final StallSearchProperties properties;
+    private final Timer searches;
+
+    public StallSearchIndex(StallSearchProperties properties, StallSnapshotRepository stallSnapshotRepository,
+                            MeterRegistry meterRegistry) {
+        super("search index", stallSnapshotRepository);
+        this.properties = properties;
+        this.searches = Timer.builder("stall.search")
+                .description("Time to evaluate one stall search in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the request can be answered: a page within app.stall-search.max-page-size,
+     * and nearX, nearY and radius all or none (distance order needs them).
+     */
+    public boolean accepts(StallSearchRequestDTO request) {
+        boolean near = request.getNearX() != null && request.getNearY() != null && request.getRadius() != null;
+        boolean partlyNear = request.getNearX() != null || request.getNearY() != null || request.getRadius() != null;
+        return request.getPage() >= 0
+                && request.getPageSize() >= 1 && request.getPageSize() <= properties.getMaxPageSize()
+                && near == partlyNear
+                && (!near || request.getRadius() >= 0)
+                && (near || request.getSort() != SortField.DISTANCE);
+    }
+
+    public StallSearchResultDTO search(StallSearchRequestDTO request) {
+        long started = System.nanoTime();
+        Columns columns = layout();
+        if (columns == null) {
+            return new StallSearchResultDTO(List.of(), request.getPage(), request.getPageSize(), 0, 0);
+        }
+
+        long[] match = columns.all.clone();
+        if (notEmpty(request.getSize())) {
+            and(match, union(columns.words, request.getSize().stream()
+                    .map(size -> columns.bySize[size.ordinal()]).toList()));
+        }
+        if (notEmpty(request.getStatus())) {
+            long[] statuses = new long[columns.words];
+            for (StallStatus status : request.getStatus()) {
+                AtomicLongArray bits = columns.byStatus[status.ordinal()];
+                for (int w = 0; w < columns.words; w++) {
+                    statuses[w] |= bits.get(w);
+                }
+            }
+            and(match, statuses);
+        }
+        if (notEmpty(request.getHall())) {
+            and(match, union(columns.words, request.getHall().stream()
+                    .map(hall -> columns.byHall.get(hall.toUpperCase())).filter(Objects::nonNull).toList()));
+        }
+        if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+            and(match, priceRange(columns, request.getMinPrice(), request.getMaxPrice()));
+        }
+        boolean near = request.getRadius() != null;
+        if (near) {
+            double limit = request.getRadius() * request.getRadius();
+            forEach(match, i -> {
+                if (distanceSquared(columns, i, request) > limit) {
+                    clear(match, i);
+                }
+            });
+        }
+
+        int total = 0;
+        for (long word : match) {
+            total += Long.bitCount(word);
+        }
+        // In long: page * pageSize may exceed int for a large page number
+        long skip = (long) request.getPage() * request.getPageSize();
+        List<StallResponseDTO> page = skip < total ? page(columns, match, request, (int) skip) : List.of();
+        searches.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        int totalPages = (total + request.getPageSize() - 1) / request.getPageSize();
+        return new StallSearchResultDTO(page, request.getPage(), request.getPageSize(), total, totalPages);
+    }
+
+    @Override
+    protected Columns build(Stall[] stalls) {
+        return new Columns(stalls);
+    }
+
+    // ----------------------------------------------------------------
+
+    /**
+     * The requested page, walking the matches in the requested order.
+     */
+    private static List<StallResponseDTO> page(Columns columns, long[] match, StallSearchRequestDTO request,
+                                               int skip) {
+        int[] order = switch (request.getSort()) {
+            case ID -> null;
+            case NAME -> columns.byName;
+            case PRICE -> columns.byPrice;
+            case DISTANCE -> byDistance(columns, match, request);
+        };
+        int n = order != null ? order.length : columns.size();
+        List<StallResponseDTO> page = new ArrayList<>(request.getPageSize());
+        for (int k = 0; k < n && page.size() < request.getPageSize(); k++) {
+            int at = request.isDescending() ? n - 1 - k : k;
+            int i = order != null ? order[at] : at;
+            if (!isSet(match, i)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            StallResponseDTO stall = new StallResponseDTO(columns.stalls[i]);
+            stall.setStatus(columns.statuses.get(i));
+            page.add(stall);
+        }
+        return page;
+    }
+
+    /** Only the matches, nearest first. */
+    private static int[] byDistance(Columns columns, long[] match, StallSearchRequestDTO request) {
+        List<Integer> matches = new ArrayList<>();
+        forEach(match, matches::add);
+        return matches.stream()
+                .sorted(Comparator.<Integer>comparingDouble(i -> distanceSquared(columns, i, request))
+                        .thenComparingInt(i -> i))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Stalls priced from min to max (inclusive, either may be open), by binary search on the sorted prices. */
+    private static long[] priceRange(Columns columns, BigDecimal min, BigDecimal max) {
+        long[] sorted = columns.sortedPriceCents;
+        int from = min != null ? firstAtLeast(sorted, cents(min, RoundingMode.CEILING)) : 0;
+        long ceiling = max != null ? cents(max, RoundingMode.FLOOR) : Long.MAX_VALUE;
+        int to = ceiling < Long.MAX_VALUE ? firstAtLeast(sorted, ceiling + 1) : sorted.length;
+        long[] range = new long[columns.words];
+        for (int k = from; k < to; k++) {
+            set(range, columns.byPrice[k]);
+        }
+        return range;
+    }
+
+    private static int firstAtLeast(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static double distanceSquared(Columns columns, int i, StallSearchRequestDTO request) {
+        double dx = columns.x[i] - request.getNearX();
+        double dy = columns.y[i] - request.getNearY();
+        return dx * dx + dy * dy;
+    }
+
+    /** The hall is the stall name's leading letters: "A12" is in hall A. */
+    private static String hallOf(String stallName) {
+        int end = 0;
+        while (end < stallName.length() && Character.isLetter(stallName.charAt(end))) {
+            end++;
+        }
+        return stallName.substring(0, end).toUpperCase();
+    }
+
+    /** Clamped to the long range: a bound beyond every price selects all stalls or none. */
+    private static long cents(BigDecimal price, RoundingMode rounding) {
+        if (price.compareTo(MAX_CENTS) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (price.compareTo(MIN_CENTS) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return price.setScale(2, rounding).unscaledValue().longValueExact();
+    }
+
+    private static long[] union(int words, List<long[]> bitsets) {
+        long[] union = new long[words];
+        for (long[] bits : bitsets) {
+            for (int w = 0; w < words; w++) {
+                union[w] |= bits[w];
+            }
+        }
+        return union;
+    }
+
+    private static void and(long[] target, long[] bits) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= bits[w];
+        }
+    }
+
+    private static void forEach(long[] bits, IntConsumer action) {
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    private static boolean isSet(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    private static void clear(long[] bits, int i) {
+        bits[i >>> 6] &= ~(1L << i);
+    }
+
+    private static void set(AtomicLongArray bits, int i) {
+        bits.set(i >>> 6, bits.get(i >>> 6) | 1L << i);
+    }
+
+    private static void clear(AtomicLongArray bits, int i) {
+        bits.set(i >>> 6, bits.get(i >>> 6) & ~(1L << i));
+    }
+
+    private static boolean notEmpty(List<?> values) {
+        return values != null && !values.isEmpty();
+    }
+}
@@ -1,22 +1,30 @@
 package com.cibf.service;
 
+import com.cibf.config.StallLayoutProperties;
+import com.cibf.dto.AllocationResultDTO;
+import com.cibf.dto.StallGroupDTO;
 import com.cibf.dto.StallMapDTO;
 import com.cibf.dto.StallRequestDTO;
 import com.cibf.dto.StallResponseDTO;
+import com.cibf.dto.StallSearchRequestDTO;
+import com.cibf.dto.StallSearchResultDTO;
 import com.cibf.entity.Stall;
 import com.cibf.entity.Stall.StallSize;
 import com.cibf.entity.Stall.StallStatus;
+import com.cibf.exception.AllocationRejectedException;
 import com.cibf.exception.ResourceNotFoundException;
 import com.cibf.exception.DuplicateResourceException;
+import com.cibf.repository.StallOwnershipRepository;
+import com.cibf.repository.StallOwnershipRepository.Ownership;
 import com.cibf.repository.StallRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +32,14 @@ import java.util.stream.Collectors;
 public class StallService {
 
     private final StallRepository stallRepository;
+    private final StallChangeNotifier stallChangeNotifier;
+    private final StallAllocationEngine stallAllocationEngine;
+    private final VendorQuotaService vendorQuotaService;
+    private final StallOwnershipRepository stallOwnershipRepository;
+    private final StallAdjacencyIndex stallAdjacencyIndex;
+    private final StallLayoutProperties stallLayoutProperties;
+    private final StallSearchIndex stallSearchIndex;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Create a new stall
@@ -47,6 +63,8 @@ public class StallService {
         stall.setStatus(requestDTO.getStatus() != null ? requestDTO.getStatus() : StallStatus.AVAILABLE);
 
         Stall savedStall = stallRepository.save(stall);
+        stallChangeNotifier.stallChanged(savedStall);
+        stallAllocationEngine.stallAdded(savedStall);
         log.info("Stall created successfully with ID: {}", savedStall.getId());
 
         return new StallResponseDTO(savedStall);
@@ -57,11 +75,8 @@ public class StallService {
      */
     @Transactional(readOnly = true)
     public List<StallResponseDTO> getAllStalls() {
-        log.info("Fetching all stalls");
-        return stallRepository.findAllByOrderByStallNameAsc()
-                .stream()
-                .map(StallResponseDTO::new)
-                .collect(Collectors.toList());
+        log.debug("Fetching all stalls");
+        return stallRepository.findResponseViewOrderByStallNameAsc();
     }
 
     /**
@@ -69,7 +84,7 @@ public class StallService {
      */
     @Transactional(readOnly = true)
     public StallResponseDTO getStallById(Long id) {
-        log.info("Fetching stall by ID: {}", id);
+        log.debug("Fetching stall by ID: {}", id);
         Stall stall = stallRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Stall not found with ID: " + id));
         return new StallResponseDTO(stall);
@@ -80,11 +95,8 @@ public class StallService {
      */
     @Transactional(readOnly = true)
     public List<StallResponseDTO> getAvailableStalls() {
-        log.info("Fetching available stalls");
-        return stallRepository.findByStatusOrderByStallNameAsc(StallStatus.AVAILABLE)
-                .stream()
-                .map(StallResponseDTO::new)
-                .collect(Collectors.toList());
+        log.debug("Fetching available stalls");
+        return stallRepository.findResponseViewByStatusOrderByStallNameAsc(StallStatus.AVAILABLE);
     }
 
     /**
@@ -92,11 +104,8 @@ public class StallService {
      */
     @Transactional(readOnly = true)
     public List<StallMapDTO> getStallsForMap() {
-        log.info("Fetching stalls for map display");
-        return stallRepository.findAllByOrderByStallNameAsc()
-                .stream()
-                .map(StallMapDTO::new)
-                .collect(Collectors.toList());
+        log.debug("Fetching stalls for map display");
+        return stallRepository.findMapViewOrderByStallNameAsc();
     }
 
     /**
@@ -104,11 +113,8 @@ public class StallService {
      */
     @Transactional(readOnly = true)
     public List<StallResponseDTO> getStallsBySize(StallSize size) {
-        log.info("Fetching stalls by size: {}", size);
-        return stallRepository.findBySize(size)
-                .stream()
-                .map(StallResponseDTO::new)
-                .collect(Collectors.toList());
+        log.debug("Fetching stalls by size: {}", size);
+        return stallRepository.findResponseViewBySize(size);
     }
 
     /**
@@ -116,28 +122,139 @@ public class StallService {
      */
     @Transactional(readOnly = true)
     public List<StallResponseDTO> getAvailableStallsBySize(StallSize size) {
-        log.info("Fetching available stalls by size: {}", size);
-        return stallRepository.findBySizeAndStatus(size, StallStatus.AVAILABLE)
-                .stream()
-                .map(StallResponseDTO::new)
-                .collect(Collectors.toList());
+        log.debug("Fetching available stalls by size: {}", size);
+        return stallRepository.findResponseViewBySizeAndStatus(size, StallStatus.AVAILABLE);
     }
 
     /**
-     * Update stall status
+     * Find groups of count adjacent available stalls (of one size, or any if null),
+     * most compact first; answered from memory
+     */
+    public List<StallGroupDTO> getContiguousStalls(StallSize size, int count, int limit) {
+        log.debug("Fetching groups of {} adjacent available stalls of size {}", count, size);
+        return stallAdjacencyIndex.findGroups(size, count, Math.min(limit, stallLayoutProperties.getMaxResults()));
+    }
+
+    public int getMaxGroupSize() {
+        return stallLayoutProperties.getMaxGroupSize();
+    }
+
+    /**
+     * Search stalls by any combination of size, status, hall, price range and distance,
+     * one page at a time; answered from memory
+     */
+    public StallSearchResultDTO searchStalls(StallSearchRequestDTO request) {
+        log.debug("Searching stalls: {}", request);
+        return stallSearchIndex.search(request);
+    }
+
+    public boolean isValidSearch(StallSearchRequestDTO request) {
+        return stallSearchIndex.accepts(request);
+    }
+
+    /**
+     * Update stall status. While the allocation engine runs, the change is sequenced
+     * with the vendors' holds and reservations there; no transaction (and so no pooled
+     * connection) is held while it waits for the journal, and the stall is answered as
+     * the journal committed it.
      */
-    @Transactional
     public StallResponseDTO updateStallStatus(Long stallId, StallStatus status) {
         log.info("Updating stall status for ID: {} to {}", stallId, status);
 
-        Stall stall = stallRepository.findById(stallId)
-                .orElseThrow(() -> new ResourceNotFoundException("Stall not found with ID: " + stallId));
+        if (stallAllocationEngine.isRunning()) {
+            AllocationResultDTO result = stallAllocationEngine.setStatus(stallId, status);
+            StallResponseDTO stall = result.getStall();
+            if (stall == null) {
+                // Status unchanged, so the row was not written
+                stall = getStallById(stallId);
+            }
+            log.info("Stall status updated through the allocation engine (#{})", result.getSequence());
+            return stall;
+        }
 
-        stall.setStatus(status);
-        Stall updatedStall = stallRepository.save(stall);
+        return transactionTemplate.execute(transaction -> {
+            Stall stall = stallRepository.findById(stallId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Stall not found with ID: " + stallId));
 
-        log.info("Stall status updated successfully");
-        return new StallResponseDTO(updatedStall);
+            String endedFor = setStatus(stall, status);
+            Stall updatedStall = stallRepository.save(stall);
+            reservationEnded(endedFor);
+            stallChangeNotifier.stallChanged(updatedStall);
+
+            log.info("Stall status updated successfully");
+            return new StallResponseDTO(updatedStall);
+        });
+    }
+
+    /**
+     * Hold a stall for a vendor for app.allocation.hold-duration (allocation engine only)
+     */
+    public AllocationResultDTO holdStall(Long stallId, String vendor) {
+        log.debug("Vendor {} holding stall {}", vendor, stallId);
+        return stallAllocationEngine.hold(stallId, vendor);
+    }
+
+    /**
+     * Reserve a stall that is available and not held by another vendor, within the
+     * vendor's quota. Without the allocation engine this is one transaction of two
+     * conditional UPDATEs (the stall, then the vendor's vendor_quota row), made only
+     * after the quota counter has taken a unit.
+     */
+    public AllocationResultDTO reserveStall(Long stallId, String vendor) {
+        log.debug("Vendor {} reserving stall {}", vendor, stallId);
+        if (stallAllocationEngine.isRunning()) {
+            return stallAllocationEngine.reserve(stallId, vendor);
+        }
+
+        vendorQuotaService.acquire(vendor);
+        Long version;
+        try {
+            version = stallOwnershipRepository.reserve(stallId, vendor, vendorQuotaService.getLimit()).orElse(null);
+        } catch (RuntimeException ex) {
+            vendorQuotaService.cancel(vendor);
+            throw ex;
+        }
+        if (version == null) {
+            vendorQuotaService.cancel(vendor);
+            throw reserveRejected(stallId, vendor);
+        }
+        vendorQuotaService.confirm(vendor);
+        stallChangeNotifier.stallWritten(stallId, version, StallStatus.RESERVED);
+        return new AllocationResultDTO(stallId, StallStatus.RESERVED, vendor, null, 0, null);
+    }
+
+    /**
+     * Give up a vendor's hold or reservation (holds: allocation engine only)
+     */
+    public AllocationResultDTO releaseStall(Long stallId, String vendor) {
+        log.debug("Vendor {} releasing stall {}", vendor, stallId);
+        if (stallAllocationEngine.isRunning()) {
+            return stallAllocationEngine.release(stallId, vendor);
+        }
+
+        Long version = stallOwnershipRepository.release(stallId, vendor)
+                .orElseThrow(() -> new AllocationRejectedException("Stall " + stallId + " is not reserved by you"));
+        vendorQuotaService.release(vendor);
+        stallChangeNotifier.stallWritten(stallId, version, StallStatus.AVAILABLE);
+        return new AllocationResultDTO(stallId, StallStatus.AVAILABLE, null, null, 0, null);
+    }
+
+    /**
+     * Why the conditional UPDATE left the stall alone. Only on the rejection path.
+     */
+    private RuntimeException reserveRejected(Long stallId, String vendor) {
+        Ownership ownership = stallOwnershipRepository.findOwnership(stallId)
+                .orElseThrow(() -> new ResourceNotFoundException("Stall not found with ID: " + stallId));
+        if (ownership.status() == StallStatus.RESERVED && vendor.equals(ownership.owner())) {
+            return new AllocationRejectedException("Stall " + stallId + " is already reserved by you");
+        }
+        if (ownership.status() != StallStatus.AVAILABLE) {
+            return new AllocationRejectedException("Stall " + stallId + " is not available");
+        }
+        // Available, so the database counted the vendor at the cap: another instance reserved for them
+        vendorQuotaService.resync(vendor);
+        return new AllocationRejectedException("You have reserved the most stalls allowed ("
+                + vendorQuotaService.getLimit() + ")");
     }
 
     /**
@@ -162,11 +279,16 @@ public class StallService {
         stall.setLocationX(requestDTO.getLocationX());
         stall.setLocationY(requestDTO.getLocationY());
         stall.setPrice(requestDTO.getPrice());
-        if (requestDTO.getStatus() != null) {
-            stall.setStatus(requestDTO.getStatus());
+        if (requestDTO.getStatus() != null && requestDTO.getStatus() != stall.getStatus()
+                && stallAllocationEngine.isRunning()) {
+            throw new AllocationRejectedException(
+                    "While allocation is open, change the status with PATCH /api/stalls/" + stallId + "/status");
         }
+        String endedFor = requestDTO.getStatus() != null ? setStatus(stall, requestDTO.getStatus()) : null;
 
         Stall updatedStall = stallRepository.save(stall);
+        reservationEnded(endedFor);
+        stallChangeNotifier.stallChanged(updatedStall);
         log.info("Stall updated successfully");
 
         return new StallResponseDTO(updatedStall);
@@ -179,14 +301,46 @@ public class StallService {
     public void deleteStall(Long stallId) {
         log.info("Deleting stall with ID: {}", stallId);
 
-        if (!stallRepository.existsById(stallId)) {
-            throw new ResourceNotFoundException("Stall not found with ID: " + stallId);
-        }
+        Stall stall = stallRepository.findById(stallId)
+                .orElseThrow(() -> new ResourceNotFoundException("Stall not found with ID: " + stallId));
+        String endedFor = stall.getStatus() == StallStatus.RESERVED ? stall.getOwner() : null;
 
-        stallRepository.deleteById(stallId);
+        stallRepository.delete(stall);
+        reservationEnded(endedFor);
+        stallChangeNotifier.stallDeleted(stallId);
+        stallAllocationEngine.stallRemoved(stallId);
         log.info("Stall deleted successfully");
     }
 
+    /**
+     * Set the status as an employee: a vendor's reservation ends unless the stall stays RESERVED
+     *
+     * @return the vendor whose reservation ended, if any
+     */
+    private String setStatus(Stall stall, StallStatus status) {
+        String owner = stall.getOwner();
+        stall.setStatus(status);
+        if (owner == null || status == StallStatus.RESERVED) {
+            return null;
+        }
+        stall.setOwner(null);
+        return owner;
+    }
+
+    /**
+     * Count down the reservations of a vendor whose stall this transaction took back:
+     * their vendor_quota row now, their quota counter once it commits
+     */
+    private void reservationEnded(String vendor) {
+        if (vendor == null) {
+            return;
+        }
+        // The stall row first, the order every writer locks stalls and vendor_quota in
+        stallRepository.flush();
+        stallOwnershipRepository.adjustReserved(Map.of(vendor, -1));
+        vendorQuotaService.releasedAfterCommit(vendor);
+    }
+
     /**
      * Check if stall is available
      */
@@ -215,7 +369,7 @@ public class StallService {
      */
     @Transactional(readOnly = true)
     public Map<String, Object> getStallStatistics() {
-        log.info("Fetching stall statistics");
+        log.debug("Fetching stall statistics");
 
         long totalStalls = stallRepository.count();
         long availableStalls = stallRepository.countByStatus(StallStatus.AVAILABLE);
@@ -0,0 +1,167 @@
+package com.cibf.service;
+
+import com.cibf.config.StallWatchProperties;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallOwnershipRepository;
+import com.cibf.repository.StallOwnershipRepository.Ownership;
+import com.cibf.repository.StallSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parks GET /api/stalls/{id}/watch until the stall becomes AVAILABLE, instead of
+ * vendors polling /available.
+ *
+ * A parked watch holds no thread or connection, only a {@link DeferredResult} in
+ * a short list under its stall id. The {@link StallChangeEvent} that makes the
+ * stall AVAILABLE, here or (through the change notifier) on another instance,
+ * completes the whole list at once; watches still waiting after
+ * app.stall-watch.timeout answer that the stall is not available, and the
+ * client watches again.
+ */
+@Service
+@Slf4j
+public class StallWatchService {
+
+    private static final ResponseEntity<Map<String, Boolean>> AVAILABLE =
+            ResponseEntity.ok(Map.of("available", true));
+    private static final ResponseEntity<Map<String, Boolean>> NOT_AVAILABLE =
+            ResponseEntity.ok(Map.of("available", false));
+    private static final ResponseEntity<Map<String, Boolean>> NOT_FOUND = ResponseEntity.notFound().build();
+
+    private final StallWatchProperties properties;
+    private final StallOwnershipRepository stallOwnershipRepository;
+    private final StallSnapshotRepository stallSnapshotRepository;
+    private final Map<Long, List<DeferredResult<ResponseEntity<Map<String, Boolean>>>>> waiters =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter rejected;
+
+    public StallWatchService(StallWatchProperties properties, StallOwnershipRepository stallOwnershipRepository,
+                             StallSnapshotRepository stallSnapshotRepository, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.stallOwnershipRepository = stallOwnershipRepository;
+        this.stallSnapshotRepository = stallSnapshotRepository;
+        this.rejected = Counter.builder("stall.watch.rejected")
+                .description("Stall watches turned away because app.stall-watch.max-waiters were parked")
+                .register(meterRegistry);
+        Gauge.builder("stall.watch.waiters", waiting, AtomicInteger::get)
+                .description("Stall watches parked until their stall becomes available")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Answers {"available": true} once the stall is AVAILABLE (at once if it already is),
+     * {"available": false} after the timeout, 404 if there is no such stall.
+     */
+    public DeferredResult<ResponseEntity<Map<String, Boolean>>> watch(Long stallId) {
+        DeferredResult<ResponseEntity<Map<String, Boolean>>> result =
+                new DeferredResult<>(properties.getTimeout().toMillis(), NOT_AVAILABLE);
+        if (waiting.incrementAndGet() > properties.getMaxWaiters()) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+            return result;
+        }
+        result.onCompletion(() -> remove(stallId, result));
+        waiters.compute(stallId, (id, list) -> {
+            List<DeferredResult<ResponseEntity<Map<String, Boolean>>>> added = list != null ? list : new ArrayList<>(1);
+            added.add(result);
+            return added;
+        });
+
+        // Read after parking (and from the primary), so a change committed in between is not missed
+        Optional<Ownership> ownership;
+        try {
+            ownership = stallOwnershipRepository.findOwnership(stallId);
+        } catch (RuntimeException ex) {
+            remove(stallId, result);
+            throw ex;
+        }
+        if (ownership.isEmpty()) {
+            result.setResult(NOT_FOUND);
+        } else if (ownership.get().status() == StallStatus.AVAILABLE) {
+            result.setResult(AVAILABLE);
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onStallChange(StallChangeEvent event) {
+        switch (event.kind()) {
+            case SAVED -> {
+                if (event.stall().getStatus() == StallStatus.AVAILABLE) {
+                    complete(event.stallId(), AVAILABLE);
+                }
+            }
+            case STATUS, REMOTE -> {
+                if (event.status() == StallStatus.AVAILABLE) {
+                    complete(event.stallId(), AVAILABLE);
+                }
+            }
+            case DELETED -> complete(event.stallId(), NOT_FOUND);
+            case RESYNC -> recheck();
+        }
+    }
+
+    /**
+     * After missed changes: reads every watched stall and completes the ones now
+     * available or gone.
+     */
+    private void recheck() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, StallStatus> statuses = new HashMap<>();
+            for (Stall stall : stallSnapshotRepository.findAllById(List.copyOf(waiters.keySet()))) {
+                statuses.put(stall.getId(), stall.getStatus());
+            }
+            for (Long stallId : List.copyOf(waiters.keySet())) {
+                StallStatus status = statuses.get(stallId);
+                if (status == null) {
+                    complete(stallId, NOT_FOUND);
+                } else if (status == StallStatus.AVAILABLE) {
+                    complete(stallId, AVAILABLE);
+                }
+            }
+        } catch (RuntimeException ex) {
+            // The watches still time out and are retried by their clients
+            log.warn("Could not recheck {} watched stalls: {}", waiters.size(), ex.getMessage());
+        }
+    }
+
+    private void complete(Long stallId, ResponseEntity<Map<String, Boolean>> response) {
+        List<DeferredResult<ResponseEntity<Map<String, Boolean>>>> woken = waiters.remove(stallId);
+        if (woken == null) {
+            return;
+        }
+        waiting.addAndGet(-woken.size());
+        woken.forEach(result -> result.setResult(response));
+    }
+
+    private void remove(Long stallId, DeferredResult<ResponseEntity<Map<String, Boolean>>> result) {
+        waiters.computeIfPresent(stallId, (id, list) -> {
+            if (list.remove(result)) {
+                waiting.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
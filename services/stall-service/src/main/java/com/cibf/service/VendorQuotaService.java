@@ -0,0 +1,232 @@
+package com.cibf.service;
+
+import com.cibf.config.AllocationProperties;
+import com.cibf.config.QuotaProperties;
+import com.cibf.exception.AllocationRejectedException;
+import com.cibf.exception.AllocationUnavailableException;
+import com.cibf.repository.StallOwnershipRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the stalls each vendor may have reserved (app.quota.max-stalls-per-vendor).
+ *
+ * Reservations per vendor are counted in memory, so a reserve over the cap is
+ * turned away with one map lookup and one CAS, before any stall row is read or
+ * locked. Each counter holds the vendor's confirmed reservations and the units
+ * taken by reserves still in flight, in one long so that both change in one CAS:
+ * a reserve takes a pending unit first, and confirms it once the stall is
+ * reserved or cancels it if the stall turns out not to be available. The
+ * confirmed counts are rebuilt from vendor_quota on startup and, unless the
+ * allocation engine runs here, every app.quota.reconcile-interval, which leaves
+ * the pending units alone; between recounts, the reserve's vendor_quota update
+ * enforces the cap against the database as well.
+ */
+@Service
+@Slf4j
+public class VendorQuotaService {
+
+    private final QuotaProperties properties;
+    private final AllocationProperties allocationProperties;
+    private final StallOwnershipRepository stallOwnershipRepository;
+    // Per vendor: confirmed reservations in the high 32 bits, pending units in the low 32
+    private final Map<String, AtomicLong> reserved = new ConcurrentHashMap<>();
+    private final Counter rejected;
+
+    private volatile boolean reconciled;
+    private volatile boolean running;
+    private Thread reconciler;
+
+    public VendorQuotaService(QuotaProperties properties, AllocationProperties allocationProperties,
+                              StallOwnershipRepository stallOwnershipRepository, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.allocationProperties = allocationProperties;
+        this.stallOwnershipRepository = stallOwnershipRepository;
+        this.rejected = Counter.builder("vendor.quota.rejected")
+                .description("Reservations turned away because the vendor had reached the stall cap")
+                .register(meterRegistry);
+        Gauge.builder("vendor.quota.vendors", reserved, Map::size)
+                .description("Vendors with a reservation counter")
+                .register(meterRegistry);
+    }
+
+    public int getLimit() {
+        return properties.getMaxStallsPerVendor();
+    }
+
+    /**
+     * Takes one pending unit of the vendor's quota; {@link #confirm} or {@link #cancel} it.
+     *
+     * @throws AllocationRejectedException if the vendor is at the cap
+     */
+    public void acquire(String vendor) {
+        if (!reconciled) {
+            throw new AllocationUnavailableException("Stall reservations are not open yet");
+        }
+        AtomicLong counter = counter(vendor);
+        while (true) {
+            long current = counter.get();
+            int taken = confirmed(current) + pending(current);
+            if (taken >= getLimit()) {
+                rejected.increment();
+                throw new AllocationRejectedException("You have reserved " + taken + " stalls, the most allowed");
+            }
+            if (counter.compareAndSet(current, pack(confirmed(current), pending(current) + 1))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The reservation a pending unit was taken for has been made.
+     */
+    public void confirm(String vendor) {
+        counter(vendor).getAndUpdate(current ->
+                pack(confirmed(current) + 1, Math.max(0, pending(current) - 1)));
+    }
+
+    /**
+     * The reservation a pending unit was taken for was not made.
+     */
+    public void cancel(String vendor) {
+        counter(vendor).getAndUpdate(current -> pack(confirmed(current), Math.max(0, pending(current) - 1)));
+    }
+
+    /**
+     * Gives back one unit of a reservation released.
+     */
+    public void release(String vendor) {
+        AtomicLong counter = reserved.get(vendor);
+        if (counter != null) {
+            counter.getAndUpdate(current -> pack(Math.max(0, confirmed(current) - 1), pending(current)));
+        }
+    }
+
+    /**
+     * Stalls the vendor may still reserve.
+     */
+    public int remaining(String vendor) {
+        AtomicLong counter = reserved.get(vendor);
+        long current = counter != null ? counter.get() : 0;
+        return Math.max(0, getLimit() - confirmed(current) - pending(current));
+    }
+
+    /**
+     * Sets the vendor's confirmed count to the database's, after the database turned
+     * down a reserve the counter allowed.
+     */
+    public void resync(String vendor) {
+        setConfirmed(vendor, stallOwnershipRepository.findReserved(vendor));
+    }
+
+    /**
+     * Counts reservations written by a bulk operation, once its transaction commits.
+     */
+    public void reservedAfterCommit(String vendor, int stalls) {
+        afterCommit(() -> counter(vendor).getAndUpdate(current ->
+                pack(confirmed(current) + stalls, pending(current))));
+    }
+
+    /**
+     * Gives back a unit once the transaction that cleared the vendor's ownership commits.
+     */
+    public void releasedAfterCommit(String vendor) {
+        afterCommit(() -> release(vendor));
+    }
+
+    // Before the allocation engine rebuilds, which may take units as soon as it starts
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        reconcile();
+        reconciled = true;
+        log.info("Stall quota of {} per vendor; {} vendors hold reservations", getLimit(), reserved.size());
+        if (!allocationProperties.isEnabled() && properties.getReconcileInterval().isPositive()) {
+            running = true;
+            reconciler = Thread.ofPlatform().name("vendor-quota-reconciler").daemon().start(this::runReconciler);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (reconciler != null) {
+            reconciler.interrupt();
+        }
+    }
+
+    /**
+     * Replaces every confirmed count with the database's, keeping the pending units.
+     * A reserve confirmed between the read and the update is undercounted until the
+     * next recount; the database still holds the cap for it.
+     */
+    private void reconcile() {
+        Map<String, Integer> counts = stallOwnershipRepository.findReservedByVendor();
+        reserved.keySet().forEach(vendor -> {
+            if (!counts.containsKey(vendor)) {
+                setConfirmed(vendor, 0);
+            }
+        });
+        counts.forEach(this::setConfirmed);
+    }
+
+    private void setConfirmed(String vendor, int stalls) {
+        counter(vendor).getAndUpdate(current -> pack(stalls, pending(current)));
+    }
+
+    private AtomicLong counter(String vendor) {
+        return reserved.computeIfAbsent(vendor, v -> new AtomicLong());
+    }
+
+    private static long pack(int confirmed, int pending) {
+        return (long) confirmed << 32 | pending & 0xFFFFFFFFL;
+    }
+
+    private static int confirmed(long counter) {
+        return (int) (counter >>> 32);
+    }
+
+    private static int pending(long counter) {
+        return (int) counter;
+    }
+
+    private void runReconciler() {
+        while (running) {
+            try {
+                Thread.sleep(properties.getReconcileInterval());
+                reconcile();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Could not recount stall reservations: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,23 @@
+-- ============================================================
+-- V1: Base tables for stall_schema
+-- Mirrors the table previously created by Hibernate (ddl-auto=update),
+-- so existing databases are baselined at this version (see
+-- spring.flyway.baseline-on-migrate) and only new databases run it.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS stalls (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stall_name      VARCHAR(10)    NOT NULL,
+    size            VARCHAR(10)    NOT NULL,
+    dimension       VARCHAR(50)    NOT NULL,
+    -- Hibernate maps locationX/locationY without an underscore (trailing capital)
+    locationx       FLOAT(53)      NOT NULL,
+    locationy       FLOAT(53)      NOT NULL,
+    price           NUMERIC(10, 2) NOT NULL,
+    status          VARCHAR(20)    NOT NULL,
+    created_at      TIMESTAMP(6)   NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_stalls_stall_name UNIQUE (stall_name),
+    CONSTRAINT ck_stalls_size CHECK (size IN ('SMALL', 'MEDIUM', 'LARGE')),
+    CONSTRAINT ck_stalls_status CHECK (status IN ('AVAILABLE', 'RESERVED', 'UNAVAILABLE'))
+);
@@ -0,0 +1,15 @@
+-- ============================================================
+-- V2: Composite indexes for the hot queries in stall_schema
+-- ============================================================
+
+-- findByStatusOrderByStallNameAsc (GET /api/stalls/available), countByStatus
+CREATE INDEX IF NOT EXISTS idx_stalls_status_name ON stalls (status, stall_name);
+
+-- findBySizeAndStatus / countBySizeAndStatus (GET /api/stalls/size/{size}/available, statistics)
+-- The leading size column also serves findBySize.
+CREATE INDEX IF NOT EXISTS idx_stalls_size_status ON stalls (size, status);
+
+-- findStallsInLocationRange (map filtering)
+CREATE INDEX IF NOT EXISTS idx_stalls_location ON stalls (locationx, locationy);
+
+-- findAllByOrderByStallNameAsc is served by the unique index on stall_name.
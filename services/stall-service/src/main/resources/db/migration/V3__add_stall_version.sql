@@ -0,0 +1,7 @@
+-- ============================================================
+-- V3: Optimistic-locking version for stalls
+-- Incremented by Hibernate on every update (Stall.version); carried in the
+-- stall change notifications so replicas can tell which state is newer.
+-- ============================================================
+
+ALTER TABLE stalls ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
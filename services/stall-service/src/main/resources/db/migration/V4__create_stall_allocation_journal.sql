@@ -0,0 +1,20 @@
+-- ============================================================
+-- V4: Journal of the in-memory stall allocation engine
+-- One row per applied hold/reserve/release/status command, written in
+-- batches (StallAllocationEngine). stalls.status is updated in the same
+-- transaction; the journal adds who holds or reserved a stall, which the
+-- engine reads back on startup. seq is assigned by the engine.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS stall_allocation_journal (
+    seq             BIGINT       PRIMARY KEY,
+    stall_id        BIGINT       NOT NULL,
+    command         VARCHAR(10)  NOT NULL,
+    status          VARCHAR(20)  NOT NULL,
+    holder          VARCHAR(255),
+    hold_expires_at TIMESTAMP(6),
+    recorded_at     TIMESTAMP(6) NOT NULL
+);
+
+-- Latest entry per stall (rebuild on startup)
+CREATE INDEX IF NOT EXISTS idx_allocation_journal_stall_seq ON stall_allocation_journal (stall_id, seq DESC);
@@ -0,0 +1,46 @@
+-- ============================================================
+-- V5: Stall lottery (LotteryService)
+-- Vendors rank the stalls of an open round until it closes; the draw
+-- assigns them in one transaction and records who got what.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS lottery_rounds (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                  VARCHAR(100) NOT NULL,
+    status                VARCHAR(20)  NOT NULL,
+    closes_at             TIMESTAMP(6) NOT NULL,
+    max_stalls_per_vendor INTEGER      NOT NULL,
+    seed                  BIGINT,
+    created_at            TIMESTAMP(6) NOT NULL,
+    drawn_at              TIMESTAMP(6),
+    CONSTRAINT ck_lottery_rounds_status CHECK (status IN ('OPEN', 'DRAWN'))
+);
+
+-- Stalls offered in a round
+CREATE TABLE IF NOT EXISTS lottery_round_stalls (
+    round_id BIGINT NOT NULL REFERENCES lottery_rounds (id) ON DELETE CASCADE,
+    stall_id BIGINT NOT NULL,
+    PRIMARY KEY (round_id, stall_id)
+);
+
+-- A vendor's ranked choices (1 = first choice)
+CREATE TABLE IF NOT EXISTS lottery_preferences (
+    round_id        BIGINT       NOT NULL REFERENCES lottery_rounds (id) ON DELETE CASCADE,
+    vendor          VARCHAR(255) NOT NULL,
+    preference_rank INTEGER      NOT NULL,
+    stall_id        BIGINT       NOT NULL,
+    submitted_at    TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (round_id, vendor, preference_rank)
+);
+
+-- Outcome of the draw; pass 1 gives each vendor at most one stall, pass 2 a second, ...
+CREATE TABLE IF NOT EXISTS lottery_allocations (
+    round_id        BIGINT       NOT NULL REFERENCES lottery_rounds (id) ON DELETE CASCADE,
+    stall_id        BIGINT       NOT NULL,
+    vendor          VARCHAR(255) NOT NULL,
+    preference_rank INTEGER      NOT NULL,
+    pass            INTEGER      NOT NULL,
+    PRIMARY KEY (round_id, stall_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_lottery_allocations_vendor ON lottery_allocations (round_id, vendor);
@@ -0,0 +1,21 @@
+-- ============================================================
+-- V6: Stall owner
+-- The vendor (username) a RESERVED stall is reserved for; NULL for stalls
+-- reserved by an employee and for every other status. VendorQuotaService counts
+-- reservations per owner; the partial index serves its per-vendor counts.
+-- ============================================================
+
+ALTER TABLE stalls ADD COLUMN IF NOT EXISTS owner VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_stalls_owner_status ON stalls (owner, status) WHERE owner IS NOT NULL;
+
+-- Owners of the reservations made so far: lottery draws, then the allocation
+-- journal (a stall the engine reserved after a draw was released in between)
+UPDATE stalls s SET owner = a.vendor
+FROM lottery_allocations a
+WHERE a.stall_id = s.id AND s.status = 'RESERVED';
+
+UPDATE stalls s SET owner = j.holder
+FROM (SELECT DISTINCT ON (stall_id) stall_id, status, holder
+      FROM stall_allocation_journal ORDER BY stall_id, seq DESC) j
+WHERE j.stall_id = s.id AND s.status = 'RESERVED' AND j.status = 'RESERVED' AND j.holder IS NOT NULL;
@@ -0,0 +1,19 @@
+-- ============================================================
+-- V7: Vendor quota
+-- Stalls each vendor has reserved, kept beside stalls.owner by every write that
+-- changes a reservation. A reserve adds one to the vendor's row only while it is
+-- under the cap, in the transaction that reserves the stall, so the row lock
+-- enforces the cap across instances without counting stalls. Writes to
+-- stalls.owner made outside the service must adjust this table too.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS vendor_quota (
+    vendor   VARCHAR(255) PRIMARY KEY,
+    reserved INTEGER      NOT NULL DEFAULT 0
+);
+
+INSERT INTO vendor_quota (vendor, reserved)
+SELECT owner, COUNT(*) FROM stalls
+WHERE owner IS NOT NULL AND status = 'RESERVED'
+GROUP BY owner
+ON CONFLICT (vendor) DO UPDATE SET reserved = EXCLUDED.reserved;
@@ -0,0 +1,149 @@
+package com.cibf.config;
+
+import com.cibf.dto.QueueStatusDTO;
+import com.cibf.dto.QueueStatusDTO.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the waiting room's queue: FIFO tickets and positions, the length cap,
+ * admission at admit-per-second, and re-queueing once the admission window has
+ * run out, concurrent joins of one vendor, and the admit-per-second bounds. The
+ * admission clock is real time, so the rates are chosen to keep the sleeps short.
+ */
+class WaitingRoomTests {
+
+    @Test
+    void admitsEveryoneWhileDisabled() {
+        WaitingRoom room = room(false, 1, Duration.ofMinutes(3), 10);
+
+        QueueStatusDTO status = room.join("a");
+        assertThat(status.getState()).isEqualTo(State.ADMITTED);
+        assertThat(status.getTicket()).isZero();
+        assertThat(room.status("never-joined").getState()).isEqualTo(State.ADMITTED);
+    }
+
+    @Test
+    void queuesInJoinOrder() {
+        // One admission every 1000 s: nobody gets in during the test
+        WaitingRoom room = room(true, 0.001, Duration.ofMinutes(3), 10);
+
+        assertThat(room.join("a").getPosition()).isEqualTo(1);
+        assertThat(room.join("b").getPosition()).isEqualTo(2);
+        QueueStatusDTO c = room.join("c");
+        assertThat(c.getState()).isEqualTo(State.WAITING);
+        assertThat(c.getTicket()).isEqualTo(3);
+        assertThat(c.getPosition()).isEqualTo(3);
+        assertThat(c.getEstimatedWaitSeconds()).isEqualTo(3000);
+        assertThat(c.getPollAfterSeconds()).isBetween(1L, 30L);
+
+        // Joining again keeps the ticket
+        assertThat(room.join("a").getTicket()).isEqualTo(1);
+        assertThat(room.status("b").getPosition()).isEqualTo(2);
+        assertThat(room.status("never-joined")).isNull();
+    }
+
+    @Test
+    void turnsAwayJoinersOverTheQueueLength() {
+        WaitingRoom room = room(true, 0.001, Duration.ofMinutes(3), 2);
+
+        assertThat(room.join("a")).isNotNull();
+        assertThat(room.join("b")).isNotNull();
+        assertThat(room.join("c")).isNull();
+        // Those already queued are unaffected
+        assertThat(room.join("b").getPosition()).isEqualTo(2);
+    }
+
+    @Test
+    void admitsAtTheConfiguredRate() throws InterruptedException {
+        // One admission every 50 ms
+        WaitingRoom room = room(true, 20, Duration.ofMinutes(3), 10);
+        room.join("a");
+        room.join("b");
+
+        Thread.sleep(150);
+        QueueStatusDTO a = room.status("a");
+        assertThat(a.getState()).isEqualTo(State.ADMITTED);
+        assertThat(a.getPosition()).isZero();
+        assertThat(a.getAdmissionExpiresInSeconds()).isPositive();
+        assertThat(room.status("b").getState()).isEqualTo(State.ADMITTED);
+    }
+
+    @Test
+    void idleTimeIsNotSavedForABurst() throws InterruptedException {
+        // One admission every 100 ms, idle for five of them before anyone joins
+        WaitingRoom room = room(true, 10, Duration.ofMinutes(3), 10);
+        Thread.sleep(500);
+
+        room.join("a");
+        room.join("b");
+        assertThat(room.join("c").getState()).isEqualTo(State.WAITING);
+    }
+
+    @Test
+    void queuesAgainAfterTheAdmissionWindow() throws InterruptedException {
+        WaitingRoom room = room(true, 1000, Duration.ofMillis(100), 10);
+        room.join("a");
+        Thread.sleep(20);
+        assertThat(room.status("a").getState()).isEqualTo(State.ADMITTED);
+
+        Thread.sleep(150);
+        assertThat(room.status("a").getState()).isEqualTo(State.EXPIRED);
+        QueueStatusDTO again = room.join("a");
+        assertThat(again.getTicket()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentJoinsOfOneVendorShareATicket() throws Exception {
+        WaitingRoom room = room(true, 0.001, Duration.ofMinutes(3), 100);
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService joiners = Executors.newFixedThreadPool(8)) {
+            List<Future<Long>> tickets = IntStream.range(0, 8)
+                    .mapToObj(i -> joiners.submit(() -> {
+                        start.await();
+                        return room.join("a").getTicket();
+                    }))
+                    .toList();
+            start.countDown();
+            for (Future<Long> ticket : tickets) {
+                assertThat(ticket.get()).isEqualTo(1);
+            }
+        }
+        // No orphaned tickets ahead of the next vendor
+        assertThat(room.join("b").getPosition()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsAdmitRatesTheClockCannotRun() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        WaitingRoomProperties properties = new WaitingRoomProperties();
+        assertThat(validator.validate(properties)).isEmpty();
+
+        for (double rate : new double[]{0, -1, 2e9}) {
+            properties.setAdmitPerSecond(rate);
+            assertThat(validator.validate(properties)).as("admit-per-second %s", rate).hasSize(1);
+        }
+    }
+
+    private static WaitingRoom room(boolean enabled, double admitPerSecond, Duration admissionWindow,
+                                    int maxQueueLength) {
+        WaitingRoomProperties properties = new WaitingRoomProperties();
+        properties.setEnabled(enabled);
+        properties.setAdmitPerSecond(admitPerSecond);
+        properties.setAdmissionWindow(admissionWindow);
+        properties.setMaxQueueLength(maxQueueLength);
+        return new WaitingRoom(properties, new SimpleMeterRegistry());
+    }
+}
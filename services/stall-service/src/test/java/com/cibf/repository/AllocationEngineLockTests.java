@@ -0,0 +1,68 @@
+package com.cibf.repository;
+
+import com.cibf.stall_service.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the allocation engine lock on the embedded PostgreSQL, with two locks
+ * standing in for two stall-service instances: one engine at a time, no draw
+ * while an engine runs anywhere, and no engine start during a draw.
+ */
+class AllocationEngineLockTests {
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource(TestDatabase.url(), "postgres", "postgres");
+    private final TransactionTemplate transaction =
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    private final AllocationEngineLock here = lock();
+    private final AllocationEngineLock elsewhere = lock();
+
+    @AfterEach
+    void release() {
+        here.release();
+        elsewhere.release();
+    }
+
+    @Test
+    void onlyOneEngineHoldsIt() {
+        assertThat(here.acquire()).isTrue();
+        assertThat(here.acquire()).isTrue();
+        assertThat(here.isHeld()).isTrue();
+        assertThat(elsewhere.acquire()).isFalse();
+        assertThat(elsewhere.isHeld()).isFalse();
+
+        here.release();
+        assertThat(here.isHeld()).isFalse();
+        assertThat(elsewhere.acquire()).isTrue();
+    }
+
+    @Test
+    void aDrawWaitsForEveryEngineToStop() {
+        assertThat(elsewhere.acquire()).isTrue();
+        assertThat(transaction.<Boolean>execute(status -> here.lockForDraw())).isFalse();
+
+        elsewhere.release();
+        assertThat(transaction.<Boolean>execute(status -> here.lockForDraw())).isTrue();
+    }
+
+    @Test
+    void noEngineStartsDuringADraw() {
+        transaction.executeWithoutResult(status -> {
+            assertThat(here.lockForDraw()).isTrue();
+            assertThat(elsewhere.acquire()).isFalse();
+        });
+        // Released with the draw's transaction
+        assertThat(elsewhere.acquire()).isTrue();
+    }
+
+    private AllocationEngineLock lock() {
+        return new AllocationEngineLock(new JdbcTemplate(dataSource), TestDatabase.url(), "postgres", "postgres");
+    }
+}
@@ -0,0 +1,132 @@
+package com.cibf.repository;
+
+import com.cibf.dto.StallMapDTO;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.reservation.backend.StallServiceApplication;
+import com.cibf.stall_service.TestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A read that began before a plain JDBC reserve, here or on another instance, and
+ * loads the stall after it commits still sees the old row (here through a REPEATABLE
+ * READ snapshot, standing in for a slow read). Neither the stall nor the listing it
+ * read may then be served from the cache as available.
+ */
+@SpringBootTest(classes = StallServiceApplication.class)
+@ActiveProfiles("test")
+class StallCacheLockTests {
+
+    private static final AtomicInteger NAMES = new AtomicInteger();
+
+    @Autowired
+    private StallRepository stallRepository;
+    @Autowired
+    private StallOwnershipRepository stallOwnershipRepository;
+    @Autowired
+    private StallCacheLock stallCacheLock;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Test
+    void aReadRacingAReserveDoesNotCacheTheOldStatus() {
+        Long stallId = stall();
+        entityManagerFactory.getCache().evict(Stall.class, stallId);
+
+        assertRaceServesReserved(stallId, () -> reserve(stallId));
+    }
+
+    @Test
+    void aReadRacingAReserveDoesNotRecacheACachedStall() {
+        Long stallId = cachedStall();
+
+        assertRaceServesReserved(stallId, () -> reserve(stallId));
+    }
+
+    @Test
+    void aReadRacingAnotherInstancesReserveDoesNotRecacheTheStall() {
+        Long stallId = cachedStall();
+
+        assertRaceServesReserved(stallId, () -> {
+            // Committed elsewhere; what this instance does on its notification
+            jdbcTemplate.update("UPDATE stalls SET status = 'RESERVED', version = version + 1 WHERE id = ?", stallId);
+            stallCacheLock.invalidate(stallId);
+        });
+    }
+
+    private void assertRaceServesReserved(Long stallId, Runnable reserve) {
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.executeWithoutResult(status -> {
+            // The snapshot is taken by the first statement
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            CompletableFuture.runAsync(reserve).join();
+
+            assertThat(stallRepository.findById(stallId).orElseThrow().getStatus()).isEqualTo(StallStatus.AVAILABLE);
+            assertThat(mapStatus(stallId)).isEqualTo(StallStatus.AVAILABLE);
+        });
+
+        assertThat(status(stallId)).isEqualTo(StallStatus.RESERVED);
+        assertThat(mapStatus(stallId)).isEqualTo(StallStatus.RESERVED);
+    }
+
+    private void reserve(Long stallId) {
+        assertThat(stallOwnershipRepository.reserve(stallId, "vendor-" + stallId, 10)).isPresent();
+    }
+
+    private Long cachedStall() {
+        Long stallId = stall();
+        assertThat(status(stallId)).isEqualTo(StallStatus.AVAILABLE);
+        assertThat(entityManagerFactory.getCache().contains(Stall.class, stallId)).isTrue();
+        return stallId;
+    }
+
+    private Long stall() {
+        Stall stall = new Stall();
+        stall.setStallName("L" + NAMES.incrementAndGet());
+        stall.setSize(StallSize.SMALL);
+        stall.setDimension("10x10");
+        stall.setLocationX(1.0);
+        stall.setLocationY(1.0);
+        stall.setPrice(BigDecimal.TEN);
+        return stallRepository.save(stall).getId();
+    }
+
+    private StallStatus status(Long stallId) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> stallRepository.findById(stallId).orElseThrow().getStatus());
+    }
+
+    private StallStatus mapStatus(Long stallId) {
+        return stallRepository.findMapViewOrderByStallNameAsc().stream()
+                .filter(stall -> stall.getId().equals(stallId))
+                .map(StallMapDTO::getStatus)
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.cibf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the allocation engine's ring buffer: capacity, full and empty, reuse of
+ * the slots as the positions wrap around, and per-producer order with several
+ * producers racing for the tail.
+ */
+class CommandRingTests {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new CommandRing<Integer>(5).capacity()).isEqualTo(8);
+        assertThat(new CommandRing<Integer>(8).capacity()).isEqualTo(8);
+        assertThat(new CommandRing<Integer>(1).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void refusesWhenFullAndReturnsNullWhenEmpty() {
+        CommandRing<Integer> ring = new CommandRing<>(4);
+        assertThat(ring.isEmpty()).isTrue();
+        assertThat(ring.poll()).isNull();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+        assertThat(ring.offer(4)).isFalse();
+        assertThat(ring.isEmpty()).isFalse();
+
+        assertThat(ring.poll()).isEqualTo(0);
+        assertThat(ring.offer(4)).isTrue();
+        for (int i = 1; i <= 4; i++) {
+            assertThat(ring.poll()).isEqualTo(i);
+        }
+        assertThat(ring.poll()).isNull();
+    }
+
+    @Test
+    void keepsOrderAcrossWraparound() {
+        CommandRing<Integer> ring = new CommandRing<>(4);
+        int next = 0;
+        int expected = 0;
+        // Fill up, take two: the head and tail move through the slots at different offsets
+        for (int round = 0; round < 1000; round++) {
+            while (ring.offer(next)) {
+                next++;
+            }
+            for (int i = 0; i < 2; i++) {
+                assertThat(ring.poll()).isEqualTo(expected++);
+            }
+        }
+        Integer item;
+        while ((item = ring.poll()) != null) {
+            assertThat(item).isEqualTo(expected++);
+        }
+        assertThat(expected).isEqualTo(next);
+    }
+
+    @Test
+    void keepsEachProducersOrderWithManyProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        CommandRing<long[]> ring = new CommandRing<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] item = {producer, i};
+                    while (!ring.offer(item)) {
+                        Thread.yield(); // yield rather than spin: the test may run on a single core
+                    }
+                }
+            }));
+        }
+
+        long[] last = new long[producers];
+        Arrays.fill(last, -1);
+        start.countDown();
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] item = ring.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) item[0];
+            assertThat(item[1]).as("producer %d", producer).isEqualTo(last[producer] + 1);
+            last[producer] = item[1];
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(ring.poll()).isNull();
+        assertThat(last).containsOnly(perProducer - 1);
+    }
+}
@@ -0,0 +1,163 @@
+package com.cibf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the lottery matching on an opening-day sized round (10,000 applicants,
+ * 1,000 stalls): limits hold, stalls only go to applicants who ranked them, a
+ * seed always draws the same result, and with one stall each the outcome is
+ * random serial dictatorship.
+ */
+class LotteryAllocatorTests {
+
+    private static final int APPLICANTS = 10_000;
+    private static final int STALLS = 1_000;
+    private static final int CHOICES = 10;
+
+    @Test
+    void eachWinnerGetsAtMostOneStall() {
+        int[][] preferences = preferences(APPLICANTS, STALLS, CHOICES, 1);
+        LotteryAllocator.Result result = LotteryAllocator.allocate(preferences, allAvailable(STALLS),
+                LotteryAllocator.drawOrder(APPLICANTS, 11), limits(APPLICANTS, 1));
+
+        int[] won = wonPerVendor(result, APPLICANTS);
+        assertThat(Arrays.stream(won).max().orElse(0)).isEqualTo(1);
+        assertThat(result.passes()).isEqualTo(1);
+    }
+
+    @Test
+    void eachVendorStaysWithinItsLimit() {
+        int[][] preferences = preferences(APPLICANTS, STALLS, CHOICES, 2);
+        int[] limits = new int[APPLICANTS];
+        for (int v = 0; v < APPLICANTS; v++) {
+            limits[v] = v % 4; // 0 to 3
+        }
+        LotteryAllocator.Result result = LotteryAllocator.allocate(preferences, allAvailable(STALLS),
+                LotteryAllocator.drawOrder(APPLICANTS, 12), limits);
+
+        int[] won = wonPerVendor(result, APPLICANTS);
+        for (int v = 0; v < APPLICANTS; v++) {
+            assertThat(won[v]).as("vendor %d", v).isLessThanOrEqualTo(limits[v]);
+        }
+    }
+
+    @Test
+    void everyDrawnStallGoesToAnApplicantWhoListedIt() {
+        int[][] preferences = preferences(APPLICANTS, STALLS, CHOICES, 3);
+        boolean[] available = allAvailable(STALLS);
+        for (int s = 0; s < STALLS; s += 7) {
+            available[s] = false;
+        }
+        LotteryAllocator.Result result = LotteryAllocator.allocate(preferences, available,
+                LotteryAllocator.drawOrder(APPLICANTS, 13), limits(APPLICANTS, 3));
+
+        int assigned = 0;
+        for (int s = 0; s < STALLS; s++) {
+            int v = result.vendorOf()[s];
+            if (v == LotteryAllocator.NONE) {
+                continue;
+            }
+            assigned++;
+            assertThat(available[s]).as("stall %d", s).isTrue();
+            // rankOf is 1-based: the vendor listed this stall at that position
+            assertThat(preferences[v][result.rankOf()[s] - 1]).as("stall %d", s).isEqualTo(s);
+            assertThat(result.passOf()[s]).isBetween(1, result.passes());
+        }
+        assertThat(assigned).isPositive();
+    }
+
+    @Test
+    void sameSeedGivesSameResult() {
+        int[][] preferences = preferences(APPLICANTS, STALLS, CHOICES, 4);
+        int[] limits = limits(APPLICANTS, 3);
+
+        assertThat(LotteryAllocator.drawOrder(APPLICANTS, 99)).isEqualTo(LotteryAllocator.drawOrder(APPLICANTS, 99));
+        LotteryAllocator.Result first = LotteryAllocator.allocate(preferences, allAvailable(STALLS),
+                LotteryAllocator.drawOrder(APPLICANTS, 99), limits);
+        // The proposals run in parallel; their order must not matter
+        LotteryAllocator.Result second = LotteryAllocator.allocate(preferences, allAvailable(STALLS),
+                LotteryAllocator.drawOrder(APPLICANTS, 99), limits);
+
+        assertThat(second.vendorOf()).isEqualTo(first.vendorOf());
+        assertThat(second.rankOf()).isEqualTo(first.rankOf());
+        assertThat(second.passOf()).isEqualTo(first.passOf());
+        assertThat(LotteryAllocator.drawOrder(APPLICANTS, 100)).isNotEqualTo(LotteryAllocator.drawOrder(APPLICANTS, 99));
+    }
+
+    @Test
+    void oneStallEachMatchesSerialDictatorship() {
+        int[][] preferences = preferences(APPLICANTS, STALLS, CHOICES, 5);
+        int[] order = LotteryAllocator.drawOrder(APPLICANTS, 15);
+        LotteryAllocator.Result result = LotteryAllocator.allocate(preferences, allAvailable(STALLS), order,
+                limits(APPLICANTS, 1));
+
+        // Best lottery position picks first, each takes its best choice still free
+        int[] expected = new int[STALLS];
+        Arrays.fill(expected, LotteryAllocator.NONE);
+        for (int v : order) {
+            for (int s : preferences[v]) {
+                if (expected[s] == LotteryAllocator.NONE) {
+                    expected[s] = v;
+                    break;
+                }
+            }
+        }
+        assertThat(result.vendorOf()).isEqualTo(expected);
+    }
+
+    @Test
+    void laterPassesPickInReverseOrder() {
+        // Both rank the stalls alike; vendor 1 is drawn first
+        int[][] preferences = {{0, 1, 2, 3}, {0, 1, 2, 3}};
+        LotteryAllocator.Result result = LotteryAllocator.allocate(preferences, allAvailable(4), new int[]{1, 0},
+                limits(2, 2));
+
+        assertThat(result.vendorOf()).containsExactly(1, 0, 0, 1);
+        assertThat(result.passOf()).containsExactly(1, 1, 2, 2);
+        assertThat(result.passes()).isEqualTo(2);
+    }
+
+    // ----------------------------------------------------------------
+
+    /** Distinct choices per vendor, skewed towards the low stall numbers so that vendors compete. */
+    private static int[][] preferences(int vendors, int stalls, int choices, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] preferences = new int[vendors][];
+        for (int v = 0; v < vendors; v++) {
+            preferences[v] = random.ints(0, stalls * stalls)
+                    .map(draw -> (int) Math.sqrt(draw))
+                    .map(s -> stalls - 1 - s)
+                    .distinct()
+                    .limit(choices)
+                    .toArray();
+        }
+        return preferences;
+    }
+
+    private static boolean[] allAvailable(int stalls) {
+        boolean[] available = new boolean[stalls];
+        Arrays.fill(available, true);
+        return available;
+    }
+
+    private static int[] limits(int vendors, int limit) {
+        int[] limits = new int[vendors];
+        Arrays.fill(limits, limit);
+        return limits;
+    }
+
+    private static int[] wonPerVendor(LotteryAllocator.Result result, int vendors) {
+        int[] won = new int[vendors];
+        for (int v : result.vendorOf()) {
+            if (v != LotteryAllocator.NONE) {
+                won[v]++;
+            }
+        }
+        return won;
+    }
+}
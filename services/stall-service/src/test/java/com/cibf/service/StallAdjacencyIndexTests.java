@@ -0,0 +1,148 @@
+package com.cibf.service;
+
+import com.cibf.config.StallLayoutProperties;
+import com.cibf.dto.StallGroupDTO;
+import com.cibf.dto.StallMapDTO;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the adjacent-stall groups on a tiny fixed layout with neighbours up to
+ * 21 map units apart:
+ * <pre>
+ *   1 --- 2 --- 3 --- 4                    5
+ *  (0)   (20)  (40)  (60, LARGE)         (200)
+ * </pre>
+ * Stalls 1, 2, 3 and 5 are SMALL.
+ */
+class StallAdjacencyIndexTests {
+
+    private StallAdjacencyIndex index;
+
+    @AfterEach
+    void stop() {
+        if (index != null) {
+            index.stop();
+        }
+    }
+
+    @Test
+    void findsEveryDistinctPairRankedByPrice() {
+        index = started(row());
+
+        List<StallGroupDTO> pairs = index.findGroups(null, 2, 10);
+
+        assertThat(pairs).extracting(StallAdjacencyIndexTests::ids)
+                .containsExactly(List.of(1L, 2L), List.of(2L, 3L), List.of(3L, 4L));
+        assertThat(pairs).extracting(StallGroupDTO::getSpread).containsOnly(10.0);
+        assertThat(pairs).extracting(StallGroupDTO::getTotalPrice)
+                .containsExactly(new BigDecimal("200.00"), new BigDecimal("250.00"), new BigDecimal("350.00"));
+        assertThat(index.findGroups(null, 2, 1)).hasSize(1);
+    }
+
+    @Test
+    void filtersBySize() {
+        index = started(row());
+
+        List<StallGroupDTO> small = index.findGroups(StallSize.SMALL, 3, 10);
+        assertThat(small).extracting(StallAdjacencyIndexTests::ids).containsExactly(List.of(1L, 2L, 3L));
+        assertThat(small.getFirst().getSpread()).isEqualTo(13.33);
+
+        assertThat(index.findGroups(StallSize.LARGE, 2, 10)).isEmpty();
+    }
+
+    @Test
+    void aGroupMustBeConnected() {
+        index = started(row());
+
+        // Four in a row, but the fifth is out of reach
+        assertThat(index.findGroups(null, 4, 10)).extracting(StallAdjacencyIndexTests::ids)
+                .containsExactly(List.of(1L, 2L, 3L, 4L));
+        assertThat(index.findGroups(null, 5, 10)).isEmpty();
+    }
+
+    @Test
+    void growsAcrossABlock() {
+        // 2 x 2: the diagonals (28.3 apart) are not neighbours, but every stall touches the group
+        index = started(List.of(
+                stall(1, "A1", StallSize.SMALL, 0, 0, "100"),
+                stall(2, "A2", StallSize.SMALL, 20, 0, "100"),
+                stall(3, "B1", StallSize.SMALL, 0, 20, "100"),
+                stall(4, "B2", StallSize.SMALL, 20, 20, "100")));
+
+        List<StallGroupDTO> groups = index.findGroups(null, 4, 10);
+        assertThat(groups).extracting(StallAdjacencyIndexTests::ids).containsExactly(List.of(1L, 2L, 3L, 4L));
+        assertThat(groups.getFirst().getSpread()).isEqualTo(14.14);
+    }
+
+    @Test
+    void followsStatusChanges() {
+        index = started(row());
+
+        index.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.STATUS, 2L, 2, StallStatus.RESERVED, null));
+        assertThat(index.findGroups(null, 2, 10)).extracting(StallAdjacencyIndexTests::ids)
+                .containsExactly(List.of(3L, 4L));
+        assertThat(index.findGroups(StallSize.SMALL, 2, 10)).isEmpty();
+
+        // An older version is ignored
+        index.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.STATUS, 2L, 1, StallStatus.AVAILABLE, null));
+        assertThat(index.findGroups(null, 2, 10)).hasSize(1);
+
+        index.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.STATUS, 2L, 3, StallStatus.AVAILABLE, null));
+        assertThat(index.findGroups(null, 2, 10)).hasSize(3);
+    }
+
+    @Test
+    void rebuildsWhenAStallMoves() {
+        index = started(row());
+
+        Stall moved = stall(5, "E1", StallSize.SMALL, 80, 0, "50");
+        moved.setVersion(2L);
+        index.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.SAVED, 5L, 2, StallStatus.AVAILABLE, moved));
+
+        assertThat(index.findGroups(null, 2, 10)).extracting(StallAdjacencyIndexTests::ids)
+                .contains(List.of(4L, 5L));
+        assertThat(index.findGroups(null, 5, 10)).hasSize(1);
+    }
+
+    // ----------------------------------------------------------------
+
+    private static StallAdjacencyIndex started(List<Stall> stalls) {
+        StallSnapshotRepository repository = mock(StallSnapshotRepository.class);
+        when(repository.findAll()).thenReturn(stalls);
+        StallLayoutProperties properties = new StallLayoutProperties();
+        properties.setAdjacencyDistance(21);
+        StallAdjacencyIndex index = new StallAdjacencyIndex(properties, repository);
+        index.start();
+        return index;
+    }
+
+    private static List<Stall> row() {
+        return List.of(
+                stall(1, "A1", StallSize.SMALL, 0, 0, "100"),
+                stall(2, "A2", StallSize.SMALL, 20, 0, "100"),
+                stall(3, "A3", StallSize.SMALL, 40, 0, "150"),
+                stall(4, "A4", StallSize.LARGE, 60, 0, "200"),
+                stall(5, "E1", StallSize.SMALL, 200, 0, "50"));
+    }
+
+    private static Stall stall(long id, String name, StallSize size, double x, double y, String price) {
+        return new Stall(id, name, size, "10x10", x, y, new BigDecimal(price), StallStatus.AVAILABLE, null,
+                null, null, 1L);
+    }
+
+    private static List<Long> ids(StallGroupDTO group) {
+        return group.getStalls().stream().map(StallMapDTO::getId).toList();
+    }
+}
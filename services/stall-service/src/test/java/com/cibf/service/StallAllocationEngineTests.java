@@ -0,0 +1,204 @@
+package com.cibf.service;
+
+import com.cibf.config.AllocationProperties;
+import com.cibf.config.QuotaProperties;
+import com.cibf.dto.AllocationResultDTO;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.exception.AllocationRejectedException;
+import com.cibf.exception.AllocationUnavailableException;
+import com.cibf.exception.ResourceNotFoundException;
+import com.cibf.repository.AllocationEngineLock;
+import com.cibf.repository.AllocationJournalRepository;
+import com.cibf.repository.AllocationJournalRepository.Entry;
+import com.cibf.repository.StallOwnershipRepository;
+import com.cibf.repository.StallOwnershipRepository.Ownership;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the allocation engine's conflict rules for holds, reserves, releases and
+ * employee status changes, the quota units they take and give back, and that it
+ * runs only while it holds its database lock. The journal and the lock are mocks;
+ * the journal commits every batch at once.
+ */
+class StallAllocationEngineTests {
+
+    private final List<Entry> journaled = Collections.synchronizedList(new ArrayList<>());
+    private final AllocationEngineLock engineLock = mock(AllocationEngineLock.class);
+    private final AtomicBoolean lockHeld = new AtomicBoolean(true);
+    private final CountDownLatch lockReleased = new CountDownLatch(1);
+    private VendorQuotaService vendorQuotaService;
+    private StallAllocationEngine engine;
+
+    @BeforeEach
+    void startEngine() {
+        AllocationProperties allocationProperties = new AllocationProperties();
+        allocationProperties.setEnabled(true);
+        allocationProperties.setRingSize(64);
+        allocationProperties.setLockCheckInterval(Duration.ofMillis(20));
+        QuotaProperties quotaProperties = new QuotaProperties();
+        quotaProperties.setMaxStallsPerVendor(2);
+
+        // Stalls 1-3 available, stall 4 reserved for v1
+        AllocationJournalRepository journalRepository = mock(AllocationJournalRepository.class);
+        when(journalRepository.findOwnerships()).thenReturn(Map.of(
+                1L, new Ownership(StallStatus.AVAILABLE, null),
+                2L, new Ownership(StallStatus.AVAILABLE, null),
+                3L, new Ownership(StallStatus.AVAILABLE, null),
+                4L, new Ownership(StallStatus.RESERVED, "v1")));
+        when(journalRepository.findLatestEntries()).thenReturn(List.of());
+        when(journalRepository.append(anyList())).thenAnswer(invocation -> {
+            journaled.addAll(invocation.getArgument(0));
+            return Map.of();
+        });
+        StallOwnershipRepository stallOwnershipRepository = mock(StallOwnershipRepository.class);
+        when(stallOwnershipRepository.findReservedByVendor()).thenReturn(Map.of("v1", 1));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        vendorQuotaService = new VendorQuotaService(quotaProperties, allocationProperties, stallOwnershipRepository,
+                meterRegistry);
+        vendorQuotaService.start();
+        when(engineLock.acquire()).thenReturn(true);
+        // Stubbed before the guard thread starts calling them
+        when(engineLock.isHeld()).thenAnswer(invocation -> lockHeld.get());
+        doAnswer(invocation -> {
+            lockReleased.countDown();
+            return null;
+        }).when(engineLock).release();
+        engine = new StallAllocationEngine(allocationProperties, journalRepository, engineLock,
+                mock(StallChangeNotifier.class), vendorQuotaService, meterRegistry);
+        engine.start();
+    }
+
+    @AfterEach
+    void stopEngine() throws InterruptedException {
+        engine.stop();
+        vendorQuotaService.stop();
+    }
+
+    @Test
+    void holdKeepsOtherVendorsOff() {
+        AllocationResultDTO held = engine.hold(1L, "a");
+        assertThat(held.getStatus()).isEqualTo(StallStatus.AVAILABLE);
+        assertThat(held.getHolder()).isEqualTo("a");
+        assertThat(held.getHoldExpiresAt()).isNotNull();
+
+        assertRejected(() -> engine.hold(1L, "b"), "held by another vendor");
+        assertRejected(() -> engine.reserve(1L, "b"), "held by another vendor");
+
+        AllocationResultDTO reserved = engine.reserve(1L, "a");
+        assertThat(reserved.getStatus()).isEqualTo(StallStatus.RESERVED);
+        assertThat(reserved.getHolder()).isEqualTo("a");
+        assertThat(reserved.getHoldExpiresAt()).isNull();
+        assertThat(reserved.getSequence()).isGreaterThan(held.getSequence());
+    }
+
+    @Test
+    void reserveAndReleaseConflicts() {
+        engine.reserve(2L, "a");
+        assertRejected(() -> engine.reserve(2L, "a"), "already reserved by you");
+        assertRejected(() -> engine.reserve(2L, "b"), "not available");
+        assertRejected(() -> engine.hold(2L, "b"), "not available");
+        assertRejected(() -> engine.release(2L, "b"), "not held or reserved by you");
+
+        AllocationResultDTO released = engine.release(2L, "a");
+        assertThat(released.getStatus()).isEqualTo(StallStatus.AVAILABLE);
+        assertThat(released.getHolder()).isNull();
+        assertRejected(() -> engine.release(2L, "a"), "not held or reserved by you");
+
+        assertThat(engine.reserve(2L, "b").getHolder()).isEqualTo("b");
+    }
+
+    @Test
+    void reservesCountAgainstTheQuota() {
+        // v1 starts with stall 4 of its 2
+        engine.reserve(1L, "v1");
+        assertThat(vendorQuotaService.remaining("v1")).isZero();
+        assertRejected(() -> engine.reserve(2L, "v1"), "the most allowed");
+
+        engine.release(1L, "v1");
+        assertThat(vendorQuotaService.remaining("v1")).isEqualTo(1);
+        engine.reserve(2L, "v1");
+    }
+
+    @Test
+    void statusChangeEndsTheReservation() {
+        AllocationResultDTO blocked = engine.setStatus(4L, StallStatus.UNAVAILABLE);
+        assertThat(blocked.getStatus()).isEqualTo(StallStatus.UNAVAILABLE);
+        assertThat(blocked.getHolder()).isNull();
+        assertThat(vendorQuotaService.remaining("v1")).isEqualTo(2);
+
+        assertRejected(() -> engine.reserve(4L, "v1"), "not available");
+        assertRejected(() -> engine.release(4L, "v1"), "not held or reserved by you");
+
+        engine.setStatus(4L, StallStatus.AVAILABLE);
+        assertThat(engine.reserve(4L, "v2").getHolder()).isEqualTo("v2");
+    }
+
+    @Test
+    void statusReservedKeepsTheOwner() {
+        AllocationResultDTO kept = engine.setStatus(4L, StallStatus.RESERVED);
+        assertThat(kept.getHolder()).isEqualTo("v1");
+        assertThat(vendorQuotaService.remaining("v1")).isEqualTo(1);
+
+        engine.release(4L, "v1");
+        assertThat(vendorQuotaService.remaining("v1")).isEqualTo(2);
+    }
+
+    @Test
+    void unknownStallIsNotFound() {
+        assertThatThrownBy(() -> engine.reserve(99L, "a")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void journalRecordsTheOwnerBefore() {
+        engine.reserve(3L, "a");
+        engine.release(3L, "a");
+        engine.setStatus(4L, StallStatus.AVAILABLE);
+
+        assertThat(journaled).extracting(Entry::command).containsExactly("RESERVE", "RELEASE", "STATUS");
+        assertThat(journaled).extracting(Entry::previousOwner).containsExactly(null, "a", "v1");
+        assertThat(journaled).allMatch(Entry::statusChanged);
+        assertThat(journaled).extracting(Entry::sequence).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void stopsWhenItLosesItsDatabaseLock() throws InterruptedException {
+        lockHeld.set(false);
+
+        assertThat(lockReleased.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(engine.isRunning()).isFalse();
+        assertThatThrownBy(() -> engine.reserve(1L, "a")).isInstanceOf(AllocationUnavailableException.class);
+    }
+
+    @Test
+    void doesNotStartWithoutItsDatabaseLock() throws InterruptedException {
+        engine.stop();
+        when(engineLock.acquire()).thenReturn(false);
+
+        engine.start();
+        assertThat(engine.isRunning()).isFalse();
+    }
+
+    private static void assertRejected(Runnable command, String reason) {
+        assertThatThrownBy(command::run).isInstanceOf(AllocationRejectedException.class).hasMessageContaining(reason);
+    }
+}
@@ -0,0 +1,250 @@
+package com.cibf.service;
+
+import com.cibf.config.StallSearchProperties;
+import com.cibf.dto.StallResponseDTO;
+import com.cibf.dto.StallSearchRequestDTO;
+import com.cibf.dto.StallSearchRequestDTO.SortField;
+import com.cibf.dto.StallSearchResultDTO;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the search index against a plain filter over the same 130 stalls (three
+ * bitset words): stall i is named A1..A50, B51..B100 or C101..C130, sized
+ * SMALL, MEDIUM, LARGE in turn, RESERVED when i is a multiple of 5, priced
+ * 100 + 10 * (i % 10) and placed at (10 * i, 0).
+ */
+class StallSearchIndexTests {
+
+    private static final int STALLS = 130;
+
+    private final List<Stall> stalls = layout();
+    private StallSearchIndex index;
+
+    @BeforeEach
+    void start() {
+        StallSnapshotRepository repository = mock(StallSnapshotRepository.class);
+        when(repository.findAll()).thenReturn(stalls);
+        index = new StallSearchIndex(new StallSearchProperties(), repository, new SimpleMeterRegistry());
+        index.start();
+    }
+
+    @AfterEach
+    void stop() {
+        index.stop();
+    }
+
+    @Test
+    void valuesOfOneCriterionAreOredAndCriteriaAreAnded() {
+        StallSearchRequestDTO sizes = request();
+        sizes.setSize(List.of(StallSize.SMALL, StallSize.LARGE));
+        assertThat(ids(sizes)).isEqualTo(expected(s -> s.getSize() != StallSize.MEDIUM));
+
+        StallSearchRequestDTO reserved = request();
+        reserved.setSize(List.of(StallSize.SMALL, StallSize.LARGE));
+        reserved.setStatus(List.of(StallStatus.RESERVED));
+        assertThat(ids(reserved)).isEqualTo(expected(
+                s -> s.getSize() != StallSize.MEDIUM && s.getStatus() == StallStatus.RESERVED));
+
+        StallSearchRequestDTO nothing = request();
+        nothing.setStatus(List.of(StallStatus.UNAVAILABLE));
+        assertThat(index.search(nothing).getTotalElements()).isZero();
+
+        assertThat(index.search(request()).getTotalElements()).isEqualTo(STALLS);
+    }
+
+    @Test
+    void matchesHallsIgnoringCase() {
+        StallSearchRequestDTO halls = request();
+        halls.setHall(List.of("b", "Z"));
+        assertThat(ids(halls)).isEqualTo(expected(s -> s.getStallName().startsWith("B")));
+
+        StallSearchRequestDTO unknown = request();
+        unknown.setHall(List.of("Z"));
+        assertThat(index.search(unknown).getTotalElements()).isZero();
+    }
+
+    @Test
+    void priceRangeIsInclusive() {
+        StallSearchRequestDTO range = request();
+        range.setMinPrice(new BigDecimal("120"));
+        range.setMaxPrice(new BigDecimal("140.00"));
+        assertThat(ids(range)).isEqualTo(expected(s -> price(s) >= 120 && price(s) <= 140));
+
+        // Bounds between cents round inwards
+        range.setMinPrice(new BigDecimal("120.001"));
+        range.setMaxPrice(new BigDecimal("139.999"));
+        assertThat(ids(range)).isEqualTo(expected(s -> price(s) == 130));
+
+        StallSearchRequestDTO atMost = request();
+        atMost.setMaxPrice(new BigDecimal("100"));
+        assertThat(ids(atMost)).isEqualTo(expected(s -> price(s) == 100));
+
+        StallSearchRequestDTO empty = request();
+        empty.setMinPrice(new BigDecimal("200"));
+        assertThat(index.search(empty).getTotalElements()).isZero();
+    }
+
+    @Test
+    void boundsBeyondEveryPriceSelectAllOrNothing() {
+        StallSearchRequestDTO huge = request();
+        huge.setMinPrice(new BigDecimal("-1E+30"));
+        huge.setMaxPrice(new BigDecimal("1E+999999"));
+        assertThat(index.search(huge).getTotalElements()).isEqualTo(STALLS);
+
+        huge.setMinPrice(new BigDecimal("92233720368547758.07"));
+        assertThat(index.search(huge).getTotalElements()).isZero();
+
+        huge.setMinPrice(null);
+        huge.setMaxPrice(new BigDecimal("-1E+30"));
+        assertThat(index.search(huge).getTotalElements()).isZero();
+    }
+
+    @Test
+    void filtersAndSortsByDistance() {
+        StallSearchRequestDTO near = request();
+        near.setNearX(655.0);
+        near.setNearY(0.0);
+        near.setRadius(20.0);
+        near.setSort(SortField.DISTANCE);
+        // 650 and 660 are 5 away, 640 and 670 are 15 away; ties by id
+        assertThat(ids(near)).containsExactly(65L, 66L, 64L, 67L);
+
+        near.setDescending(true);
+        assertThat(ids(near)).containsExactly(67L, 64L, 66L, 65L);
+
+        near.setRadius(0.0);
+        assertThat(ids(near)).isEmpty();
+    }
+
+    @Test
+    void sortsAndPages() {
+        StallSearchRequestDTO byPrice = request();
+        byPrice.setSort(SortField.PRICE);
+        byPrice.setStatus(List.of(StallStatus.AVAILABLE));
+        byPrice.setPageSize(7);
+        List<Long> expected = matching(s -> s.getStatus() == StallStatus.AVAILABLE).stream()
+                .sorted(Comparator.comparing(Stall::getPrice).thenComparing(Stall::getId))
+                .map(Stall::getId).toList();
+
+        StallSearchResultDTO first = index.search(byPrice);
+        assertThat(first.getTotalElements()).isEqualTo(expected.size());
+        assertThat(first.getTotalPages()).isEqualTo((expected.size() + 6) / 7);
+        assertThat(allPages(byPrice, first.getTotalPages())).isEqualTo(expected);
+
+        byPrice.setDescending(true);
+        assertThat(allPages(byPrice, first.getTotalPages())).isEqualTo(expected.reversed());
+
+        byPrice.setPage(first.getTotalPages());
+        assertThat(index.search(byPrice).getStalls()).isEmpty();
+        // page * pageSize beyond int
+        byPrice.setPage(Integer.MAX_VALUE);
+        assertThat(index.search(byPrice).getStalls()).isEmpty();
+
+        StallSearchRequestDTO byId = request();
+        byId.setSort(SortField.ID);
+        byId.setDescending(true);
+        byId.setPageSize(3);
+        assertThat(index.search(byId).getStalls()).extracting(StallResponseDTO::getId)
+                .containsExactly(130L, 129L, 128L);
+    }
+
+    @Test
+    void followsStatusChanges() {
+        index.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.STATUS, 1L, 2, StallStatus.UNAVAILABLE, null));
+
+        StallSearchRequestDTO unavailable = request();
+        unavailable.setStatus(List.of(StallStatus.UNAVAILABLE));
+        StallSearchResultDTO result = index.search(unavailable);
+        assertThat(result.getStalls()).extracting(StallResponseDTO::getId).containsExactly(1L);
+        assertThat(result.getStalls().getFirst().getStatus()).isEqualTo(StallStatus.UNAVAILABLE);
+
+        StallSearchRequestDTO available = request();
+        available.setStatus(List.of(StallStatus.AVAILABLE));
+        assertThat(ids(available)).doesNotContain(1L);
+    }
+
+    @Test
+    void acceptsOnlyWholeDistanceCriteriaAndBoundedPages() {
+        StallSearchRequestDTO partlyNear = request();
+        partlyNear.setNearX(1.0);
+        partlyNear.setNearY(1.0);
+        assertThat(index.accepts(partlyNear)).isFalse();
+
+        partlyNear.setRadius(-1.0);
+        assertThat(index.accepts(partlyNear)).isFalse();
+        partlyNear.setRadius(5.0);
+        assertThat(index.accepts(partlyNear)).isTrue();
+
+        StallSearchRequestDTO distanceOnly = request();
+        distanceOnly.setSort(SortField.DISTANCE);
+        assertThat(index.accepts(distanceOnly)).isFalse();
+
+        StallSearchRequestDTO large = request();
+        large.setPageSize(101);
+        assertThat(index.accepts(large)).isFalse();
+        large.setPageSize(0);
+        assertThat(index.accepts(large)).isFalse();
+    }
+
+    // ----------------------------------------------------------------
+
+    /** ID order, a page large enough for everything. */
+    private static StallSearchRequestDTO request() {
+        StallSearchRequestDTO request = new StallSearchRequestDTO();
+        request.setSort(SortField.ID);
+        request.setPageSize(100);
+        return request;
+    }
+
+    private List<Long> ids(StallSearchRequestDTO request) {
+        return allPages(request, (STALLS + request.getPageSize() - 1) / request.getPageSize());
+    }
+
+    private List<Long> allPages(StallSearchRequestDTO request, int pages) {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; page < pages; page++) {
+            request.setPage(page);
+            index.search(request).getStalls().forEach(stall -> ids.add(stall.getId()));
+        }
+        request.setPage(0);
+        return ids;
+    }
+
+    private List<Stall> matching(Predicate<Stall> filter) {
+        return stalls.stream().filter(filter).toList();
+    }
+
+    private List<Long> expected(Predicate<Stall> filter) {
+        return matching(filter).stream().map(Stall::getId).toList();
+    }
+
+    private static int price(Stall stall) {
+        return stall.getPrice().intValue();
+    }
+
+    private static List<Stall> layout() {
+        StallSize[] sizes = StallSize.values();
+        return IntStream.rangeClosed(1, STALLS).mapToObj(i -> new Stall((long) i,
+                (i <= 50 ? "A" : i <= 100 ? "B" : "C") + i, sizes[(i - 1) % sizes.length], "10x10",
+                10.0 * i, 0.0, BigDecimal.valueOf(100 + 10 * (i % 10)).setScale(2),
+                i % 5 == 0 ? StallStatus.RESERVED : StallStatus.AVAILABLE, null, null, null, 1L)).toList();
+    }
+}
@@ -0,0 +1,166 @@
+package com.cibf.service;
+
+import com.cibf.config.StallWatchProperties;
+import com.cibf.controller.StallController;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.entity.Stall.StallStatus;
+import com.cibf.repository.StallOwnershipRepository;
+import com.cibf.repository.StallOwnershipRepository.Ownership;
+import com.cibf.repository.StallSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the stall watch (long poll) answers: at once when the stall is already
+ * AVAILABLE or missing, when a change makes it available or deletes it, after the
+ * timeout, and 503 beyond app.stall-watch.max-waiters.
+ */
+class StallWatchServiceTests {
+
+    private final StallOwnershipRepository ownerships = mock(StallOwnershipRepository.class);
+    private final StallSnapshotRepository snapshots = mock(StallSnapshotRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StallWatchService watchService;
+
+    @BeforeEach
+    void setUp() {
+        StallWatchProperties properties = new StallWatchProperties();
+        properties.setTimeout(Duration.ofSeconds(30));
+        properties.setMaxWaiters(2);
+        watchService = new StallWatchService(properties, ownerships, snapshots, meterRegistry);
+        when(ownerships.findOwnership(1L)).thenReturn(Optional.of(new Ownership(StallStatus.RESERVED, "v1@cibf.lk")));
+        when(ownerships.findOwnership(2L)).thenReturn(Optional.of(new Ownership(StallStatus.AVAILABLE, null)));
+        when(ownerships.findOwnership(3L)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void answersAtOnceWhenAvailableOrMissing() {
+        assertThat(answer(watchService.watch(2L))).isEqualTo(Map.of("available", true));
+        assertThat(statusOf(watchService.watch(3L))).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void parksUntilTheStallBecomesAvailable() {
+        DeferredResult<ResponseEntity<Map<String, Boolean>>> first = watchService.watch(1L);
+        DeferredResult<ResponseEntity<Map<String, Boolean>>> second = watchService.watch(1L);
+        assertThat(first.hasResult()).isFalse();
+        assertThat(waiters()).isEqualTo(2);
+
+        // Other changes leave the watches parked
+        watchService.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.STATUS, 1L, 2,
+                StallStatus.UNAVAILABLE, null));
+        watchService.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.REMOTE, 2L, 2,
+                StallStatus.AVAILABLE, null));
+        assertThat(first.hasResult()).isFalse();
+
+        watchService.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.REMOTE, 1L, 3,
+                StallStatus.AVAILABLE, null));
+        assertThat(answer(first)).isEqualTo(Map.of("available", true));
+        assertThat(answer(second)).isEqualTo(Map.of("available", true));
+        assertThat(waiters()).isZero();
+    }
+
+    @Test
+    void completesOnSaveDeleteAndResync() {
+        DeferredResult<ResponseEntity<Map<String, Boolean>>> saved = watchService.watch(1L);
+        watchService.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.SAVED, 1L, 2,
+                StallStatus.AVAILABLE, stall(1L, StallStatus.AVAILABLE)));
+        assertThat(answer(saved)).isEqualTo(Map.of("available", true));
+
+        DeferredResult<ResponseEntity<Map<String, Boolean>>> deleted = watchService.watch(1L);
+        watchService.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.DELETED, 1L, 3, null, null));
+        assertThat(statusOf(deleted)).isEqualTo(HttpStatus.NOT_FOUND);
+
+        // After missed changes the watched stalls are read again
+        DeferredResult<ResponseEntity<Map<String, Boolean>>> stillReserved = watchService.watch(1L);
+        when(snapshots.findAllById(List.of(1L))).thenReturn(List.of(stall(1L, StallStatus.RESERVED)));
+        watchService.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.RESYNC, null, 0, null, null));
+        assertThat(stillReserved.hasResult()).isFalse();
+
+        when(snapshots.findAllById(List.of(1L))).thenReturn(List.of(stall(1L, StallStatus.AVAILABLE)));
+        watchService.onStallChange(new StallChangeEvent(StallChangeEvent.Kind.RESYNC, null, 0, null, null));
+        assertThat(answer(stillReserved)).isEqualTo(Map.of("available", true));
+        assertThat(waiters()).isZero();
+    }
+
+    @Test
+    void turnsAwayWatchesBeyondTheLimit() {
+        watchService.watch(1L);
+        watchService.watch(1L);
+
+        assertThat(statusOf(watchService.watch(1L))).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(meterRegistry.get("stall.watch.rejected").counter().count()).isEqualTo(1);
+        assertThat(waiters()).isEqualTo(2);
+    }
+
+    @Test
+    void answersNotAvailableAfterTheTimeout() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StallController(mock(StallService.class), watchService))
+                .build();
+        MvcResult parked = mockMvc.perform(get("/api/stalls/1/watch"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(waiters()).isEqualTo(1);
+
+        MockAsyncContext context = (MockAsyncContext) parked.getRequest().getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        mockMvc.perform(asyncDispatch(parked))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(false));
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onComplete(new AsyncEvent(context));
+        }
+        assertThat(waiters()).isZero();
+    }
+
+    // ----------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Boolean> answer(DeferredResult<ResponseEntity<Map<String, Boolean>>> result) {
+        assertThat(result.hasResult()).isTrue();
+        return ((ResponseEntity<Map<String, Boolean>>) result.getResult()).getBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpStatus statusOf(DeferredResult<ResponseEntity<Map<String, Boolean>>> result) {
+        assertThat(result.hasResult()).isTrue();
+        return HttpStatus.valueOf(((ResponseEntity<Map<String, Boolean>>) result.getResult()).getStatusCode().value());
+    }
+
+    private double waiters() {
+        return meterRegistry.get("stall.watch.waiters").gauge().value();
+    }
+
+    private static Stall stall(Long id, StallStatus status) {
+        return new Stall(id, "A" + id, StallSize.SMALL, "10x10", 0.0, 0.0, new BigDecimal("100.00"), status, null,
+                null, null, 1L);
+    }
+}
@@ -0,0 +1,160 @@
+package com.cibf.service;
+
+import com.cibf.config.AllocationProperties;
+import com.cibf.config.QuotaProperties;
+import com.cibf.exception.AllocationRejectedException;
+import com.cibf.exception.AllocationUnavailableException;
+import com.cibf.repository.StallOwnershipRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the per-vendor stall cap: units taken, confirmed, cancelled and released,
+ * many threads racing for the last units, and recounts from vendor_quota that keep
+ * the units of reserves still in flight.
+ */
+class VendorQuotaServiceTests {
+
+    private final StallOwnershipRepository stallOwnershipRepository = mock(StallOwnershipRepository.class);
+    private VendorQuotaService service;
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void refusesUntilCountedFromTheDatabase() {
+        service = service(3, Duration.ZERO);
+        assertThatThrownBy(() -> service.acquire("a")).isInstanceOf(AllocationUnavailableException.class);
+    }
+
+    @Test
+    void enforcesTheLimit() {
+        when(stallOwnershipRepository.findReservedByVendor()).thenReturn(Map.of("a", 1));
+        service = started(3, Duration.ZERO);
+        assertThat(service.remaining("a")).isEqualTo(2);
+        assertThat(service.remaining("b")).isEqualTo(3);
+
+        service.acquire("a");
+        service.acquire("a");
+        assertThat(service.remaining("a")).isZero();
+        assertThatThrownBy(() -> service.acquire("a"))
+                .isInstanceOf(AllocationRejectedException.class)
+                .hasMessageContaining("the most allowed");
+
+        // Another vendor has its own allowance
+        service.acquire("b");
+        assertThat(service.remaining("b")).isEqualTo(2);
+    }
+
+    @Test
+    void cancelAndReleaseGiveUnitsBack() {
+        service = started(2, Duration.ZERO);
+        service.acquire("a");
+        service.acquire("a");
+        service.cancel("a");
+        assertThat(service.remaining("a")).isEqualTo(1);
+
+        service.confirm("a");
+        assertThat(service.remaining("a")).isEqualTo(1);
+        service.release("a");
+        assertThat(service.remaining("a")).isEqualTo(2);
+
+        // Never below zero
+        service.release("a");
+        service.cancel("a");
+        assertThat(service.remaining("a")).isEqualTo(2);
+    }
+
+    @Test
+    void bulkReservationsCount() {
+        service = started(3, Duration.ZERO);
+        // No transaction: counted at once
+        service.reservedAfterCommit("a", 2);
+        assertThat(service.remaining("a")).isEqualTo(1);
+        service.releasedAfterCommit("a");
+        assertThat(service.remaining("a")).isEqualTo(2);
+    }
+
+    @Test
+    void racingThreadsGetNoMoreThanTheLimit() throws InterruptedException {
+        service = started(5, Duration.ZERO);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 10; i++) {
+                        service.acquire("a");
+                        granted.incrementAndGet();
+                    }
+                } catch (AllocationRejectedException | InterruptedException ex) {
+                    // at the cap
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(granted.get()).isEqualTo(5);
+    }
+
+    @Test
+    void resyncKeepsReservesInFlight() {
+        service = started(3, Duration.ZERO);
+        service.acquire("a");
+        // Meanwhile another instance reserved one for the same vendor
+        when(stallOwnershipRepository.findReserved("a")).thenReturn(1);
+
+        service.resync("a");
+        assertThat(service.remaining("a")).isEqualTo(1);
+        service.confirm("a");
+        assertThat(service.remaining("a")).isEqualTo(1);
+    }
+
+    @Test
+    void recountKeepsReservesInFlight() throws InterruptedException {
+        when(stallOwnershipRepository.findReservedByVendor()).thenReturn(Map.of("gone", 2));
+        service = started(3, Duration.ofMillis(20));
+        service.acquire("a");
+        when(stallOwnershipRepository.findReservedByVendor()).thenReturn(Map.of("a", 1));
+
+        Thread.sleep(200);
+        // 1 counted in the database and 1 in flight
+        assertThat(service.remaining("a")).isEqualTo(1);
+        assertThat(service.remaining("gone")).isEqualTo(3);
+    }
+
+    private VendorQuotaService started(int limit, Duration reconcileInterval) {
+        VendorQuotaService started = service(limit, reconcileInterval);
+        started.start();
+        return started;
+    }
+
+    private VendorQuotaService service(int limit, Duration reconcileInterval) {
+        QuotaProperties properties = new QuotaProperties();
+        properties.setMaxStallsPerVendor(limit);
+        properties.setReconcileInterval(reconcileInterval);
+        return new VendorQuotaService(properties, new AllocationProperties(), stallOwnershipRepository,
+                new SimpleMeterRegistry());
+    }
+}
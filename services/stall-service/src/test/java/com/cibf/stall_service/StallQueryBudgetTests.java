@@ -0,0 +1,127 @@
+package com.cibf.stall_service;
+
+import com.cibf.config.QueryGuardProperties;
+import com.cibf.dto.StallMapColumnsDTO;
+import com.cibf.entity.Stall;
+import com.cibf.entity.Stall.StallSize;
+import com.cibf.repository.StallRepository;
+import com.cibf.reservation.backend.StallServiceApplication;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the stall listing and map routes against the query budgets configured in
+ * application.properties (app.query-guard.budgets), with the caches empty so the
+ * queries really run, so an N+1 regression fails the build.
+ */
+@SpringBootTest(classes = StallServiceApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StallQueryBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryGuardProperties queryGuard;
+
+    @Autowired
+    private StallRepository stallRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.jwt-secret}")
+    private String jwtSecret;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    void stallsAndEmptyCaches() {
+        if (!stallRepository.existsByStallName("Q1")) {
+            for (int i = 1; i <= 3; i++) {
+                stallRepository.save(stall("Q" + i));
+            }
+        }
+        entityManagerFactory.unwrap(org.hibernate.Cache.class).evictAllRegions();
+    }
+
+    @Test
+    void listingStaysWithinBudget() throws Exception {
+        assertWithinBudget(perform(get("/api/stalls")), "GET", "/api/stalls");
+    }
+
+    @Test
+    void mapStaysWithinBudget() throws Exception {
+        assertWithinBudget(perform(get("/api/stalls/map")), "GET", "/api/stalls/map");
+    }
+
+    @Test
+    void columnarMapStaysWithinBudget() throws Exception {
+        assertWithinBudget(perform(get("/api/stalls/map").accept(StallMapColumnsDTO.MEDIA_TYPE)),
+                "GET", "/api/stalls/map");
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header("Authorization", bearerToken()))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private void assertWithinBudget(MvcResult result, String method, String route) {
+        Integer budget = queryGuard.budgetFor(method, route);
+        assertThat(budget).as("budget configured for %s %s", method, route).isNotNull();
+
+        String header = result.getResponse().getHeader("X-Query-Count");
+        assertThat(header).as("X-Query-Count header").isNotNull();
+        assertThat(Integer.parseInt(header))
+                .as("JDBC statements for %s %s", method, route)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private static Stall stall(String name) {
+        Stall stall = new Stall();
+        stall.setStallName(name);
+        stall.setSize(StallSize.MEDIUM);
+        stall.setDimension("15x15");
+        stall.setLocationX(1.0);
+        stall.setLocationY(2.0);
+        stall.setPrice(BigDecimal.TEN);
+        return stall;
+    }
+
+    private String bearerToken() {
+        String token = Jwts.builder()
+                .setSubject("budget-test@vendor.lk")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+                .compact();
+        return "Bearer " + token;
+    }
+}
@@ -1,13 +1,22 @@
 package com.cibf.stall_service;
 
+import com.cibf.reservation.backend.StallServiceApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
-// Specify where to find the main application class
-@SpringBootTest(classes = com.cibf.service.StallService.class)
+@SpringBootTest(classes = StallServiceApplication.class)
+@ActiveProfiles("test")
 class StallServiceApplicationTests {
 
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		TestDatabase.register(registry);
+	}
+
 	@Test
 	void contextLoads() {
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.cibf.stall_service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * One embedded PostgreSQL (real server binaries) for every test context of this
+ * JVM, started on first use; Flyway then creates stall_schema as in production.
+ * Tests with profile "test" register it from a {@code @DynamicPropertySource} method.
+ */
+public final class TestDatabase {
+
+    private static EmbeddedPostgres postgres;
+
+    private TestDatabase() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", TestDatabase::url);
+    }
+
+    /** JDBC URL of the test database (user and password "postgres"). */
+    public static String url() {
+        return "jdbc:postgresql://localhost:" + port() + "/postgres?currentSchema=stall_schema";
+    }
+
+    private static synchronized int port() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not start the embedded PostgreSQL", ex);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // The JVM is exiting anyway
+                }
+            }));
+        }
+        return postgres.getPort();
+    }
+}
@@ -1,15 +1,18 @@
 package com.cibf;
 
+import com.cibf.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
 @ComponentScan(basePackages = "com.cibf") // ✅ Scan all com.cibf packages
 @EntityScan(basePackages = "com.cibf.entity") // ✅ Scan entities
 @EnableJpaRepositories(basePackages = "com.cibf.repository") // ✅ Scan repositories
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class UserServiceApplication {
 
     public static void main(String[] args) {
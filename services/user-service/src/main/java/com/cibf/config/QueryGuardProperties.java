@@ -0,0 +1,36 @@
+package com.cibf.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-request query budgets checked by {@link QueryGuardInterceptor}.
+ *
+ * Budgets are keyed by lower-case HTTP method, then by route pattern:
+ * <pre>
+ * app.query-guard.budgets.get.[/api/genres/user]=1
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.query-guard")
+public class QueryGuardProperties {
+
+    /** Add an X-Query-Count header to every response (non-prod only). */
+    private boolean exposeHeader = false;
+
+    /** Maximum JDBC statements per request, by method and route. */
+    private Map<String, Map<String, Integer>> budgets = new HashMap<>();
+
+    /**
+     * Budget for the given method and route, or null when none is configured.
+     */
+    public Integer budgetFor(String method, String route) {
+        Map<String, Integer> byRoute = budgets.get(method.toLowerCase());
+        return byRoute != null ? byRoute.get(route) : null;
+    }
+}
@@ -0,0 +1,197 @@
+package com.cibf.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Chooses between the primary and the read replica for each JDBC connection.
+ *
+ * Read-only transactions (@Transactional(readOnly = true), Spring Data's find
+ * methods) go to the replica unless it is unreachable, more than max-lag
+ * behind, or the calling user / client IP wrote within the stickiness window,
+ * in which case they read their own writes from the primary. Everything else
+ * goes to the primary. The decision is made when the transaction's first
+ * statement runs (LazyConnectionDataSourceProxy), after Spring has marked the
+ * connection read-only.
+ */
+@Slf4j
+public class ReadReplicaRouter implements DisposableBean {
+
+    // Zero when the WAL received so far is replayed (or this is not a standby at all)
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final ReplicaProperties properties;
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Supplier<String> caller;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final Counter replicaReads;
+    private final Thread lagMonitor;
+
+    /** Replica lag in ms; negative while the replica cannot be reached. */
+    private volatile long lagMillis = -1;
+    private volatile boolean running = true;
+
+    public ReadReplicaRouter(ReplicaProperties properties, DataSource primary, DataSource replica,
+                             Supplier<String> caller, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.primary = primary;
+        this.replica = replica;
+        this.caller = caller;
+        this.meterRegistry = meterRegistry;
+        this.replicaReads = reads("replica", null);
+        Gauge.builder("db.replica.lag", this, router -> router.lagMillis < 0 ? Double.NaN : router.lagMillis / 1000.0)
+                .description("Replay lag of the read replica (NaN while unreachable)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.lagMonitor = Thread.ofPlatform().name("replica-lag-monitor").daemon().start(this::monitorLag);
+    }
+
+    /**
+     * The application DataSource: read-only connections through {@link #readConnection()},
+     * all others through {@link #writeConnection()}.
+     */
+    public DataSource routingDataSource() {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(new RoutedDataSource(false));
+        proxy.setReadOnlyDataSource(new RoutedDataSource(true));
+        return proxy;
+    }
+
+    private Connection readConnection() throws SQLException {
+        String reason = primaryReason();
+        if (reason == null) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException | RuntimeException ex) {
+                lagMillis = -1;
+                log.warn("Read replica unavailable, reading from the primary: {}", ex.getMessage());
+                reason = "unavailable";
+            }
+        }
+        reads("primary", reason).increment();
+        return primary.getConnection();
+    }
+
+    private Connection writeConnection() throws SQLException {
+        String writer = caller.get();
+        if (writer != null) {
+            if (lastWrites.size() >= properties.getMaxTrackedCallers() && !lastWrites.containsKey(writer)) {
+                sweep();
+            }
+            lastWrites.put(writer, System.nanoTime());
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Why this read must go to the primary, or null if the replica may serve it.
+     */
+    private String primaryReason() {
+        long lag = lagMillis;
+        if (lag < 0) {
+            return "unavailable";
+        }
+        if (lag > properties.getMaxLag().toMillis()) {
+            return "lag";
+        }
+        String reader = caller.get();
+        Long lastWrite = reader != null ? lastWrites.get(reader) : null;
+        if (lastWrite != null && System.nanoTime() - lastWrite < properties.getStickiness().toNanos()) {
+            return "own-write";
+        }
+        return null;
+    }
+
+    private void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            long stickiness = properties.getStickiness().toNanos();
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= stickiness);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private void monitorLag() {
+        while (running) {
+            long previous = lagMillis;
+            try (Connection connection = replica.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                lagMillis = resultSet.getLong(1);
+                if (previous < 0) {
+                    log.info("Read replica reachable (lag {} ms)", lagMillis);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                // RuntimeException: Hikari pool initialisation failures
+                lagMillis = -1;
+                if (previous >= 0) {
+                    log.warn("Read replica unreachable, reading from the primary: {}", ex.getMessage());
+                }
+            }
+            try {
+                Thread.sleep(properties.getLagCheckInterval());
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    private Counter reads(String target, String reason) {
+        return Counter.builder("db.replica.reads")
+                .description("Read-only transactions by the database that served them")
+                .tag("target", target)
+                .tag("reason", reason != null ? reason : "none")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        lagMonitor.interrupt();
+    }
+
+    private final class RoutedDataSource extends AbstractDataSource {
+
+        private final boolean readOnly;
+
+        private RoutedDataSource(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readOnly ? readConnection() : writeConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Credentials are configured per pool");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.cibf.config;
+
+import com.cibf.security.GatewayIdentity;
+import com.cibf.security.JwtTokenProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+
+/**
+ * With app.datasource.replica.enabled=true, replaces Boot's single pool with a
+ * primary pool (spring.datasource.*), a replica pool (app.datasource.replica.*)
+ * and a {@link ReadReplicaRouter} in front of them. Off by default: then
+ * everything goes to spring.datasource as before.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReplicaProperties replica, DataSourceProperties primary) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername())
+                .password(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaRouter readReplicaRouter(ReplicaProperties properties, HikariDataSource primaryDataSource,
+                                               HikariDataSource replicaDataSource, MeterRegistry meterRegistry,
+                                               GatewayIdentity gatewayIdentity, JwtTokenProvider jwtTokenProvider) {
+        return new ReadReplicaRouter(properties, primaryDataSource, replicaDataSource,
+                () -> caller(gatewayIdentity, jwtTokenProvider), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource routingDataSource(ReadReplicaRouter readReplicaRouter) {
+        return readReplicaRouter.routingDataSource();
+    }
+
+    /**
+     * Whose writes a read must see: the vendor (gateway header or bearer token subject),
+     * else the client IP (e.g. before a vendor has logged in); null outside a request.
+     */
+    private static String caller(GatewayIdentity gatewayIdentity, JwtTokenProvider jwtTokenProvider) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String username = gatewayIdentity.username(request);
+        String bearerToken = request.getHeader("Authorization");
+        if (username == null && bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            try {
+                username = jwtTokenProvider.getUsername(bearerToken.substring(7));
+            } catch (RuntimeException ex) {
+                // expired or invalid: fall back to the IP
+            }
+        }
+        return username != null ? "user:" + username : "ip:" + request.getRemoteAddr();
+    }
+}
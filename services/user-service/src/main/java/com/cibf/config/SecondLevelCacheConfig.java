@@ -0,0 +1,60 @@
+package com.cibf.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Builds the JCache (Caffeine) CacheManager behind Hibernate's second-level cache
+ * from {@link SecondLevelCacheProperties} and hands it to Hibernate.
+ *
+ * Hibernate keeps the regions consistent with writes made through this service:
+ * entity updates and deletes replace or evict the cached entry when the transaction
+ * commits, and any write to a table invalidates the cached query results that read it.
+ * Writes made outside Hibernate (psql, another instance) are only picked up once the
+ * entry's ttl runs out.
+ */
+@Configuration
+@Slf4j
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        // A manager of its own per application context: the caching provider is JVM-wide,
+        // and test contexts or the single-JVM assembly must not share entries
+        ClassLoader classLoader = getClass().getClassLoader();
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName(), classLoader)
+                .getCacheManager(URI.create("cibf:second-level-cache:" + UUID.randomUUID()), classLoader);
+        properties.getRegions().forEach((name, region) -> {
+            cacheManager.createCache(name, configuration(region));
+            log.info("Second-level cache region {}: max-size={}, ttl={}", name, region.getMaxSize(), region.getTtl());
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(SecondLevelCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate stores its own immutable entry representations; no need to copy them
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+        if (region.getTtl() != null && !region.getTtl().isZero()) {
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+        }
+        return configuration;
+    }
+}
@@ -2,6 +2,7 @@ package com.cibf.controller;
 
 import com.cibf.dto.GenreDTO;
 import com.cibf.dto.UserGenreRequest;
+import com.cibf.security.GatewayIdentity;
 import com.cibf.security.JwtTokenProvider;
 import com.cibf.service.GenreService;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,7 @@ public class GenreController {
 
     private final GenreService genreService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final GatewayIdentity gatewayIdentity;
 
     // ----------------- GENRES -----------------
 
@@ -98,6 +100,12 @@ public class GenreController {
     // ----------------- HELPER -----------------
 
     private String extractUsernameFromRequest(HttpServletRequest request) {
+        // Already verified by the API gateway
+        String forwardedUsername = gatewayIdentity.username(request);
+        if (forwardedUsername != null) {
+            return forwardedUsername;
+        }
+
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken == null || !bearerToken.startsWith("Bearer ")) {
             throw new RuntimeException("Authorization header missing or invalid");
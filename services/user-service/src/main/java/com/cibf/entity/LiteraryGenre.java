@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Represents a literary genre (e.g., Fiction, Non-Fiction, Biography).
@@ -11,6 +13,8 @@ import lombok.AllArgsConstructor;
  */
 @Entity
 @Table(name = "literary_genres")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "literary-genre") // see SecondLevelCacheConfig
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "user_genre")
+@Table(name = "user_genre", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_genre_username_genre", columnNames = {"username", "genre_id"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,7 +20,7 @@ public class UserGenre {
 
     private String username; // instead of userId
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "genre_id")
     private LiteraryGenre genre;
 
@@ -1,13 +1,25 @@
 package com.cibf.repository;
 
 import com.cibf.entity.LiteraryGenre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LiteraryGenreRepository extends JpaRepository<LiteraryGenre, Long> {
+
+    /**
+     * All genres, from the query cache when no genre has been written since
+     * (the ids are cached; the genres themselves come from the literary-genre region).
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<LiteraryGenre> findAll();
     
     /**
      * Find genre by name (case-insensitive).
@@ -1,8 +1,11 @@
 package com.cibf.repository;
 
 import com.cibf.entity.UserGenre;
-import com.cibf.entity.LiteraryGenre;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,11 +13,20 @@ import java.util.List;
 @Repository
 public interface UserGenreRepository extends JpaRepository<UserGenre, Long> {
 
+    /**
+     * Fetches the genres in the same query (genre is lazy, so without the
+     * entity graph every row would trigger its own select).
+     */
+    @EntityGraph(attributePaths = "genre")
     List<UserGenre> findByUsername(String username);
 
-    void deleteByUsername(String username);
+    @Modifying
+    @Query("DELETE FROM UserGenre ug WHERE ug.username = :username")
+    void deleteByUsername(@Param("username") String username);
 
     boolean existsByUsernameAndGenreId(String username, Long genreId);
 
-    void deleteByUsernameAndGenreId(String username, Long genreId);
+    @Modifying
+    @Query("DELETE FROM UserGenre ug WHERE ug.username = :username AND ug.genre.id = :genreId")
+    void deleteByUsernameAndGenreId(@Param("username") String username, @Param("genreId") Long genreId);
 }
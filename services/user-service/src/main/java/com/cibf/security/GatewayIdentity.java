@@ -0,0 +1,44 @@
+package com.cibf.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Identity forwarded by the API gateway, which has already verified the JWT.
+ *
+ * The forwarded user is only trusted when app.gateway.shared-secret is set and
+ * the request carries the same secret; otherwise (the default, or a request
+ * that bypassed the gateway) the caller falls back to verifying the token.
+ */
+@Component
+public class GatewayIdentity {
+
+    public static final String USER_HEADER = "X-Authenticated-User";
+    public static final String SECRET_HEADER = "X-Gateway-Secret";
+
+    private final byte[] sharedSecret;
+
+    public GatewayIdentity(@Value("${app.gateway.shared-secret:}") String sharedSecret) {
+        this.sharedSecret = sharedSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the username verified by the gateway, or null if the request did not come through it
+     */
+    public String username(HttpServletRequest request) {
+        if (sharedSecret.length == 0) {
+            return null;
+        }
+        String secret = request.getHeader(SECRET_HEADER);
+        String username = request.getHeader(USER_HEADER);
+        if (secret == null || !StringUtils.hasText(username)) {
+            return null;
+        }
+        return MessageDigest.isEqual(sharedSecret, secret.getBytes(StandardCharsets.UTF_8)) ? username : null;
+    }
+}
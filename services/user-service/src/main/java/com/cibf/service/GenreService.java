@@ -11,6 +11,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,12 +22,14 @@ public class GenreService {
     private final LiteraryGenreRepository genreRepository;
     private final UserGenreRepository userGenreRepository;
 
+    @Transactional(readOnly = true)
     public List<GenreDTO> getAllGenres() {
         return genreRepository.findAll().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public GenreDTO getGenreById(Long id) {
         LiteraryGenre genre = genreRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Genre not found with id: " + id));
@@ -62,6 +66,7 @@ public class GenreService {
 
     // ----------------- USER GENRES BY USERNAME -----------------
 
+    @Transactional(readOnly = true)
     public List<GenreDTO> getUserGenresByUsername(String username) {
         List<UserGenre> userGenres = userGenreRepository.findByUsername(username);
         return userGenres.stream()
@@ -73,10 +78,17 @@ public class GenreService {
     public List<GenreDTO> updateUserGenresByUsername(String username, UserGenreRequest request) {
         userGenreRepository.deleteByUsername(username);
 
+        // Load all requested genres in one query instead of one findById per id
+        Map<Long, LiteraryGenre> genresById = genreRepository.findAllById(request.getGenreIds()).stream()
+                .collect(Collectors.toMap(LiteraryGenre::getId, Function.identity()));
+
         List<UserGenre> newUserGenres = request.getGenreIds().stream()
+                .distinct()
                 .map(genreId -> {
-                    LiteraryGenre genre = genreRepository.findById(genreId)
-                            .orElseThrow(() -> new RuntimeException("Genre not found with id: " + genreId));
+                    LiteraryGenre genre = genresById.get(genreId);
+                    if (genre == null) {
+                        throw new RuntimeException("Genre not found with id: " + genreId);
+                    }
                     return new UserGenre(username, genre); // username instead of userId
                 })
                 .collect(Collectors.toList());
@@ -0,0 +1,20 @@
+-- ============================================================
+-- V1: Base tables for user_schema
+-- Mirrors the tables previously created by Hibernate (ddl-auto=update),
+-- so existing databases are baselined at this version (see
+-- spring.flyway.baseline-on-migrate) and only new databases run it.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS literary_genres (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    genre_name      VARCHAR(255) NOT NULL,
+    description     VARCHAR(500),
+    CONSTRAINT uk_literary_genres_genre_name UNIQUE (genre_name)
+);
+
+CREATE TABLE IF NOT EXISTS user_genre (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username        VARCHAR(255),
+    genre_id        BIGINT,
+    CONSTRAINT fk_user_genre_genre FOREIGN KEY (genre_id) REFERENCES literary_genres (id)
+);
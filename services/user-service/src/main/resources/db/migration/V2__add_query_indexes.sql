@@ -0,0 +1,21 @@
+-- ============================================================
+-- V2: Indexes for the hot queries in user_schema
+-- ============================================================
+
+-- Drop duplicate selections left behind before the constraint existed,
+-- keeping the oldest row of each (username, genre_id) pair.
+DELETE FROM user_genre a
+    USING user_genre b
+    WHERE a.username = b.username
+      AND a.genre_id = b.genre_id
+      AND a.id > b.id;
+
+-- findByUsername / deleteByUsername (leading column),
+-- existsByUsernameAndGenreId / deleteByUsernameAndGenreId (full key)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_user_genre_username_genre ON user_genre (username, genre_id);
+
+-- Deleting a genre looks up referencing rows through the foreign key
+CREATE INDEX IF NOT EXISTS idx_user_genre_genre_id ON user_genre (genre_id);
+
+-- findByGenreNameIgnoreCase / existsByGenreNameIgnoreCase (Spring Data compares upper(genre_name))
+CREATE INDEX IF NOT EXISTS idx_literary_genres_genre_name_upper ON literary_genres (UPPER(genre_name));
@@ -0,0 +1,120 @@
+package com.cibf.user_service;
+
+import com.cibf.UserServiceApplication;
+import com.cibf.config.QueryGuardProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the genre endpoints against the query budgets configured in
+ * application.properties (app.query-guard.budgets), so an N+1 regression
+ * fails the build instead of surfacing in production.
+ */
+@SpringBootTest(classes = UserServiceApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GenreQueryBudgetTests {
+
+    private static final String USERNAME = "budget-test@vendor.lk";
+    private static final String SINGLE_GENRE_USERNAME = "budget-single@vendor.lk";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryGuardProperties queryGuard;
+
+    @Value("${app.jwt-secret}")
+    private String jwtSecret;
+
+    @Test
+    void getUserGenresStaysWithinBudget() throws Exception {
+        mockMvc.perform(post("/api/genres/user")
+                        .header("Authorization", bearerToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"genreIds\": [1, 2, 3, 4, 5]}"))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/api/genres/user").header("Authorization", bearerToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andReturn();
+
+        assertWithinBudget(result, "GET", "/api/genres/user");
+    }
+
+    @Test
+    void getAllGenresStaysWithinBudget() throws Exception {
+        assertWithinBudget(perform(get("/api/genres")), "GET", "/api/genres");
+    }
+
+    @Test
+    void getGenreByIdStaysWithinBudget() throws Exception {
+        assertWithinBudget(perform(get("/api/genres/1")), "GET", "/api/genres/{id}");
+    }
+
+    @Test
+    void addAndRemoveUserGenreStayWithinBudget() throws Exception {
+        String token = bearerToken(SINGLE_GENRE_USERNAME);
+
+        MvcResult added = mockMvc.perform(post("/api/genres/user/2").header("Authorization", token))
+                .andExpect(status().isCreated())
+                .andReturn();
+        assertWithinBudget(added, "POST", "/api/genres/user/{genreId}");
+
+        MvcResult removed = mockMvc.perform(delete("/api/genres/user/2").header("Authorization", token))
+                .andExpect(status().isNoContent())
+                .andReturn();
+        assertWithinBudget(removed, "DELETE", "/api/genres/user/{genreId}");
+    }
+
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+    }
+
+    private void assertWithinBudget(MvcResult result, String method, String route) {
+        Integer budget = queryGuard.budgetFor(method, route);
+        assertThat(budget).as("budget configured for %s %s", method, route).isNotNull();
+
+        String header = result.getResponse().getHeader("X-Query-Count");
+        assertThat(header).as("X-Query-Count header").isNotNull();
+        assertThat(Integer.parseInt(header))
+                .as("JDBC statements for %s %s", method, route)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private String bearerToken() {
+        return bearerToken(USERNAME);
+    }
+
+    private String bearerToken(String username) {
+        String token = Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+                .compact();
+        return "Bearer " + token;
+    }
+}
@@ -0,0 +1,68 @@
+package com.cibf.user_service;
+
+import com.cibf.UserServiceApplication;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that a caller who empties their token bucket gets 429 with Retry-After
+ * while other callers keep their own allowance.
+ */
+@SpringBootTest(classes = UserServiceApplication.class, properties = {
+        "app.rate-limit.routes.get.[/api/genres/{id}].capacity=2",
+        "app.rate-limit.routes.get.[/api/genres/{id}].refill-per-second=0.01",
+        "app.rate-limit.routes.get.[/api/genres/{id}].key=user"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Value("${app.jwt-secret}")
+    private String jwtSecret;
+
+    @Test
+    void rejectsCallerOverLimitWithRetryAfter() throws Exception {
+        String vendor = bearerToken("rate-limited@vendor.lk");
+        mockMvc.perform(get("/api/genres/1").header("Authorization", vendor)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres/1").header("Authorization", vendor)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/genres/1").header("Authorization", vendor))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.status").value(429));
+
+        // Another vendor, and anonymous callers (bucketed by IP), are unaffected
+        mockMvc.perform(get("/api/genres/1").header("Authorization", bearerToken("other@vendor.lk")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/genres/1")).andExpect(status().isOk());
+    }
+
+    private String bearerToken(String username) {
+        String token = Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+                .compact();
+        return "Bearer " + token;
+    }
+}